@@ -6,4 +6,14 @@ import net.remmintan.mods.minefortress.core.TaskType;
 import java.util.List;
 import java.util.UUID;
 
-public record TaskInformationDto(UUID id, List<BlockPos> positions, TaskType type) {}
+public record TaskInformationDto(UUID id, TaskShape shape, TaskType type) {
+
+    public TaskInformationDto(UUID id, List<BlockPos> positions, TaskType type) {
+        this(id, new TaskShape.Positions(positions), type);
+    }
+
+    public Iterable<BlockPos> positions() {
+        return shape.positions();
+    }
+
+}
@@ -0,0 +1,58 @@
+package net.remmintan.mods.minefortress.core.dtos.tasks;
+
+import net.minecraft.util.math.BlockPos;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+public interface TaskShape {
+
+    Iterable<BlockPos> positions();
+
+    record Box(BlockPos start, BlockPos end) implements TaskShape {
+        @Override
+        public Iterable<BlockPos> positions() {
+            return BlockPos.iterate(start, end);
+        }
+    }
+
+    record Positions(List<BlockPos> list) implements TaskShape {
+        @Override
+        public Iterable<BlockPos> positions() {
+            return list;
+        }
+    }
+
+    /**
+     * Runs of blocks along the X axis, every run is stored as x, y, z, length.
+     * Positions are created while iterating and the returned position is mutable.
+     */
+    record Runs(int[] runs) implements TaskShape {
+        @Override
+        public Iterable<BlockPos> positions() {
+            return () -> new Iterator<>() {
+                private final BlockPos.Mutable cursor = new BlockPos.Mutable();
+                private int run = 0;
+                private int offset = 0;
+
+                @Override
+                public boolean hasNext() {
+                    return run < runs.length;
+                }
+
+                @Override
+                public BlockPos next() {
+                    if(!hasNext()) throw new NoSuchElementException();
+                    cursor.set(runs[run] + offset, runs[run + 1], runs[run + 2]);
+                    if(++offset >= runs[run + 3]) {
+                        offset = 0;
+                        run += 4;
+                    }
+                    return cursor;
+                }
+            };
+        }
+    }
+
+}
@@ -2,8 +2,13 @@ package net.remmintan.mods.minefortress.core.interfaces.blueprints;
 
 import net.minecraft.util.BlockRotation;
 
+import java.util.concurrent.CompletableFuture;
+
 public interface IBlockDataProvider {
 
     IStructureBlockData getBlockData(String fileName, BlockRotation rotation);
+    default CompletableFuture<IStructureBlockData> getBlockDataAsync(String fileName, BlockRotation rotation) {
+        return CompletableFuture.completedFuture(getBlockData(fileName, rotation));
+    }
     default void reset() {}
 }
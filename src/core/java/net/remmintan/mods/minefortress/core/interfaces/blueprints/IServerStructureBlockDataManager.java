@@ -1,14 +1,20 @@
 package net.remmintan.mods.minefortress.core.interfaces.blueprints;
 
 import net.minecraft.nbt.NbtCompound;
+import net.minecraft.util.BlockRotation;
 import net.remmintan.mods.minefortress.core.interfaces.networking.FortressS2CPacket;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 public interface IServerStructureBlockDataManager extends IBlockDataProvider {
+    IStructureBlockData getBlockData(String fileName, BlockRotation rotation, int floorLevel);
+
+    CompletableFuture<IStructureBlockData> getBlockDataAsync(String fileName, BlockRotation rotation, int floorLevel);
+
     Optional<Integer> getFloorLevel(String filename);
 
     Optional<NbtCompound> getStructureNbt(String fileName);
@@ -13,6 +13,8 @@ public interface IStructureBlockData {
 
     Map<BlockPos, BlockState> getLayer(BlueprintDataLayer layer);
 
+    IStructureLayer getStructureLayer(BlueprintDataLayer layer);
+
     Vec3i getSize();
 
     List<IItemInfo> getStacks();
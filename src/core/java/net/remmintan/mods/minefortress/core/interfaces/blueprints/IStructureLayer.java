@@ -0,0 +1,29 @@
+package net.remmintan.mods.minefortress.core.interfaces.blueprints;
+
+import net.minecraft.block.BlockState;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.Vec3i;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Map;
+
+public interface IStructureLayer {
+
+    Vec3i getSize();
+
+    int size();
+
+    @Nullable
+    BlockState getBlockState(int x, int y, int z);
+
+    void forEach(BlockConsumer consumer);
+
+    // read only view over the layer, positions are created while iterating
+    Map<BlockPos, BlockState> asMap();
+
+    @FunctionalInterface
+    interface BlockConsumer {
+        void accept(int x, int y, int z, BlockState state);
+    }
+
+}
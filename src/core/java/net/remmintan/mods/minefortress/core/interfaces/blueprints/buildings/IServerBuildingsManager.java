@@ -1,11 +1,13 @@
 package net.remmintan.mods.minefortress.core.interfaces.blueprints.buildings;
 
+import net.minecraft.block.BlockState;
 import net.minecraft.entity.mob.HostileEntity;
 import net.minecraft.server.network.ServerPlayerEntity;
 import net.minecraft.util.math.BlockPos;
 import net.remmintan.mods.minefortress.core.interfaces.buildings.IFortressBuilding;
 import net.remmintan.mods.minefortress.core.interfaces.server.IServerManager;
 
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -16,10 +18,12 @@ public interface IServerBuildingsManager extends IServerManager {
     Optional<IFortressBuilding> findNearest(BlockPos pos);
     Optional<IFortressBuilding> findNearest(BlockPos pos, String requirement);
     void addBuilding(IFortressBuilding building);
-    Optional<HostileEntity> getRandomBuildingAttacker();
-    Optional<BlockPos> getFreeBed();
+    List<HostileEntity> getBuildingAttackers();
+    Optional<BlockPos> getFreeBed(UUID pawnId);
+    void releaseBed(UUID pawnId);
     boolean isPartOfAnyBuilding(BlockPos pos);
     boolean hasRequiredBuilding(String requirementId, int minCount);
     Optional<IFortressBuilding> getBuildingById(UUID id);
+    void onBlockChanged(BlockPos pos, BlockState state);
 
 }
@@ -12,10 +12,13 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
+import java.util.function.Predicate;
 
 public interface IFortressBuilding extends IAutomationArea {
     boolean updateTheHealthState(ServerWorld world);
 
+    boolean updateBlockState(BlockPos pos, BlockState state);
+
     int getHealth();
 
     boolean isPartOfTheBuilding(BlockPos pos);
@@ -28,9 +31,9 @@ public interface IFortressBuilding extends IAutomationArea {
 
     BlockPos getNearestCornerXZ(BlockPos pos, World world);
 
-    Optional<BlockPos> getFreeBed(World world);
+    Optional<BlockPos> getFreeBed(World world, Predicate<BlockPos> canClaim);
 
-    long getBedsCount(World world);
+    long getBedsCount();
 
     void writeToNbt(NbtCompound tag);
 
@@ -42,7 +45,7 @@ public interface IFortressBuilding extends IAutomationArea {
 
     Set<HostileEntity> getAttackers();
 
-    IEssentialBuildingInfo toEssentialInfo(World world);
+    IEssentialBuildingInfo toEssentialInfo();
 
     Map<BlockPos, BlockState> getAllBlockStatesToRepairTheBuilding();
 }
@@ -26,7 +26,7 @@ public interface IClientFortressManager extends IFortressManager {
 
     void updateBuildings(List<IEssentialBuildingInfo> buildings);
 
-    void setSpecialBlocks(Map<Block, List<BlockPos>> specialBlocks, Map<Block, List<BlockPos>> blueprintSpecialBlocks);
+    void updateSpecialBlocks(boolean reset, Map<Block, List<BlockPos>> added, Map<Block, List<BlockPos>> removed, boolean blueprint);
 
     void open_HireScreen(MinecraftClient client, String screenName, Map<String, IHireInfo> professions);
 
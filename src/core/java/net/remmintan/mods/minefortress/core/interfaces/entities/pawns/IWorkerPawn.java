@@ -1,11 +1,13 @@
 package net.remmintan.mods.minefortress.core.interfaces.entities.pawns;
 
 import net.minecraft.server.world.ServerWorld;
+import net.minecraft.util.math.BlockPos;
 import net.remmintan.mods.minefortress.core.interfaces.entities.pawns.controls.ITaskControl;
 
 public interface IWorkerPawn extends IFortressAwareEntity, IProfessional {
 
     ITaskControl getTaskControl();
     ServerWorld getServerWorld();
+    BlockPos getBlockPos();
 
 }
@@ -5,6 +5,7 @@ import net.minecraft.util.math.BlockPos;
 import net.remmintan.mods.minefortress.core.interfaces.blueprints.IBlockDataProvider;
 import net.remmintan.mods.minefortress.core.interfaces.server.IServerManager;
 
+import java.util.List;
 import java.util.UUID;
 
 public interface IServerInfluenceManager extends IServerManager {
@@ -12,6 +13,7 @@ public interface IServerInfluenceManager extends IServerManager {
     void checkNewPositionAndUpdateClientState(BlockPos pos, ServerPlayerEntity player);
     ICaptureTask getCaptureTask();
     void addInfluencePosition(BlockPos pos);
+    List<BlockPos> getInfluencePositions();
     void failCaptureTask(ICaptureTask task);
     IBlockDataProvider getBlockDataProvider();
 
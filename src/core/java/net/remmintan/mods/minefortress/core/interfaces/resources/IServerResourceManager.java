@@ -5,6 +5,7 @@ import net.minecraft.item.ItemStack;
 import net.remmintan.mods.minefortress.core.interfaces.server.IServerManager;
 
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 
 public interface IServerResourceManager extends IResourceManager, IServerManager {
@@ -16,8 +17,11 @@ public interface IServerResourceManager extends IResourceManager, IServerManager
     void reserveItems(UUID uuid, List<IItemInfo> stacks);
     void removeReservedItem(UUID taskId, Item item);
     void removeItemIfExists(UUID taskId, Item item);
+    void removeReservedItems(UUID taskId, List<IItemInfo> items);
+    void removeItemsIfExist(UUID taskId, List<IItemInfo> items);
     void removeItems(List<IItemInfo> items);
     void returnReservedItems(UUID taskId);
+    Set<UUID> getTasksWithReservedItems();
 
     List<ItemStack> getAllItems();
 
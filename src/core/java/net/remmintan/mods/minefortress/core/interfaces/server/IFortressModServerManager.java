@@ -1,5 +1,6 @@
 package net.remmintan.mods.minefortress.core.interfaces.server;
 
+import net.minecraft.block.BlockState;
 import net.minecraft.server.PlayerManager;
 import net.minecraft.server.network.ServerPlayerEntity;
 import net.minecraft.util.math.BlockPos;
@@ -18,5 +19,7 @@ public interface IFortressModServerManager {
     void load();
     void load(boolean campfire, boolean border);
     void tick(PlayerManager manager);
+    void onBlockChanged(BlockPos pos, BlockState state);
     Optional<IServerManagersProvider> findReachableFortress(BlockPos pos, double reachRange);
+    boolean tryStartHostileEvaluation();
 }
@@ -3,8 +3,10 @@ package net.remmintan.mods.minefortress.core.interfaces.server;
 import net.minecraft.block.Block;
 import net.minecraft.entity.EntityType;
 import net.minecraft.entity.LivingEntity;
+import net.minecraft.entity.mob.HostileEntity;
 import net.minecraft.server.network.ServerPlayerEntity;
 import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.Vec3d;
 import net.minecraft.world.World;
 import net.remmintan.mods.minefortress.core.FortressGamemode;
 import net.remmintan.mods.minefortress.core.ScreenType;
@@ -13,9 +15,11 @@ import net.remmintan.mods.minefortress.core.interfaces.entities.IPawnNameGenerat
 import net.remmintan.mods.minefortress.core.interfaces.entities.pawns.IFortressAwareEntity;
 import net.remmintan.mods.minefortress.core.interfaces.entities.pawns.ITargetedPawn;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Predicate;
 
 public interface IServerFortressManager {
     void setBorderVisibilityState(boolean borderEnabled);
@@ -28,6 +32,8 @@ public interface IServerFortressManager {
     List<BlockPos> getSpecialBlocksByType(Block block, boolean blueprint);
     double getCampfireWarmRadius();
     boolean isPositionWithinFortress(BlockPos pos);
+    Optional<HostileEntity> findNearestThreat(Vec3d pos, double maxDistance, Predicate<HostileEntity> filter);
+    Optional<HostileEntity> getRandomBuildingAttacker();
     void addSpecialBlocks(Block block, BlockPos blockPos, boolean blueprint);
     boolean isBlockSpecial(Block block);
 
@@ -38,7 +44,7 @@ public interface IServerFortressManager {
     boolean isSurvival();
 
     boolean isCreative();
-    List<ITargetedPawn> getAllTargetedPawns();
+    Collection<ITargetedPawn> getAllTargetedPawns();
 
     void increaseMaxColonistsCount();
 
@@ -51,6 +57,8 @@ public interface IServerFortressManager {
     void setGamemode(FortressGamemode fortressGamemode);
     void expandTheVillage(BlockPos pos);
     void addColonist(LivingEntity pawn);
+    void updatePawnIndexes(LivingEntity pawn);
+    boolean isRemoved();
     BlockPos getFortressCenter();
     Optional<BlockPos> getRandomPositionAroundCampfire();
     void setSpawnPawns(boolean spawnPawns);
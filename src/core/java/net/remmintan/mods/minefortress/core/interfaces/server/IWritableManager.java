@@ -5,4 +5,6 @@ import net.minecraft.nbt.NbtCompound;
 public interface IWritableManager {
     void write(NbtCompound tag);
     void read(NbtCompound tag);
+    boolean isDirty();
+    void markClean();
 }
@@ -4,11 +4,9 @@ import net.minecraft.util.math.BlockPos;
 import net.minecraft.world.World;
 import org.joml.Vector4f;
 
-import java.util.List;
-
 public interface IClientTask {
 
-    List<BlockPos> getBlockPositions();
+    Iterable<BlockPos> getBlockPositions();
 
     Vector4f getColor();
 
@@ -19,6 +19,8 @@ public interface ITask {
     void finishPart(ITaskPart part, IWorkerPawn colonist);
 
     default void addFinishListener(Runnable listener) {}
+    // called when a part is taken, returned or finished
+    default void addProgressListener(Runnable listener) {}
     List<TaskInformationDto> toTaskInformationDto();
 
     boolean taskFullyFinished();
@@ -7,8 +7,10 @@ import net.minecraft.world.World;
 import net.minecraft.world.level.storage.LevelStorage;
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.util.*;
 
 public class ModPathUtils {
@@ -62,6 +64,22 @@ public class ModPathUtils {
                 .toList();
     }
 
+    public static Map<String, NbtCompound> readAllTagsByName(String folderName, LevelStorage.Session session) {
+        final var files = Optional.ofNullable(
+                getWorldSaveDir(session)
+                .resolve(folderName)
+                .toFile()
+                .listFiles()
+        ).orElse(new File[]{});
+        final var tags = new HashMap<String, NbtCompound>();
+        for (File file : files) {
+            final var name = file.getName();
+            if(file.isDirectory() || !name.endsWith(".nbt")) continue;
+            tags.put(name.substring(0, name.length() - ".nbt".length()), readNbt(file));
+        }
+        return tags;
+    }
+
     public static void clearFolder(String folderName, LevelStorage.Session session) {
         final var folder = getWorldSaveDir(session).resolve(folderName).toFile();
         if(folder.exists()) {
@@ -93,6 +111,26 @@ public class ModPathUtils {
         }
     }
 
+    public static File getFile(String fileName, LevelStorage.Session session) {
+        return getWorldSaveDir(session).resolve(fileName).toFile();
+    }
+
+    // writes to a temporary file first, so a crash in the middle of the write never leaves a broken file behind
+    public static void saveNbtAtomically(NbtCompound nbt, File file) {
+        final var target = file.toPath();
+        final var temp = target.resolveSibling(target.getFileName() + ".tmp");
+        try {
+            NbtIo.writeCompressed(nbt, temp.toFile());
+            try {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
     public static NbtCompound readNbt(String fileName, LevelStorage.Session session) {
         final var file = getWorldSaveDir(session).resolve(fileName).toFile();
         return readNbt(file);
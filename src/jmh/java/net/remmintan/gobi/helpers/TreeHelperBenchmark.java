@@ -0,0 +1,79 @@
+package net.remmintan.gobi.helpers;
+
+import net.minecraft.block.Blocks;
+import net.minecraft.registry.tag.BlockTags;
+import net.minecraft.util.math.BlockPos;
+import org.minefortress.jmh.GameBootstrap;
+import org.minefortress.jmh.SyntheticBlockView;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Detects a 2x2 jungle tree with a leaves column around its upper half.
+ * The time per tree should grow linearly with the trunk height.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TreeHelperBenchmark {
+
+    private static final BlockPos ROOT = new BlockPos(0, 64, 0);
+
+    @Param({"8", "16", "32", "64", "128"})
+    public int trunkHeight;
+
+    private final List<BlockPos> treeBlocks = new ArrayList<>();
+    private final List<BlockPos> leavesBlocks = new ArrayList<>();
+    private SyntheticBlockView world;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        GameBootstrap.init();
+        GameBootstrap.bindBlockTags(Map.of(
+                BlockTags.LOGS, List.of(Blocks.JUNGLE_LOG, Blocks.OAK_LOG),
+                BlockTags.LEAVES, List.of(Blocks.JUNGLE_LEAVES, Blocks.OAK_LEAVES)
+        ));
+
+        world = new SyntheticBlockView();
+        final var log = Blocks.JUNGLE_LOG.getDefaultState();
+        final var leaves = Blocks.JUNGLE_LEAVES.getDefaultState();
+        for (int y = 0; y < trunkHeight; y++) {
+            final var leavesLayer = y >= trunkHeight / 2;
+            for (int x = -3; x <= 4; x++) {
+                for (int z = -3; z <= 4; z++) {
+                    final var trunk = (x == 0 || x == 1) && (z == 0 || z == 1);
+                    if(trunk) {
+                        world.setBlockState(ROOT.getX() + x, ROOT.getY() + y, ROOT.getZ() + z, log);
+                    } else if(leavesLayer) {
+                        world.setBlockState(ROOT.getX() + x, ROOT.getY() + y, ROOT.getZ() + z, leaves);
+                    }
+                }
+            }
+        }
+        // the leaves on the ground let the detection see the tree even when the trunk is high
+        for (int x = -2; x <= 2; x++) {
+            for (int z = -2; z <= 2; z++) {
+                if((x == 0 || x == 1) && (z == 0 || z == 1)) continue;
+                world.setBlockState(ROOT.getX() + x, ROOT.getY() + 1, ROOT.getZ() + z, leaves);
+            }
+        }
+    }
+
+    @Benchmark
+    public int getTreeBlocks() {
+        return TreeHelper.getTreeBlocks(ROOT, world).map(it -> it.getTreeBlocks().size()).orElse(0);
+    }
+
+    @Benchmark
+    public int collectTreeBlocksReusingLists() {
+        treeBlocks.clear();
+        leavesBlocks.clear();
+        TreeHelper.collectTreeBlocks(ROOT, world, treeBlocks, leavesBlocks);
+        return treeBlocks.size() + leavesBlocks.size();
+    }
+
+}
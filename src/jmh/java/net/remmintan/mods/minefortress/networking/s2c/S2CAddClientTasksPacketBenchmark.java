@@ -0,0 +1,91 @@
+package net.remmintan.mods.minefortress.networking.s2c;
+
+import io.netty.buffer.Unpooled;
+import net.minecraft.network.PacketByteBuf;
+import net.minecraft.util.math.BlockPos;
+import net.remmintan.mods.minefortress.core.TaskType;
+import net.remmintan.mods.minefortress.core.dtos.tasks.TaskInformationDto;
+import net.remmintan.mods.minefortress.core.dtos.tasks.TaskShape;
+import org.minefortress.jmh.GameBootstrap;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encodes and decodes the tasks sent to the client when it joins: some digging boxes
+ * and the blueprint builds, whose positions are the blocks of their walls and floors.
+ * The bigger builds are over the compression threshold.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class S2CAddClientTasksPacketBenchmark {
+
+    private static final int BOXES_COUNT = 8;
+    private static final int BUILDS_COUNT = 4;
+    private static final int BUILD_HEIGHT = 12;
+
+    @Param({"8", "32", "64"})
+    public int buildSize;
+
+    private S2CAddClientTasksPacket packet;
+    private PacketByteBuf encoded;
+    private PacketByteBuf target;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        GameBootstrap.init();
+
+        final var tasks = new ArrayList<TaskInformationDto>();
+        for (int i = 0; i < BOXES_COUNT; i++) {
+            final var start = new BlockPos(i * 20, 60, -i * 20);
+            tasks.add(new TaskInformationDto(UUID.randomUUID(), new TaskShape.Box(start, start.add(9, -5, 9)), TaskType.REMOVE));
+        }
+        for (int i = 0; i < BUILDS_COUNT; i++) {
+            final var start = new BlockPos(-200 + i * (buildSize + 4), 64, 300);
+            tasks.add(new TaskInformationDto(UUID.randomUUID(), buildPositions(start), TaskType.BUILD));
+        }
+
+        packet = new S2CAddClientTasksPacket(tasks);
+        encoded = new PacketByteBuf(Unpooled.buffer());
+        packet.write(encoded);
+        target = new PacketByteBuf(Unpooled.buffer());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        encoded.release();
+        target.release();
+    }
+
+    @Benchmark
+    public int encode() {
+        target.clear();
+        packet.write(target);
+        return target.readableBytes();
+    }
+
+    @Benchmark
+    public S2CAddClientTasksPacket decode() {
+        encoded.readerIndex(0);
+        return new S2CAddClientTasksPacket(encoded);
+    }
+
+    // the walls and the floor of the build, not in the order the runs are written in
+    private List<BlockPos> buildPositions(BlockPos start) {
+        final var positions = new ArrayList<BlockPos>();
+        for (int y = 0; y < BUILD_HEIGHT; y++) {
+            for (int x = 0; x < buildSize; x++) {
+                for (int z = 0; z < buildSize; z++) {
+                    final var wall = x == 0 || z == 0 || x == buildSize - 1 || z == buildSize - 1;
+                    if(y == 0 || wall) positions.add(start.add(x, y, z));
+                }
+            }
+        }
+        return positions;
+    }
+
+}
@@ -0,0 +1,40 @@
+package org.minefortress.blueprints.data;
+
+import net.minecraft.structure.StructureTemplate;
+import net.minecraft.util.BlockRotation;
+import net.remmintan.mods.minefortress.core.interfaces.blueprints.IStructureBlockData;
+import org.minefortress.jmh.GameBootstrap;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Splits a castle template into the blueprint layers, the same work the server does
+ * every time a blueprint is selected, rotated or updated.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class StructureBuildBenchmark {
+
+    @Param({"16", "32", "64"})
+    public int size;
+
+    @Param({"NONE", "CLOCKWISE_90"})
+    public BlockRotation rotation;
+
+    private StructureTemplate template;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        GameBootstrap.init();
+        GameBootstrap.bindBlockTags(SyntheticBlueprints.blockTags());
+        template = SyntheticBlueprints.castleTemplate(size);
+    }
+
+    @Benchmark
+    public IStructureBlockData buildStructure() {
+        return SyntheticBlueprints.compile(template, rotation);
+    }
+
+}
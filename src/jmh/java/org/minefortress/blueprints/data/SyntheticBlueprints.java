@@ -0,0 +1,122 @@
+package org.minefortress.blueprints.data;
+
+import net.minecraft.block.*;
+import net.minecraft.block.enums.BedPart;
+import net.minecraft.nbt.NbtCompound;
+import net.minecraft.nbt.NbtHelper;
+import net.minecraft.nbt.NbtInt;
+import net.minecraft.nbt.NbtList;
+import net.minecraft.registry.Registries;
+import net.minecraft.registry.tag.BlockTags;
+import net.minecraft.registry.tag.TagKey;
+import net.minecraft.structure.StructureTemplate;
+import net.minecraft.util.BlockRotation;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.Direction;
+import net.remmintan.mods.minefortress.core.interfaces.blueprints.IStructureBlockData;
+
+import java.util.*;
+
+/**
+ * A walled castle with the dirt under its floor, the beds, the fountain and the trapdoors,
+ * so every layer of the compiled blueprint gets some blocks.
+ */
+public final class SyntheticBlueprints {
+
+    public static final int FLOOR_LEVEL = 2;
+    public static final int HEIGHT = 20;
+
+    private SyntheticBlueprints() {}
+
+    // the block tags the blueprints are checked against while they are compiled and built
+    public static Map<TagKey<Block>, List<Block>> blockTags() {
+        return Map.of(
+                BlockTags.DIRT, List.of(Blocks.DIRT, Blocks.GRASS_BLOCK, Blocks.COARSE_DIRT),
+                BlockTags.SAND, List.of(Blocks.SAND, Blocks.RED_SAND),
+                BlockTags.LOGS, List.of(Blocks.OAK_LOG, Blocks.STRIPPED_OAK_LOG),
+                BlockTags.BEDS, List.of(Blocks.RED_BED, Blocks.BLUE_BED),
+                BlockTags.TRAPDOORS, List.of(Blocks.OAK_TRAPDOOR, Blocks.SPRUCE_TRAPDOOR)
+        );
+    }
+
+    public static Map<BlockPos, BlockState> castle(int size) {
+        final var blocks = new HashMap<BlockPos, BlockState>();
+        for (int x = 0; x < size; x++) {
+            for (int z = 0; z < size; z++) {
+                final var wall = x == 0 || z == 0 || x == size - 1 || z == size - 1;
+                final var corner = (x == 0 || x == size - 1) && (z == 0 || z == size - 1);
+                for (int y = 0; y < HEIGHT; y++) {
+                    blocks.put(new BlockPos(x, y, z), castleBlock(x, y, z, size, wall, corner));
+                }
+            }
+        }
+
+        // the beds along the walls and the fountain in the middle go to the entity layer
+        final var bed = Blocks.RED_BED.getDefaultState().with(BedBlock.FACING, Direction.SOUTH);
+        for (int x = 2; x < size - 2; x += 3) {
+            blocks.put(new BlockPos(x, FLOOR_LEVEL + 1, 1), bed.with(BedBlock.PART, BedPart.FOOT));
+            blocks.put(new BlockPos(x, FLOOR_LEVEL + 1, 2), bed.with(BedBlock.PART, BedPart.HEAD));
+        }
+        final var center = size / 2;
+        for (int x = center - 1; x <= center; x++) {
+            for (int z = center - 1; z <= center; z++) {
+                blocks.put(new BlockPos(x, FLOOR_LEVEL + 1, z), Blocks.WATER.getDefaultState());
+            }
+        }
+        return blocks;
+    }
+
+    public static StructureTemplate castleTemplate(int size) {
+        final var palette = new LinkedHashMap<BlockState, Integer>();
+        final var blocksList = new NbtList();
+        for (Map.Entry<BlockPos, BlockState> entry : castle(size).entrySet()) {
+            final var pos = entry.getKey();
+            final var block = new NbtCompound();
+            block.put("pos", intList(pos.getX(), pos.getY(), pos.getZ()));
+            block.putInt("state", palette.computeIfAbsent(entry.getValue(), it -> palette.size()));
+            blocksList.add(block);
+        }
+
+        final var paletteList = new NbtList();
+        palette.keySet().forEach(it -> paletteList.add(NbtHelper.fromBlockState(it)));
+
+        final var tag = new NbtCompound();
+        tag.put("size", intList(size, HEIGHT, size));
+        tag.put("palette", paletteList);
+        tag.put("blocks", blocksList);
+        tag.put("entities", new NbtList());
+
+        final var template = new StructureTemplate();
+        template.readNbt(Registries.BLOCK.getReadOnlyWrapper(), tag);
+        return template;
+    }
+
+    public static IStructureBlockData compile(StructureTemplate template, BlockRotation rotation) {
+        return new ServerStructureBlockDataManager(null, it -> Optional.empty(), () -> null)
+                .buildStructure(template, rotation, FLOOR_LEVEL);
+    }
+
+    private static BlockState castleBlock(int x, int y, int z, int size, boolean wall, boolean corner) {
+        if(y < FLOOR_LEVEL - 1) return Blocks.DIRT.getDefaultState();
+        if(y < FLOOR_LEVEL) return Blocks.GRASS_BLOCK.getDefaultState();
+        if(y == FLOOR_LEVEL) return Blocks.OAK_PLANKS.getDefaultState();
+        if(corner) return Blocks.STRIPPED_OAK_LOG.getDefaultState();
+        if(y == HEIGHT - 1) {
+            if(x == size / 2 && z == size / 2) return Blocks.OAK_TRAPDOOR.getDefaultState();
+            return wall ? Blocks.STONE_BRICK_WALL.getDefaultState() : Blocks.OAK_SLAB.getDefaultState();
+        }
+        if(!wall) return Blocks.AIR.getDefaultState();
+        if(y % 4 == 2 && (x + z) % 4 == 1) return Blocks.GLASS_PANE.getDefaultState();
+        if(y % 6 == 5 && (x + z) % 6 == 3) return Blocks.TORCH.getDefaultState();
+        return Blocks.STONE_BRICKS.getDefaultState();
+    }
+
+    private static NbtList intList(int... values) {
+        final var list = new NbtList();
+        for (int value : values) {
+            list.add(NbtInt.of(value));
+        }
+        return list;
+    }
+
+}
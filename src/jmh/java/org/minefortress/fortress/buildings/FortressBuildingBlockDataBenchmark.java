@@ -0,0 +1,72 @@
+package org.minefortress.fortress.buildings;
+
+import net.minecraft.block.BlockState;
+import net.minecraft.nbt.NbtCompound;
+import net.minecraft.nbt.NbtIo;
+import net.minecraft.util.math.BlockPos;
+import org.minefortress.blueprints.data.SyntheticBlueprints;
+import org.minefortress.jmh.GameBootstrap;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.*;
+import java.util.HashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Saves and loads the blocks of a finished castle building, the fortress does it
+ * for every building each time the world is saved and loaded.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class FortressBuildingBlockDataBenchmark {
+
+    private static final BlockPos START = new BlockPos(100, 64, -200);
+
+    @Param({"16", "32", "64"})
+    public int size;
+
+    private FortressBuildingBlockData blockData;
+    private NbtCompound savedTag;
+    private byte[] savedBytes;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        GameBootstrap.init();
+        GameBootstrap.bindBlockTags(SyntheticBlueprints.blockTags());
+
+        final var blocks = new HashMap<BlockPos, BlockState>();
+        SyntheticBlueprints.castle(size).forEach((pos, state) -> blocks.put(pos.add(START), state));
+        blockData = new FortressBuildingBlockData(blocks, START.getY() + SyntheticBlueprints.FLOOR_LEVEL);
+        savedTag = blockData.toNbt();
+        savedBytes = write(savedTag);
+    }
+
+    @Benchmark
+    public NbtCompound toNbt() {
+        return blockData.toNbt();
+    }
+
+    @Benchmark
+    public FortressBuildingBlockData fromNbt() {
+        return FortressBuildingBlockData.fromNbt(savedTag);
+    }
+
+    @Benchmark
+    public byte[] writeBytes() throws IOException {
+        return write(blockData.toNbt());
+    }
+
+    @Benchmark
+    public FortressBuildingBlockData readBytes() throws IOException {
+        final var tag = NbtIo.read(new DataInputStream(new ByteArrayInputStream(savedBytes)));
+        return FortressBuildingBlockData.fromNbt(tag);
+    }
+
+    private static byte[] write(NbtCompound tag) throws IOException {
+        final var bytes = new ByteArrayOutputStream();
+        NbtIo.write(tag, new DataOutputStream(bytes));
+        return bytes.toByteArray();
+    }
+
+}
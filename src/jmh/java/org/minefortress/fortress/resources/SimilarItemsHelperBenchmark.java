@@ -0,0 +1,112 @@
+package org.minefortress.fortress.resources;
+
+import net.minecraft.item.Item;
+import net.minecraft.item.Items;
+import net.minecraft.registry.tag.ItemTags;
+import net.minecraft.registry.tag.TagKey;
+import org.minefortress.jmh.GameBootstrap;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rebuilds the similar items table after a tags reload and checks the items of a blueprint bill of materials
+ * against it, the same checks the resources manager does for every reserved and placed item.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SimilarItemsHelperBenchmark {
+
+    private static final List<Item> BILL_OF_MATERIALS = List.of(
+            Items.STONE_BRICKS,
+            Items.COBBLESTONE,
+            Items.OAK_PLANKS,
+            Items.SPRUCE_PLANKS,
+            Items.OAK_STAIRS,
+            Items.OAK_SLAB,
+            Items.OAK_LOG,
+            Items.STRIPPED_OAK_LOG,
+            Items.GLASS,
+            Items.WHITE_STAINED_GLASS,
+            Items.GLASS_PANE,
+            Items.DIRT,
+            Items.GRASS_BLOCK,
+            Items.OAK_FENCE,
+            Items.OAK_FENCE_GATE,
+            Items.OAK_DOOR,
+            Items.RED_BED,
+            Items.WHITE_WOOL,
+            Items.RED_CARPET,
+            Items.TORCH,
+            Items.LANTERN,
+            Items.POPPY
+    );
+
+    private SimilarItemsTable table;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        GameBootstrap.init();
+        final var tags = new HashMap<TagKey<Item>, List<Item>>();
+        tags.put(ItemTags.WOODEN_BUTTONS, List.of(Items.OAK_BUTTON, Items.SPRUCE_BUTTON, Items.BIRCH_BUTTON));
+        tags.put(ItemTags.WOODEN_PRESSURE_PLATES, List.of(Items.OAK_PRESSURE_PLATE, Items.SPRUCE_PRESSURE_PLATE));
+        tags.put(ItemTags.WOODEN_SLABS, List.of(Items.OAK_SLAB, Items.SPRUCE_SLAB, Items.BIRCH_SLAB, Items.JUNGLE_SLAB));
+        tags.put(ItemTags.WOODEN_STAIRS, List.of(Items.OAK_STAIRS, Items.SPRUCE_STAIRS, Items.BIRCH_STAIRS, Items.JUNGLE_STAIRS));
+        tags.put(ItemTags.WOODEN_TRAPDOORS, List.of(Items.OAK_TRAPDOOR, Items.SPRUCE_TRAPDOOR));
+        tags.put(ItemTags.WOODEN_DOORS, List.of(Items.OAK_DOOR, Items.SPRUCE_DOOR, Items.BIRCH_DOOR));
+        tags.put(ItemTags.WOODEN_FENCES, List.of(Items.OAK_FENCE, Items.SPRUCE_FENCE, Items.BIRCH_FENCE));
+        tags.put(ItemTags.BOATS, List.of(Items.OAK_BOAT, Items.SPRUCE_BOAT));
+        tags.put(ItemTags.SIGNS, List.of(Items.OAK_SIGN, Items.SPRUCE_SIGN));
+        tags.put(ItemTags.FENCES, List.of(Items.OAK_FENCE, Items.SPRUCE_FENCE, Items.BIRCH_FENCE, Items.NETHER_BRICK_FENCE));
+        tags.put(ItemTags.LEAVES, List.of(Items.OAK_LEAVES, Items.SPRUCE_LEAVES, Items.BIRCH_LEAVES));
+        tags.put(ItemTags.FLOWERS, List.of(Items.POPPY, Items.DANDELION, Items.BLUE_ORCHID, Items.ALLIUM));
+        tags.put(ItemTags.LOGS, List.of(Items.OAK_LOG, Items.SPRUCE_LOG, Items.BIRCH_LOG, Items.STRIPPED_OAK_LOG));
+        tags.put(ItemTags.PLANKS, List.of(Items.OAK_PLANKS, Items.SPRUCE_PLANKS, Items.BIRCH_PLANKS, Items.JUNGLE_PLANKS));
+        tags.put(ItemTags.WOOL_CARPETS, List.of(Items.WHITE_CARPET, Items.RED_CARPET, Items.BLUE_CARPET));
+        tags.put(ItemTags.WOOL, List.of(Items.WHITE_WOOL, Items.RED_WOOL, Items.BLUE_WOOL));
+        tags.put(ItemTags.BEDS, List.of(Items.WHITE_BED, Items.RED_BED));
+        tags.put(ItemTags.DOORS, List.of(Items.OAK_DOOR, Items.SPRUCE_DOOR, Items.IRON_DOOR));
+        tags.put(ItemTags.BANNERS, List.of(Items.WHITE_BANNER, Items.RED_BANNER));
+        GameBootstrap.bindItemTags(tags);
+
+        SimilarItemsHelper.invalidate();
+        table = SimilarItemsHelper.getTable();
+    }
+
+    @Benchmark
+    public SimilarItemsTable rebuildTable() {
+        SimilarItemsHelper.invalidate();
+        return SimilarItemsHelper.getTable();
+    }
+
+    @Benchmark
+    public void areSimilar(Blackhole blackhole) {
+        for (Item first : BILL_OF_MATERIALS) {
+            for (Item second : BILL_OF_MATERIALS) {
+                blackhole.consume(table.areSimilar(first, second));
+            }
+        }
+    }
+
+    @Benchmark
+    public void getSimilarMembers(Blackhole blackhole) {
+        for (Item item : BILL_OF_MATERIALS) {
+            final var classId = table.getClassId(item);
+            if(classId == SimilarItemsTable.NO_CLASS) continue;
+            blackhole.consume(table.getMembers(classId));
+        }
+    }
+
+    @Benchmark
+    public void isIgnorable(Blackhole blackhole) {
+        for (Item item : BILL_OF_MATERIALS) {
+            blackhole.consume(SimilarItemsHelper.isIgnorable(item));
+        }
+    }
+
+}
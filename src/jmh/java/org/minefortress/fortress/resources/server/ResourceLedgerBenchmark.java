@@ -0,0 +1,106 @@
+package org.minefortress.fortress.resources.server;
+
+import it.unimi.dsi.fastutil.ints.Int2IntMap;
+import it.unimi.dsi.fastutil.ints.Int2IntMaps;
+import it.unimi.dsi.fastutil.ints.Int2IntOpenHashMap;
+import net.minecraft.item.Item;
+import net.minecraft.item.Items;
+import net.remmintan.mods.minefortress.core.interfaces.resources.IItemInfo;
+import org.minefortress.fortress.resources.ItemInfo;
+import org.minefortress.jmh.GameBootstrap;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reserves, commits and returns the bill of materials of a big castle blueprint.
+ * Some of the items are only available as the similar ones, so the fallback is measured too.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ResourceLedgerBenchmark {
+
+    private static final UUID TASK_ID = UUID.randomUUID();
+
+    private final Int2IntOpenHashMap initialAmounts = new Int2IntOpenHashMap();
+    private List<IItemInfo> billOfMaterials;
+    private ResourceLedger ledger;
+    private int changes;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        GameBootstrap.init();
+
+        billOfMaterials = new ArrayList<>();
+        addRequired(Items.STONE_BRICKS, 4000, 4500);
+        addRequired(Items.COBBLESTONE, 1500, 2000);
+        addRequired(Items.OAK_PLANKS, 2500, 3000);
+        addRequired(Items.OAK_STAIRS, 800, 800);
+        addRequired(Items.OAK_SLAB, 600, 700);
+        addRequired(Items.STRIPPED_OAK_LOG, 600, 300);
+        addAvailable(Items.STRIPPED_SPRUCE_LOG, 400);
+        addRequired(Items.GLASS, 400, 200);
+        addAvailable(Items.WHITE_STAINED_GLASS, 300);
+        addRequired(Items.DIRT, 900, 500);
+        addAvailable(Items.GRASS_BLOCK, 600);
+        addRequired(Items.STONE_BRICK_STAIRS, 700, 700);
+        addRequired(Items.STONE_BRICK_WALL, 500, 600);
+        addRequired(Items.OAK_FENCE_GATE, 12, 4);
+        addAvailable(Items.SPRUCE_FENCE_GATE, 10);
+        addRequired(Items.TORCH, 120, 200);
+        addRequired(Items.LANTERN, 40, 64);
+
+        ledger = new ResourceLedger(rawId -> changes++);
+        restore();
+    }
+
+    @Benchmark
+    public void reserveAndRollback() {
+        ledger.reserve(TASK_ID, billOfMaterials);
+        ledger.rollback(TASK_ID);
+    }
+
+    @Benchmark
+    public void reserveAndCommitPerBlock(Blackhole blackhole) {
+        ledger.reserve(TASK_ID, billOfMaterials);
+        for (IItemInfo info : billOfMaterials) {
+            for (int i = 0; i < info.amount(); i++) {
+                blackhole.consume(ledger.commit(TASK_ID, info.item(), 1));
+            }
+        }
+        ledger.rollback(TASK_ID);
+        restore();
+    }
+
+    @Benchmark
+    public void reserveAndCommitBatched(Blackhole blackhole) {
+        ledger.reserve(TASK_ID, billOfMaterials);
+        for (IItemInfo info : billOfMaterials) {
+            blackhole.consume(ledger.commit(TASK_ID, info.item(), info.amount()));
+        }
+        ledger.rollback(TASK_ID);
+        restore();
+    }
+
+    private void restore() {
+        ledger.clear();
+        for (Int2IntMap.Entry entry : Int2IntMaps.fastIterable(initialAmounts)) {
+            ledger.add(entry.getIntKey(), entry.getIntValue());
+        }
+    }
+
+    private void addRequired(Item item, int required, int available) {
+        billOfMaterials.add(new ItemInfo(item, required));
+        addAvailable(item, available);
+    }
+
+    private void addAvailable(Item item, int available) {
+        initialAmounts.put(Item.getRawId(item), available);
+    }
+
+}
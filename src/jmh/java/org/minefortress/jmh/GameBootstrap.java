@@ -0,0 +1,46 @@
+package org.minefortress.jmh;
+
+import net.minecraft.Bootstrap;
+import net.minecraft.SharedConstants;
+import net.minecraft.block.Block;
+import net.minecraft.item.Item;
+import net.minecraft.registry.Registries;
+import net.minecraft.registry.Registry;
+import net.minecraft.registry.entry.RegistryEntry;
+import net.minecraft.registry.tag.TagKey;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public final class GameBootstrap {
+
+    private static boolean initialized = false;
+
+    private GameBootstrap() {}
+
+    // the vanilla registries without the client, so the benchmarks run headless
+    public static synchronized void init() {
+        if(initialized) return;
+        SharedConstants.createGameVersion();
+        Bootstrap.initialize();
+        initialized = true;
+    }
+
+    // the tags come from the data packs, the benchmarks bind the ones they need by hand
+    public static void bindBlockTags(Map<TagKey<Block>, List<Block>> tags) {
+        bindTags(Registries.BLOCK, tags);
+    }
+
+    public static void bindItemTags(Map<TagKey<Item>, List<Item>> tags) {
+        bindTags(Registries.ITEM, tags);
+    }
+
+    // every call replaces all the tags of the registry bound before
+    private static <T> void bindTags(Registry<T> registry, Map<TagKey<T>, List<T>> tags) {
+        final var entries = new HashMap<TagKey<T>, List<RegistryEntry<T>>>();
+        tags.forEach((tag, values) -> entries.put(tag, values.stream().map(registry::getEntry).toList()));
+        registry.populateTags(entries);
+    }
+
+}
@@ -0,0 +1,66 @@
+package org.minefortress.jmh;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import net.minecraft.block.BlockState;
+import net.minecraft.block.Blocks;
+import net.minecraft.block.entity.BlockEntity;
+import net.minecraft.fluid.FluidState;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.BlockView;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * In-memory world for the benchmarks, everything that wasn't set is air.
+ */
+public class SyntheticBlockView implements BlockView {
+
+    private final Long2ObjectOpenHashMap<BlockState> states = new Long2ObjectOpenHashMap<>();
+
+    public SyntheticBlockView() {
+        states.defaultReturnValue(Blocks.AIR.getDefaultState());
+    }
+
+    public void setBlockState(BlockPos pos, BlockState state) {
+        setBlockState(pos.getX(), pos.getY(), pos.getZ(), state);
+    }
+
+    public void setBlockState(int x, int y, int z, BlockState state) {
+        final var key = BlockPos.asLong(x, y, z);
+        if(state.isAir()) {
+            states.remove(key);
+        } else {
+            states.put(key, state);
+        }
+    }
+
+    public void clear() {
+        states.clear();
+    }
+
+    @Nullable
+    @Override
+    public BlockEntity getBlockEntity(BlockPos pos) {
+        return null;
+    }
+
+    @Override
+    public BlockState getBlockState(BlockPos pos) {
+        return states.get(pos.asLong());
+    }
+
+    @Override
+    public FluidState getFluidState(BlockPos pos) {
+        return getBlockState(pos).getFluidState();
+    }
+
+    @Override
+    public int getHeight() {
+        return 384;
+    }
+
+    @Override
+    public int getBottomY() {
+        return -64;
+    }
+
+}
@@ -0,0 +1,97 @@
+package org.minefortress.tasks;
+
+import com.mojang.datafixers.util.Pair;
+import net.minecraft.util.BlockRotation;
+import net.minecraft.util.math.BlockPos;
+import net.remmintan.mods.minefortress.core.interfaces.blueprints.BlueprintDataLayer;
+import org.minefortress.blueprints.data.SyntheticBlueprints;
+import org.minefortress.jmh.GameBootstrap;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Splits a castle build into the parts and gives them out the way the workers take them,
+ * then resolves the blocks of every part against the compiled blueprint.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class BlueprintTaskBenchmark {
+
+    private static final BlockPos START = new BlockPos(100, 64, -200);
+
+    @Param({"16", "32", "64"})
+    public int size;
+
+    private final List<Pair<BlockPos, BlockPos>> allParts = new ArrayList<>();
+    private BlueprintTask task;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        GameBootstrap.init();
+        GameBootstrap.bindBlockTags(SyntheticBlueprints.blockTags());
+
+        final var blockData = SyntheticBlueprints.compile(SyntheticBlueprints.castleTemplate(size), BlockRotation.NONE);
+        task = new BlueprintTask(
+                UUID.randomUUID(),
+                START,
+                START.add(size - 1, SyntheticBlueprints.HEIGHT - 1, size - 1),
+                // in the same order as ServerBlueprintManager.createTask passes them
+                blockData.getStructureLayer(BlueprintDataLayer.MANUAL),
+                blockData.getStructureLayer(BlueprintDataLayer.AUTOMATIC),
+                blockData.getStructureLayer(BlueprintDataLayer.ENTITY),
+                BlockRotation.NONE,
+                SyntheticBlueprints.FLOOR_LEVEL,
+                "castle",
+                "castle"
+        );
+
+        task.prepareTask();
+        Pair<BlockPos, BlockPos> part;
+        while ((part = task.parts.poll()) != null) {
+            allParts.add(part);
+            task.parts.finish(part);
+        }
+    }
+
+    @Benchmark
+    public int prepareAndTakeParts() {
+        task.prepareTask();
+        int taken = 0;
+        Pair<BlockPos, BlockPos> part;
+        while ((part = task.parts.poll()) != null) {
+            task.parts.finish(part);
+            taken++;
+        }
+        return taken;
+    }
+
+    // a worker keeps taking the part next to its previous one
+    @Benchmark
+    public int prepareAndTakeNearestParts() {
+        task.prepareTask();
+        int taken = 0;
+        var anchor = START;
+        Pair<BlockPos, BlockPos> part;
+        while ((part = task.parts.pollNearest(anchor)) != null) {
+            task.parts.finish(part);
+            anchor = part.getFirst();
+            taken++;
+        }
+        return taken;
+    }
+
+    @Benchmark
+    public int getTaskBlockInfos() {
+        int blocks = 0;
+        for (Pair<BlockPos, BlockPos> part : allParts) {
+            blocks += task.getTaskBlockInfos(part).size();
+        }
+        return blocks;
+    }
+
+}
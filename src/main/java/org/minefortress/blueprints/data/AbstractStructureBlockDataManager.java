@@ -13,38 +13,163 @@ import net.minecraft.structure.StructureTemplate.StructureBlockInfo;
 import net.minecraft.util.BlockRotation;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.math.Vec3i;
+import net.remmintan.mods.minefortress.core.interfaces.blueprints.BlueprintDataLayer;
 import net.remmintan.mods.minefortress.core.interfaces.blueprints.IStructureBlockData;
 import org.jetbrains.annotations.NotNull;
 import net.remmintan.mods.minefortress.core.interfaces.blueprints.IBlockDataProvider;
 
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 abstract class AbstractStructureBlockDataManager implements IBlockDataProvider {
 
-    private final Map<String, IStructureBlockData> blueprints = new HashMap<>();
+    // rough memory budget, counted in blocks over all the layers of the cached structures
+    private static final long MAX_CACHED_BLOCKS = 1_000_000;
+
+    private static final ExecutorService compiler;
+
+    static {
+        final var incrementer = new AtomicInteger(0);
+        final var threadsCount = Math.max(1, Math.min(2, Runtime.getRuntime().availableProcessors() / 2));
+        compiler = Executors.newFixedThreadPool(threadsCount, r -> {
+            final var thread = new Thread(r, "MineFortress Blueprint Compiler " + incrementer.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    // access ordered, so the iteration starts from the least recently used structure
+    private final LinkedHashMap<BlockDataKey, CompletableFuture<IStructureBlockData>> blueprints = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<BlockDataKey, Integer> weights = new HashMap<>();
+    private long cachedBlocks = 0;
 
     public IStructureBlockData getBlockData(String blueprintId, BlockRotation rotation) {
         return getBlockData(blueprintId, rotation, 0);
     }
 
     public IStructureBlockData getBlockData(String blueprintId, BlockRotation rotation, int floorLevel) {
-        final String key = getKey(blueprintId, rotation);
-        if(!blueprints.containsKey(key)) {
-            final StructureTemplate structure = getStructure(blueprintId)
-                    .orElseThrow(() -> new IllegalStateException("Blueprint not found " + blueprintId));
-            final IStructureBlockData blueprintBlockData = buildStructure(structure, rotation, floorLevel);
-            blueprints.put(key, blueprintBlockData);
+        final var key = new BlockDataKey(blueprintId, rotation, floorLevel);
+        final CompletableFuture<IStructureBlockData> future;
+        Supplier<Optional<StructureTemplate>> loader = null;
+        synchronized (this) {
+            final var cached = blueprints.get(key);
+            if(cached != null) {
+                future = cached;
+            } else {
+                future = new CompletableFuture<>();
+                loader = getStructureLoader(blueprintId);
+                blueprints.put(key, future);
+            }
         }
 
-        return blueprints.get(key);
+        // nobody has started it yet, compiling right here is faster than waiting in the queue
+        if(loader != null)
+            compile(key, future, loader);
+
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if(e.getCause() instanceof RuntimeException cause) throw cause;
+            throw e;
+        }
+    }
+
+    @Override
+    public CompletableFuture<IStructureBlockData> getBlockDataAsync(String blueprintId, BlockRotation rotation) {
+        return getBlockDataAsync(blueprintId, rotation, 0);
     }
 
-    public void invalidateBlueprint(String fileName) {
-        new HashSet<>(blueprints.keySet()).stream().filter(key -> key.startsWith(fileName)).forEach(blueprints::remove);
+    public synchronized CompletableFuture<IStructureBlockData> getBlockDataAsync(String blueprintId, BlockRotation rotation, int floorLevel) {
+        final var key = new BlockDataKey(blueprintId, rotation, floorLevel);
+        final var cached = blueprints.get(key);
+        if(cached != null) return cached;
+
+        final var future = new CompletableFuture<IStructureBlockData>();
+        final var loader = getStructureLoader(blueprintId);
+        blueprints.put(key, future);
+        compiler.execute(() -> compile(key, future, loader));
+        return future;
     }
 
-    protected abstract Optional<StructureTemplate> getStructure(String blueprintFileName);
+    public void precompile(String blueprintId, int floorLevel) {
+        for (BlockRotation rotation : BlockRotation.values()) {
+            getBlockDataAsync(blueprintId, rotation, floorLevel);
+        }
+    }
+
+    public synchronized void invalidateBlueprint(String fileName) {
+        final var iterator = blueprints.keySet().iterator();
+        while (iterator.hasNext()) {
+            final var key = iterator.next();
+            if(!key.id().equals(fileName)) continue;
+            iterator.remove();
+            forgetWeight(key);
+        }
+    }
+
+    private void compile(BlockDataKey key, CompletableFuture<IStructureBlockData> future, Supplier<Optional<StructureTemplate>> loader) {
+        final IStructureBlockData blockData;
+        try {
+            final StructureTemplate structure = loader.get()
+                    .orElseThrow(() -> new IllegalStateException("Blueprint not found " + key.id()));
+            blockData = buildStructure(structure, key.rotation(), key.floorLevel());
+        } catch (RuntimeException e) {
+            synchronized (this) {
+                blueprints.remove(key, future);
+            }
+            future.completeExceptionally(e);
+            return;
+        }
+
+        onCompiled(key, future, blockData);
+        future.complete(blockData);
+    }
+
+    private synchronized void onCompiled(BlockDataKey key, CompletableFuture<IStructureBlockData> future, IStructureBlockData blockData) {
+        // the blueprint was invalidated while it was compiling
+        if(blueprints.get(key) != future) return;
+
+        final var weight = getWeight(blockData);
+        weights.put(key, weight);
+        cachedBlocks += weight;
+
+        final var iterator = blueprints.entrySet().iterator();
+        while (cachedBlocks > MAX_CACHED_BLOCKS && iterator.hasNext()) {
+            final var entry = iterator.next();
+            final var eldestKey = entry.getKey();
+            if(eldestKey.equals(key) || !entry.getValue().isDone()) continue;
+            iterator.remove();
+            forgetWeight(eldestKey);
+        }
+    }
+
+    private void forgetWeight(BlockDataKey key) {
+        final var weight = weights.remove(key);
+        if(weight != null) cachedBlocks -= weight;
+    }
+
+    private static int getWeight(IStructureBlockData blockData) {
+        int weight = 0;
+        for (BlueprintDataLayer layer : BlueprintDataLayer.values()) {
+            if(blockData.hasLayer(layer))
+                weight += blockData.getLayer(layer).size();
+        }
+        return weight;
+    }
+
+    protected Optional<StructureTemplate> getStructure(String blueprintFileName) {
+        return getStructureLoader(blueprintFileName).get();
+    }
+
+    // called on the caller thread, everything that isn't thread safe has to be captured here
+    // while the returned supplier may be invoked on the compiler thread
+    protected abstract Supplier<Optional<StructureTemplate>> getStructureLoader(String blueprintFileName);
     protected abstract IStructureBlockData buildStructure(StructureTemplate structure, BlockRotation rotation, int floorLevel);
 
     @NotNull
@@ -86,11 +211,6 @@ abstract class AbstractStructureBlockDataManager implements IBlockDataProvider {
                 ));
     }
 
-    @NotNull
-    private static String getKey(String id, BlockRotation rotation) {
-        return id + ":" + rotation.name();
-    }
-
     protected static StructureTemplate.StructureBlockInfo convertJigsawBlock(StructureTemplate.StructureBlockInfo inf) {
         if(inf.state.isOf(Blocks.JIGSAW)) {
             final NbtElement final_state = inf.nbt.get("final_state");
@@ -110,8 +230,10 @@ abstract class AbstractStructureBlockDataManager implements IBlockDataProvider {
         return inf;
     }
 
-    public void reset() {
+    public synchronized void reset() {
         this.blueprints.clear();
+        this.weights.clear();
+        this.cachedBlocks = 0;
     }
 
     protected static SizeAndPivot getSizeAndPivot(StructureTemplate structure, BlockRotation rotation) {
@@ -122,4 +244,6 @@ abstract class AbstractStructureBlockDataManager implements IBlockDataProvider {
     }
 
     protected record SizeAndPivot(Vec3i size, BlockPos pivot) {}
+
+    private record BlockDataKey(String id, BlockRotation rotation, int floorLevel) {}
 }
@@ -14,18 +14,21 @@ import net.remmintan.mods.minefortress.core.interfaces.blueprints.IStructureBloc
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
+import java.util.function.Supplier;
 
 public final class ClientStructureBlockDataProvider extends AbstractStructureBlockDataManager implements BlueprintsTagsKeeper {
 
     private final Map<String, NbtCompound> blueprintTags = new HashMap<>();
 
     @Override
-    protected Optional<StructureTemplate> getStructure(String blueprintFileName) {
-        if(!blueprintTags.containsKey(blueprintFileName)) return Optional.empty();
+    protected Supplier<Optional<StructureTemplate>> getStructureLoader(String blueprintFileName) {
         final NbtCompound blueprintTag = blueprintTags.get(blueprintFileName);
-        final StructureTemplate structure = new StructureTemplate();
-        structure.readNbt(Registries.BLOCK.getReadOnlyWrapper(), blueprintTag);
-        return Optional.of(structure);
+        return () -> {
+            if(blueprintTag == null) return Optional.empty();
+            final StructureTemplate structure = new StructureTemplate();
+            structure.readNbt(Registries.BLOCK.getReadOnlyWrapper(), blueprintTag);
+            return Optional.of(structure);
+        };
     }
 
     @Override
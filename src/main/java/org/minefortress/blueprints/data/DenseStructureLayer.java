@@ -0,0 +1,197 @@
+package org.minefortress.blueprints.data;
+
+import net.minecraft.block.BlockState;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.Vec3i;
+import net.remmintan.mods.minefortress.core.interfaces.blueprints.IStructureLayer;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+
+public final class DenseStructureLayer implements IStructureLayer {
+
+    private final int sizeX;
+    private final int sizeY;
+    private final int sizeZ;
+    // 0 is reserved for the positions which are not part of the layer
+    private final BlockState[] palette;
+    // only one of them is used, depending on the palette size
+    private final byte[] smallStates;
+    private final short[] largeStates;
+    private final int count;
+
+    private Map<BlockPos, BlockState> mapView;
+
+    private DenseStructureLayer(int sizeX, int sizeY, int sizeZ, BlockState[] palette, byte[] smallStates, short[] largeStates, int count) {
+        this.sizeX = sizeX;
+        this.sizeY = sizeY;
+        this.sizeZ = sizeZ;
+        this.palette = palette;
+        this.smallStates = smallStates;
+        this.largeStates = largeStates;
+        this.count = count;
+    }
+
+    static DenseStructureLayer fromMap(Vec3i size, Map<BlockPos, BlockState> blocks) {
+        int sizeX = size.getX();
+        int sizeY = size.getY();
+        int sizeZ = size.getZ();
+        for (BlockPos pos : blocks.keySet()) {
+            if(pos.getX() < 0 || pos.getY() < 0 || pos.getZ() < 0)
+                throw new IllegalArgumentException("Negative position in the structure layer " + pos);
+            sizeX = Math.max(sizeX, pos.getX() + 1);
+            sizeY = Math.max(sizeY, pos.getY() + 1);
+            sizeZ = Math.max(sizeZ, pos.getZ() + 1);
+        }
+
+        final var paletteIndexes = new HashMap<BlockState, Integer>();
+        final var palette = new ArrayList<BlockState>();
+        palette.add(null);
+        final var indexes = new int[sizeX * sizeY * sizeZ];
+        int count = 0;
+        for (Map.Entry<BlockPos, BlockState> entry : blocks.entrySet()) {
+            final var pos = entry.getKey();
+            final var state = entry.getValue();
+            if(state == null) continue;
+            count++;
+            final int paletteIndex = paletteIndexes.computeIfAbsent(state, it -> {
+                palette.add(it);
+                return palette.size() - 1;
+            });
+            indexes[index(pos.getX(), pos.getY(), pos.getZ(), sizeX, sizeZ)] = paletteIndex;
+        }
+
+        byte[] smallStates = null;
+        short[] largeStates = null;
+        if(palette.size() <= 256) {
+            smallStates = new byte[indexes.length];
+            for (int i = 0; i < indexes.length; i++) smallStates[i] = (byte) indexes[i];
+        } else {
+            largeStates = new short[indexes.length];
+            for (int i = 0; i < indexes.length; i++) largeStates[i] = (short) indexes[i];
+        }
+
+        return new DenseStructureLayer(sizeX, sizeY, sizeZ, palette.toArray(BlockState[]::new), smallStates, largeStates, count);
+    }
+
+    @Override
+    public Vec3i getSize() {
+        return new Vec3i(sizeX, sizeY, sizeZ);
+    }
+
+    @Override
+    public int size() {
+        return count;
+    }
+
+    @Override
+    @Nullable
+    public BlockState getBlockState(int x, int y, int z) {
+        if(x < 0 || y < 0 || z < 0 || x >= sizeX || y >= sizeY || z >= sizeZ) return null;
+        return palette[paletteIndex(index(x, y, z, sizeX, sizeZ))];
+    }
+
+    @Override
+    public void forEach(BlockConsumer consumer) {
+        if(count == 0) return;
+        int i = 0;
+        for (int y = 0; y < sizeY; y++) {
+            for (int z = 0; z < sizeZ; z++) {
+                for (int x = 0; x < sizeX; x++) {
+                    final var paletteIndex = paletteIndex(i++);
+                    if(paletteIndex != 0)
+                        consumer.accept(x, y, z, palette[paletteIndex]);
+                }
+            }
+        }
+    }
+
+    @Override
+    public Map<BlockPos, BlockState> asMap() {
+        if(mapView == null)
+            mapView = new MapView();
+        return mapView;
+    }
+
+    private int paletteIndex(int index) {
+        if(smallStates != null) return Byte.toUnsignedInt(smallStates[index]);
+        return Short.toUnsignedInt(largeStates[index]);
+    }
+
+    private static int index(int x, int y, int z, int sizeX, int sizeZ) {
+        return x + z * sizeX + y * sizeX * sizeZ;
+    }
+
+    private final class MapView extends AbstractMap<BlockPos, BlockState> {
+
+        private Set<Entry<BlockPos, BlockState>> entrySet;
+
+        @Override
+        public int size() {
+            return count;
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return get(key) != null;
+        }
+
+        @Override
+        public BlockState get(Object key) {
+            if(!(key instanceof BlockPos pos)) return null;
+            return getBlockState(pos.getX(), pos.getY(), pos.getZ());
+        }
+
+        @NotNull
+        @Override
+        public Set<Entry<BlockPos, BlockState>> entrySet() {
+            if(entrySet == null) {
+                entrySet = new AbstractSet<>() {
+                    @Override
+                    public Iterator<Entry<BlockPos, BlockState>> iterator() {
+                        return new EntryIterator();
+                    }
+
+                    @Override
+                    public int size() {
+                        return count;
+                    }
+                };
+            }
+            return entrySet;
+        }
+
+    }
+
+    private final class EntryIterator implements Iterator<Map.Entry<BlockPos, BlockState>> {
+
+        private final int volume = sizeX * sizeY * sizeZ;
+        private int next = findNext(0);
+
+        @Override
+        public boolean hasNext() {
+            return next < volume;
+        }
+
+        @Override
+        public Map.Entry<BlockPos, BlockState> next() {
+            if(!hasNext()) throw new NoSuchElementException();
+            final int current = next;
+            next = findNext(current + 1);
+
+            final int x = current % sizeX;
+            final int z = (current / sizeX) % sizeZ;
+            final int y = current / (sizeX * sizeZ);
+            return Map.entry(new BlockPos(x, y, z), palette[paletteIndex(current)]);
+        }
+
+        private int findNext(int from) {
+            int i = from;
+            while (i < volume && paletteIndex(i) == 0) i++;
+            return i;
+        }
+
+    }
+
+}
@@ -71,6 +71,7 @@ public final class ServerStructureBlockDataManager extends AbstractStructureBloc
         updatedStructures.put(fileName, new Blueprint(fileName, newFloorLevel, tag, group));
         removedDefaultStructures.remove(fileName);
         invalidateBlueprint(fileName);
+        precompile(fileName, newFloorLevel);
 
         final var defaultStructure = filenameToGroupConverter.apply(fileName).isPresent();
         return alreadyIn || defaultStructure;
@@ -97,20 +98,23 @@ public final class ServerStructureBlockDataManager extends AbstractStructureBloc
         if(filenameToGroupConverter.apply(fileName).isPresent()) {
             removedDefaultStructures.add(fileName);
         }
+        invalidateBlueprint(fileName);
     }
 
     @Override
-    protected Optional<StructureTemplate> getStructure(String blueprintFileName) {
+    protected Supplier<Optional<StructureTemplate>> getStructureLoader(String blueprintFileName) {
         if(removedDefaultStructures.contains(blueprintFileName)) {
-            return Optional.empty();
+            return Optional::empty;
         }
         if(updatedStructures.containsKey(blueprintFileName)) {
             final NbtCompound structureTag = updatedStructures.get(blueprintFileName).tag();
-            final StructureTemplate structure = new StructureTemplate();
-            structure.readNbt(Registries.BLOCK.getReadOnlyWrapper(), structureTag);
-            return Optional.of(structure);
+            return () -> {
+                final StructureTemplate structure = new StructureTemplate();
+                structure.readNbt(Registries.BLOCK.getReadOnlyWrapper(), structureTag);
+                return Optional.of(structure);
+            };
         } else {
-            return getDefaultStructure(blueprintFileName);
+            return () -> getDefaultStructure(blueprintFileName);
         }
     }
 
@@ -224,6 +228,7 @@ public final class ServerStructureBlockDataManager extends AbstractStructureBloc
 
     @Override
     public void readBlockDataManager(@Nullable NbtCompound tag) {
+        reset();
         if(ModPathUtils.exists(getBlueprintsFolder(), server.session)) {
             updatedStructures.clear();
             removedDefaultStructures.clear();
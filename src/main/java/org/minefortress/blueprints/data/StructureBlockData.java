@@ -8,6 +8,7 @@ import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.math.Vec3i;
 import net.remmintan.mods.minefortress.core.interfaces.blueprints.BlueprintDataLayer;
 import net.remmintan.mods.minefortress.core.interfaces.blueprints.IStructureBlockData;
+import net.remmintan.mods.minefortress.core.interfaces.blueprints.IStructureLayer;
 import net.remmintan.mods.minefortress.core.interfaces.resources.IItemInfo;
 import org.jetbrains.annotations.NotNull;
 import org.minefortress.fortress.resources.ItemInfo;
@@ -15,7 +16,6 @@ import org.minefortress.fortress.resources.SimilarItemsHelper;
 import org.spongepowered.include.com.google.common.collect.Sets;
 
 import java.util.*;
-import java.util.stream.Collectors;
 
 public final class StructureBlockData implements IStructureBlockData {
 
@@ -68,7 +68,7 @@ public final class StructureBlockData implements IStructureBlockData {
     }
 
     private final Vec3i size;
-    private final Map<BlueprintDataLayer, Map<BlockPos, BlockState>> layers = new HashMap<>();
+    private final Map<BlueprintDataLayer, DenseStructureLayer> layers = new EnumMap<>(BlueprintDataLayer.class);
     private List<IItemInfo> stacks;
 
     private StructureBlockData(Vec3i size) {
@@ -82,6 +82,12 @@ public final class StructureBlockData implements IStructureBlockData {
 
     @Override
     public Map<BlockPos, BlockState> getLayer(BlueprintDataLayer layer) {
+        final var structureLayer = layers.get(layer);
+        return structureLayer == null ? null : structureLayer.asMap();
+    }
+
+    @Override
+    public IStructureLayer getStructureLayer(BlueprintDataLayer layer) {
         return layers.get(layer);
     }
 
@@ -108,23 +114,18 @@ public final class StructureBlockData implements IStructureBlockData {
         }
 
         Builder setLayer(BlueprintDataLayer layer, Map<BlockPos, BlockState> layerData) {
-            instance.layers.put(layer, Collections.unmodifiableMap(layerData));
+            instance.layers.put(layer, DenseStructureLayer.fromMap(instance.size, layerData));
             return this;
         }
 
         IStructureBlockData build() {
-            final var layerBlockByItems = instance.layers.containsKey(BlueprintDataLayer.GENERAL) ?
-                    instance.layers
-                            .get(BlueprintDataLayer.GENERAL)
-                            .values()
-                            .stream()
-                            .collect(Collectors.collectingAndThen(Collectors.groupingBy(it -> it.getBlock().asItem(), Collectors.counting()), Collections::unmodifiableMap))
-                    :
-                    instance.layers
-                            .values()
-                            .stream()
-                            .flatMap(it -> it.values().stream())
-                            .collect(Collectors.collectingAndThen(Collectors.groupingBy(it -> it.getBlock().asItem(), Collectors.counting()), Collections::unmodifiableMap));
+            final var layerBlockByItems = new HashMap<Item, Long>();
+            final IStructureLayer.BlockConsumer counter = (x, y, z, state) -> layerBlockByItems.merge(state.getBlock().asItem(), 1L, Long::sum);
+            if(instance.layers.containsKey(BlueprintDataLayer.GENERAL)) {
+                instance.layers.get(BlueprintDataLayer.GENERAL).forEach(counter);
+            } else {
+                instance.layers.values().forEach(it -> it.forEach(counter));
+            }
 
 
             instance.stacks = layerBlockByItems.entrySet()
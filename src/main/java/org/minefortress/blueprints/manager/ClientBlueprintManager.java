@@ -170,6 +170,7 @@ public final class ClientBlueprintManager extends BaseClientStructureManager imp
         final IBlueprintMetadata metadata = this.blueprintMetadataManager.add(group, name, file, floorLevel, requirementId);
         blockDataManager.setBlueprint(metadata.getId(), tag);
         blockDataManager.invalidateBlueprint(metadata.getId());
+        blockDataManager.precompile(metadata.getId(), 0);
     }
 
     @Override
@@ -178,6 +179,7 @@ public final class ClientBlueprintManager extends BaseClientStructureManager imp
 
         blockDataManager.setBlueprint(fileName, tag);
         blockDataManager.invalidateBlueprint(fileName);
+        blockDataManager.precompile(fileName, 0);
         if(client instanceof IFortressMinecraftClient fortressClient) {
             fortressClient.get_BlueprintRenderer().getBlueprintsModelBuilder().invalidateBlueprint(fileName);
         }
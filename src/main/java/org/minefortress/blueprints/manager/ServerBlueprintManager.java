@@ -113,9 +113,9 @@ public class ServerBlueprintManager implements IServerBlueprintManager {
         final Vec3i size = serverStructureInfo.getSize();
         startPos = startPos.down(floorLevel);
         final BlockPos endPos = getEndPos(startPos, size);
-        final Map<BlockPos, BlockState> manualLayer = serverStructureInfo.getLayer(BlueprintDataLayer.MANUAL);
-        final Map<BlockPos, BlockState> automatic = serverStructureInfo.getLayer(BlueprintDataLayer.AUTOMATIC);
-        final Map<BlockPos, BlockState> entityLayer = serverStructureInfo.getLayer(BlueprintDataLayer.ENTITY);
+        final IStructureLayer manualLayer = serverStructureInfo.getStructureLayer(BlueprintDataLayer.MANUAL);
+        final IStructureLayer automatic = serverStructureInfo.getStructureLayer(BlueprintDataLayer.AUTOMATIC);
+        final IStructureLayer entityLayer = serverStructureInfo.getStructureLayer(BlueprintDataLayer.ENTITY);
         return new BlueprintTask(
                 taskId,
                 startPos,
@@ -123,6 +123,7 @@ public class ServerBlueprintManager implements IServerBlueprintManager {
                 manualLayer,
                 automatic,
                 entityLayer,
+                rotation,
                 floorLevel,
                 requirementId,
                 blueprintId
@@ -131,7 +132,7 @@ public class ServerBlueprintManager implements IServerBlueprintManager {
 
     @Override
     public SimpleSelectionTask createDigTask(UUID uuid, BlockPos startPos, int floorLevel, String structureFile, BlockRotation rotation) {
-        final IStructureBlockData serverStructureInfo = blockDataManager.getBlockData(structureFile, rotation);
+        final IStructureBlockData serverStructureInfo = blockDataManager.getBlockData(structureFile, rotation, floorLevel);
         final Vec3i size = serverStructureInfo.getSize();
         startPos = startPos.down(floorLevel);
         final BlockPos endPos = getEndPos(startPos, size);
@@ -21,6 +21,8 @@ import net.minecraft.world.ServerWorldAccess;
 import net.minecraft.world.World;
 import net.remmintan.mods.minefortress.core.interfaces.entities.pawns.IFortressAwareEntity;
 import net.remmintan.mods.minefortress.core.interfaces.entities.pawns.IProfessional;
+import net.remmintan.mods.minefortress.core.interfaces.server.IServerFortressManager;
+import net.remmintan.mods.minefortress.core.interfaces.server.IServerManagersProvider;
 import org.jetbrains.annotations.Nullable;
 import org.minefortress.interfaces.FortressSlimeEntity;
 import java.util.List;
@@ -36,6 +38,10 @@ public abstract class BasePawnEntity extends HungryEntity implements IFortressAw
     private static final TrackedData<Optional<UUID>> MASTER_ID = DataTracker.registerData(BasePawnEntity.class, TrackedDataHandlerRegistry.OPTIONAL_UUID);
     private static final TrackedData<Integer> BODY_TEXTURE_ID = DataTracker.registerData(BasePawnEntity.class, TrackedDataHandlerRegistry.INTEGER);
 
+    // resolved once instead of going through the server on every call, the optionals are reused
+    private Optional<IServerFortressManager> fortressManager = Optional.empty();
+    private Optional<IServerManagersProvider> managersProvider = Optional.empty();
+
     protected BasePawnEntity(EntityType<? extends BasePawnEntity> entityType, World world, boolean enableHunger) {
         super(entityType, world, enableHunger);
     }
@@ -74,6 +80,29 @@ public abstract class BasePawnEntity extends HungryEntity implements IFortressAw
 
     private void setMasterId(UUID fortressId) {
         this.dataTracker.set(MASTER_ID, Optional.ofNullable(fortressId));
+        this.fortressManager = Optional.empty();
+        this.managersProvider = Optional.empty();
+    }
+
+    @Override
+    public Optional<IServerFortressManager> getServerFortressManager() {
+        if(isFortressUnbound()) bindFortress();
+        return fortressManager;
+    }
+
+    @Override
+    public Optional<IServerManagersProvider> getManagersProvider() {
+        if(isFortressUnbound()) bindFortress();
+        return managersProvider;
+    }
+
+    private boolean isFortressUnbound() {
+        return fortressManager.isEmpty() || managersProvider.isEmpty() || fortressManager.get().isRemoved();
+    }
+
+    private void bindFortress() {
+        this.fortressManager = IFortressAwareEntity.super.getServerFortressManager();
+        this.managersProvider = IFortressAwareEntity.super.getManagersProvider();
     }
 
     @Override
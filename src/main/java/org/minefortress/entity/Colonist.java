@@ -331,6 +331,15 @@ public final class Colonist extends NamedPawnEntity implements IMinefortressEnti
         return this.dataTracker.get(PROFESSION_ID);
     }
 
+    @Override
+    public void onTrackedDataSet(TrackedData<?> data) {
+        if(data.equals(PROFESSION_ID) && !this.getWorld().isClient) {
+            getServerFortressManager().ifPresent(it -> it.updatePawnIndexes(this));
+        }
+
+        super.onTrackedDataSet(data);
+    }
+
     @Override
     public void readCustomDataFromNbt(NbtCompound nbt) {
         super.readCustomDataFromNbt(nbt);
@@ -29,9 +29,15 @@ public class TaskControl implements ITaskControl {
 
     @Override
     public void setTask(@NotNull ITask task) {
+        final var wasBusy = this.task != null;
         this.task = task;
         this.taskPart = task.getNextPart(worker);
         this.updateCurrentTaskDesription();
+        if(!wasBusy) updatePawnIndexes();
+    }
+
+    private void updatePawnIndexes() {
+        worker.getServerFortressManager().ifPresent(it -> it.updatePawnIndexes(worker));
     }
 
     private void updateCurrentTaskDesription() {
@@ -52,8 +58,10 @@ public class TaskControl implements ITaskControl {
 
     @Override
     public void resetTask() {
-        if(task!=null && task.taskFullyFinished())
+        if(task!=null && task.taskFullyFinished()) {
             this.task = null;
+            updatePawnIndexes();
+        }
         this.taskPart = null;
     }
 
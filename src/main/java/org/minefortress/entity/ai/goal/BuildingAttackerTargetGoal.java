@@ -2,8 +2,7 @@ package org.minefortress.entity.ai.goal;
 
 import net.minecraft.entity.LivingEntity;
 import net.minecraft.entity.ai.goal.TrackTargetGoal;
-import net.remmintan.mods.minefortress.core.interfaces.blueprints.buildings.IServerBuildingsManager;
-import net.remmintan.mods.minefortress.core.interfaces.server.IServerManagersProvider;
+import net.remmintan.mods.minefortress.core.interfaces.server.IServerFortressManager;
 import org.minefortress.entity.Colonist;
 
 public class BuildingAttackerTargetGoal extends TrackTargetGoal {
@@ -29,9 +28,8 @@ public class BuildingAttackerTargetGoal extends TrackTargetGoal {
 
     private void findRandomBuildingAttacker() {
         pawn
-            .getManagersProvider()
-            .map(IServerManagersProvider::getBuildingsManager)
-            .flatMap(IServerBuildingsManager::getRandomBuildingAttacker)
+            .getServerFortressManager()
+            .flatMap(IServerFortressManager::getRandomBuildingAttacker)
             .ifPresent(target -> this.targetEntity = target);
     }
 
@@ -40,4 +40,17 @@ public class FortressColonistActiveTargetGoal extends ActiveTargetGoal<HostileEn
         this.targetEntity = null;
         return false;
     }
+
+    // the fortress keeps the threats within its bounds, so the pawns don't search the world one by one
+    @Override
+    protected void findClosestTarget() {
+        this.targetEntity = this.colonist
+                .getServerFortressManager()
+                .flatMap(it -> it.findNearestThreat(
+                        this.colonist.getPos(),
+                        this.getFollowRange(),
+                        threat -> this.targetPredicate.test(this.colonist, threat)
+                ))
+                .orElse(null);
+    }
 }
@@ -5,7 +5,6 @@ import net.minecraft.block.BlockState;
 import net.minecraft.entity.LivingEntity;
 import net.minecraft.registry.tag.BlockTags;
 import net.minecraft.util.math.BlockPos;
-import net.remmintan.mods.minefortress.core.interfaces.blueprints.buildings.IServerBuildingsManager;
 import net.remmintan.mods.minefortress.core.interfaces.server.IServerFortressManager;
 import net.remmintan.mods.minefortress.core.interfaces.server.IServerManagersProvider;
 import org.jetbrains.annotations.NotNull;
@@ -68,6 +67,10 @@ public class SleepOnTheBedGoal extends AbstractFortressGoal {
     @Override
     public void stop() {
         bedPos = null;
+        colonist
+                .getManagersProvider()
+                .map(IServerManagersProvider::getBuildingsManager)
+                .ifPresent(it -> it.releaseBed(colonist.getUuid()));
         colonist.getMovementHelper().reset();
         if(colonist.isSleeping()) {
             colonist.wakeUp();
@@ -79,7 +82,7 @@ public class SleepOnTheBedGoal extends AbstractFortressGoal {
         return colonist
                 .getManagersProvider()
                 .map(IServerManagersProvider::getBuildingsManager)
-                .flatMap(IServerBuildingsManager::getFreeBed);
+                .flatMap(it -> it.getFreeBed(colonist.getUuid()));
     }
 
     private boolean isNight() {
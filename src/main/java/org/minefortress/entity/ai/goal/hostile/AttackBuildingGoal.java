@@ -37,6 +37,8 @@ public final class AttackBuildingGoal extends Goal {
     public boolean canStart() {
         if(lastUpdateTime + 20 > mob.getWorld().getTime()) return false;
         if(!mob.getWorld().isNight()) return false;
+        // over the cap the mob tries again next tick
+        if(!modServerManager.tryStartHostileEvaluation()) return false;
         lastUpdateTime = mob.getWorld().getTime();
         final var mobBlockPos = this.mob.getBlockPos();
         this.modServerManager
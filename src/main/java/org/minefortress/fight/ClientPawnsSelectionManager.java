@@ -4,7 +4,6 @@ import net.minecraft.client.MinecraftClient;
 import net.minecraft.client.Mouse;
 import net.minecraft.entity.Entity;
 import net.minecraft.entity.LivingEntity;
-import net.minecraft.util.math.Vec2f;
 import net.minecraft.util.math.Vec3d;
 import net.remmintan.mods.minefortress.core.FortressState;
 import net.remmintan.mods.minefortress.core.dtos.combat.MousePos;
@@ -14,7 +13,6 @@ import net.remmintan.mods.minefortress.core.interfaces.combat.ITargetedSelection
 import net.remmintan.mods.minefortress.core.interfaces.entities.pawns.IFortressAwareEntity;
 import net.remmintan.mods.minefortress.core.interfaces.entities.pawns.ITargetedPawn;
 import net.remmintan.mods.minefortress.core.interfaces.entities.pawns.IWarrior;
-import net.remmintan.mods.minefortress.core.utils.GlobalProjectionCache;
 import org.minefortress.renderer.CameraTools;
 import org.minefortress.utils.ModUtils;
 
@@ -28,6 +26,14 @@ public class ClientPawnsSelectionManager implements IClientPawnsSelectionManager
 
     private final List<IFortressAwareEntity> selectedPawns = new ArrayList<>();
 
+    // owned pawns in front of the camera and their window coordinates as x, y pairs
+    private final List<IFortressAwareEntity> screenPawns = new ArrayList<>();
+    private float[] screenPawnsPositions = new float[0];
+    private long screenPawnsTime = Long.MIN_VALUE;
+    private float screenPawnsPitch;
+    private float screenPawnsYaw;
+    private Vec3d screenPawnsPlayerPos = Vec3d.ZERO;
+
 
     @Override
     public void selectSingle(IFortressAwareEntity fortressAwareEntity) {
@@ -39,12 +45,14 @@ public class ClientPawnsSelectionManager implements IClientPawnsSelectionManager
     public void startSelection(double x, double y) {
         this.resetSelection();
         this.mouseStartPos = new MousePos(x, y);
+        this.screenPawnsTime = Long.MIN_VALUE;
     }
 
     @Override
     public void endSelection(double x, double y) {
         this.mouseStartPos = null;
         this.mouseEndPos = null;
+        this.screenPawns.clear();
 
         if(!this.selectedPawns.isEmpty()) {
             final var fortressManager = ModUtils.getFortressClientManager();
@@ -74,43 +82,58 @@ public class ClientPawnsSelectionManager implements IClientPawnsSelectionManager
     private void updateSelection(double x, double y) {
         if(!isSelectionStarted()) return;
         this.mouseEndPos = new MousePos(x, y);
-        if(GlobalProjectionCache.shouldUpdateValues("pawnsSelectionManager")) {
-            selectedPawns.clear();
-
-            final var world = MinecraftClient.getInstance().world;
-
-            final Map<Vec3d, IFortressAwareEntity> entitesMap = new HashMap<>();
-            final UUID playerUUID = MinecraftClient.getInstance().player.getUuid();
-            world
-                .getEntities()
-                .forEach(
-                    entity -> {
-                        if(entity instanceof IFortressAwareEntity fae && fae.getMasterId().map(it -> it.equals(playerUUID)).orElse(false)) {
-                            final var pos = entity.getPos();
-                            entitesMap.put(pos, fae);
-                        }
-                    }
-                );
-
-            //  found min and max x and y
-            int minX = Math.min(mouseStartPos.getX(), mouseEndPos.getX());
-            int maxX = Math.max(mouseStartPos.getX(), mouseEndPos.getX());
-            int minY = Math.min(mouseStartPos.getY(), mouseEndPos.getY());
-            int maxY = Math.max(mouseStartPos.getY(), mouseEndPos.getY());
-
-            final var screenPositions = CameraTools.projectToScreenSpace(entitesMap.keySet(), MinecraftClient.getInstance());
-            for (Map.Entry<Vec2f, Vec3d> entry : screenPositions.entrySet()) {
-                final var screenPos = entry.getKey();
-                final var entityPos = entry.getValue();
-                // log screen pos
-                if (screenPos.x >= minX && screenPos.x <= maxX && screenPos.y >= minY && screenPos.y <= maxY) {
-                    final var entity = entitesMap.get(entityPos);
-                    selectedPawns.add(entity);
-                }
+        selectedPawns.clear();
+
+        updateScreenPawns();
+
+        //  found min and max x and y
+        int minX = Math.min(mouseStartPos.getX(), mouseEndPos.getX());
+        int maxX = Math.max(mouseStartPos.getX(), mouseEndPos.getX());
+        int minY = Math.min(mouseStartPos.getY(), mouseEndPos.getY());
+        int maxY = Math.max(mouseStartPos.getY(), mouseEndPos.getY());
+
+        for (int i = 0; i < screenPawns.size(); i++) {
+            final var screenX = screenPawnsPositions[i * 2];
+            final var screenY = screenPawnsPositions[i * 2 + 1];
+            if (screenX >= minX && screenX <= maxX && screenY >= minY && screenY <= maxY) {
+                selectedPawns.add(screenPawns.get(i));
             }
         }
     }
 
+    // the pawns move only once a tick, so dragging the selection doesn't need to project them again
+    private void updateScreenPawns() {
+        final var minecraft = MinecraftClient.getInstance();
+        final var world = minecraft.world;
+        final var player = minecraft.player;
+        if(world == null || player == null) return;
+
+        final var time = world.getTime();
+        final var pitch = player.getPitch();
+        final var yaw = player.getYaw();
+        final var playerPos = player.getPos();
+        if(time == screenPawnsTime && pitch == screenPawnsPitch && yaw == screenPawnsYaw && playerPos.equals(screenPawnsPlayerPos))
+            return;
+        screenPawnsTime = time;
+        screenPawnsPitch = pitch;
+        screenPawnsYaw = yaw;
+        screenPawnsPlayerPos = playerPos;
+
+        screenPawns.clear();
+        CameraTools.prepareScreenProjection(minecraft);
+        final UUID playerUUID = player.getUuid();
+        for (Entity entity : world.getEntities()) {
+            if(!(entity instanceof IFortressAwareEntity fae) || !fae.getMasterId().map(it -> it.equals(playerUUID)).orElse(false))
+                continue;
+
+            final var index = screenPawns.size() * 2;
+            if(index + 2 > screenPawnsPositions.length)
+                screenPawnsPositions = Arrays.copyOf(screenPawnsPositions, Math.max(16, screenPawnsPositions.length * 2));
+            if(CameraTools.projectToScreenSpace(entity.getX(), entity.getY(), entity.getZ(), screenPawnsPositions, index))
+                screenPawns.add(fae);
+        }
+    }
+
     @Override
     public void resetSelection() {
         this.mouseStartPos = null;
@@ -23,6 +23,7 @@ public class ServerFightManager implements IServerFightManager, IWritableManager
     private UUID oldTargetUuid;
 
     private boolean syncNeeded = false;
+    private boolean dirty = false;
 
     public ServerFightManager(IServerFortressManager serverFortressManager) {
         this.serverFortressManager = serverFortressManager;
@@ -37,6 +38,7 @@ public class ServerFightManager implements IServerFightManager, IWritableManager
     public void setCurrentTarget(BlockPos pos, ServerWorld world) {
         keepTrackOfOldTarget(world);
         oldTarget = FortressEntities.NAVIGATION_TARGET_ENTITY_TYPE.spawn(world, pos.up(), SpawnReason.EVENT);
+        dirty = true;
     }
 
     @Override
@@ -77,6 +79,16 @@ public class ServerFightManager implements IServerFightManager, IWritableManager
         }
     }
 
+    @Override
+    public boolean isDirty() {
+        return dirty;
+    }
+
+    @Override
+    public void markClean() {
+        dirty = false;
+    }
+
     @Override
     public void tick(ServerPlayerEntity player) {
         if(player==null) return;
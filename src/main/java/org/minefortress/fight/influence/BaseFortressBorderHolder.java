@@ -6,7 +6,7 @@ public class BaseFortressBorderHolder {
 
     public static final int FORTRESS_BORDER_SIZE = 64;
 
-    static BlockPos alignToAGrid(BlockPos center) {
+    public static BlockPos alignToAGrid(BlockPos center) {
         final var x = center.getX();
         final var z = center.getZ();
         final var xSign = Math.signum(x);
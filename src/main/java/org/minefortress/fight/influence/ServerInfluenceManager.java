@@ -22,6 +22,7 @@ import org.jetbrains.annotations.Nullable;
 import org.minefortress.fortress.ServerFortressManager;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Deque;
 import java.util.List;
 import java.util.UUID;
@@ -35,6 +36,7 @@ public class ServerInfluenceManager implements IServerInfluenceManager, ITickabl
     private final ServerFortressBorderHolder fortressBorderHolder = new ServerFortressBorderHolder();
 
     private final ServerFortressManager serverFortressManager;
+    private boolean dirty = false;
 
     public ServerInfluenceManager(ServerFortressManager serverFortressManager) {
         this.serverFortressManager = serverFortressManager;
@@ -72,7 +74,14 @@ public class ServerInfluenceManager implements IServerInfluenceManager, ITickabl
 
     public void addInfluencePosition(BlockPos pos) {
         allInfluencePositions.add(pos);
+        dirty = true;
         synchronizer.scheduleSync();
+        serverFortressManager.markReachAreasChanged();
+    }
+
+    @Override
+    public List<BlockPos> getInfluencePositions() {
+        return Collections.unmodifiableList(allInfluencePositions);
     }
 
     public void tick(@Nullable ServerPlayerEntity player) {
@@ -125,6 +134,17 @@ public class ServerInfluenceManager implements IServerInfluenceManager, ITickabl
             addCenterAsInfluencePosition();
         }
         synchronizer.scheduleSync();
+        serverFortressManager.markReachAreasChanged();
+    }
+
+    @Override
+    public boolean isDirty() {
+        return dirty;
+    }
+
+    @Override
+    public void markClean() {
+        dirty = false;
     }
 
     public void addCenterAsInfluencePosition() {
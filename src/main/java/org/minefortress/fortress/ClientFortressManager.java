@@ -60,8 +60,8 @@ public final class ClientFortressManager implements IClientFortressManager {
     private BlockPos posAppropriateForCenter;
     private BlockPos oldPosAppropriateForCenter;
     private List<IEssentialBuildingInfo> buildings = new ArrayList<>();
-    private Map<Block, List<BlockPos>> specialBlocks = new HashMap<>();
-    private Map<Block, List<BlockPos>> blueprintsSpecialBlocks = new HashMap<>();
+    private final Map<Block, Set<BlockPos>> specialBlocks = new HashMap<>();
+    private final Map<Block, Set<BlockPos>> blueprintsSpecialBlocks = new HashMap<>();
 
     private FortressGamemode gamemode;
 
@@ -90,9 +90,16 @@ public final class ClientFortressManager implements IClientFortressManager {
     }
 
     @Override
-    public void setSpecialBlocks(Map<Block, List<BlockPos>> specialBlocks, Map<Block, List<BlockPos>> blueprintSpecialBlocks) {
-        this.specialBlocks = specialBlocks;
-        this.blueprintsSpecialBlocks = blueprintSpecialBlocks;
+    public void updateSpecialBlocks(boolean reset, Map<Block, List<BlockPos>> added, Map<Block, List<BlockPos>> removed, boolean blueprint) {
+        final var blocks = blueprint ? blueprintsSpecialBlocks : specialBlocks;
+        if(reset) blocks.clear();
+        removed.forEach((block, positions) -> {
+            final var blockPositions = blocks.get(block);
+            if(blockPositions == null) return;
+            positions.forEach(blockPositions::remove);
+            if(blockPositions.isEmpty()) blocks.remove(block);
+        });
+        added.forEach((block, positions) -> blocks.computeIfAbsent(block, it -> new HashSet<>()).addAll(positions));
     }
 
     @Override
@@ -306,9 +313,9 @@ public final class ClientFortressManager implements IClientFortressManager {
     @Override
     public boolean hasRequiredBlock(Block block, boolean blueprint, int minCount) {
         if(blueprint)
-            return this.blueprintsSpecialBlocks.getOrDefault(block, Collections.emptyList()).size() > minCount;
+            return this.blueprintsSpecialBlocks.getOrDefault(block, Collections.emptySet()).size() > minCount;
         else
-            return this.specialBlocks.getOrDefault(block, Collections.emptyList()).size() > minCount;
+            return this.specialBlocks.getOrDefault(block, Collections.emptySet()).size() > minCount;
     }
 
     @Override
@@ -0,0 +1,56 @@
+package org.minefortress.fortress;
+
+import net.minecraft.entity.mob.CreeperEntity;
+import net.minecraft.entity.mob.EndermanEntity;
+import net.minecraft.entity.mob.HostileEntity;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.util.TypeFilter;
+
+import java.util.List;
+
+/**
+ * The hostile mobs of the world and their positions, taken once on the server thread and shared by all the fortresses.
+ * The fortresses bucket their threats from it off the server thread, so it never reads the world or the entities again.
+ */
+public final class HostilesSnapshot {
+
+    private final List<HostileEntity> hostiles;
+    private final double[] xs;
+    private final double[] zs;
+
+    private HostilesSnapshot(List<HostileEntity> hostiles) {
+        this.hostiles = hostiles;
+        this.xs = new double[hostiles.size()];
+        this.zs = new double[hostiles.size()];
+        for (int i = 0; i < hostiles.size(); i++) {
+            final var hostile = hostiles.get(i);
+            xs[i] = hostile.getX();
+            zs[i] = hostile.getZ();
+        }
+    }
+
+    public static HostilesSnapshot take(ServerWorld world) {
+        return new HostilesSnapshot(List.copyOf(world.getEntitiesByType(TypeFilter.instanceOf(HostileEntity.class), HostilesSnapshot::isThreat)));
+    }
+
+    int size() {
+        return hostiles.size();
+    }
+
+    HostileEntity get(int index) {
+        return hostiles.get(index);
+    }
+
+    double getX(int index) {
+        return xs[index];
+    }
+
+    double getZ(int index) {
+        return zs[index];
+    }
+
+    private static boolean isThreat(HostileEntity entity) {
+        return entity.isAlive() && !(entity instanceof CreeperEntity) && !(entity instanceof EndermanEntity);
+    }
+
+}
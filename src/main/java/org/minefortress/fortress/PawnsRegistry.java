@@ -0,0 +1,114 @@
+package org.minefortress.fortress;
+
+import net.minecraft.entity.LivingEntity;
+import net.remmintan.mods.minefortress.core.interfaces.entities.pawns.IProfessional;
+import net.remmintan.mods.minefortress.core.interfaces.entities.pawns.ITargetedPawn;
+import net.remmintan.mods.minefortress.core.interfaces.entities.pawns.IWorkerPawn;
+
+import java.util.*;
+
+/**
+ * Keeps the pawns of the fortress indexed by their type, profession and whether they have a task,
+ * so the queries run every tick don't have to filter all the pawns.
+ */
+final class PawnsRegistry {
+
+    private final Set<LivingEntity> pawns = new HashSet<>();
+    private final Set<IWorkerPawn> workers = new HashSet<>();
+    private final Set<IProfessional> professionals = new HashSet<>();
+    private final Set<ITargetedPawn> targetedPawns = new HashSet<>();
+
+    private final Map<IProfessional, String> professions = new HashMap<>();
+    private final Map<String, Set<IProfessional>> pawnsByProfession = new HashMap<>();
+    // workers which were given a task, the task could be canceled since then
+    private final Set<IWorkerPawn> busyWorkers = new HashSet<>();
+
+    void add(LivingEntity pawn) {
+        if(!pawns.add(pawn)) return;
+        if(pawn instanceof IWorkerPawn worker) workers.add(worker);
+        if(pawn instanceof ITargetedPawn targetedPawn) targetedPawns.add(targetedPawn);
+        if(pawn instanceof IProfessional professional) professionals.add(professional);
+        update(pawn);
+    }
+
+    void remove(LivingEntity pawn) {
+        if(!pawns.remove(pawn)) return;
+        if(pawn instanceof IWorkerPawn worker) {
+            workers.remove(worker);
+            busyWorkers.remove(worker);
+        }
+        if(pawn instanceof ITargetedPawn targetedPawn) targetedPawns.remove(targetedPawn);
+        if(pawn instanceof IProfessional professional) {
+            professionals.remove(professional);
+            removeFromProfession(professional, professions.remove(professional));
+        }
+    }
+
+    // should be called once the profession or the task of the pawn has changed
+    void update(LivingEntity pawn) {
+        if(!pawns.contains(pawn)) return;
+
+        if(pawn instanceof IProfessional professional) {
+            final var professionId = professional.getProfessionId();
+            final var previousProfessionId = professions.put(professional, professionId);
+            if(!Objects.equals(professionId, previousProfessionId)) {
+                removeFromProfession(professional, previousProfessionId);
+                pawnsByProfession.computeIfAbsent(professionId, it -> new HashSet<>()).add(professional);
+            }
+        }
+
+        if(pawn instanceof IWorkerPawn worker) {
+            if(worker.getTaskControl().hasTask())
+                busyWorkers.add(worker);
+            else
+                busyWorkers.remove(worker);
+        }
+    }
+
+    int size() {
+        return pawns.size();
+    }
+
+    Set<LivingEntity> getAll() {
+        return Collections.unmodifiableSet(pawns);
+    }
+
+    Set<IWorkerPawn> getWorkers() {
+        return Collections.unmodifiableSet(workers);
+    }
+
+    // the pawns are hired, fired and change professions while the callers iterate, so this is a copy
+    Set<IProfessional> getProfessionals() {
+        return Set.copyOf(professionals);
+    }
+
+    Set<ITargetedPawn> getTargetedPawns() {
+        return Set.copyOf(targetedPawns);
+    }
+
+    List<IProfessional> getWithProfession(String professionId) {
+        final var pawnsWithProfession = pawnsByProfession.get(professionId);
+        return pawnsWithProfession == null ? Collections.emptyList() : List.copyOf(pawnsWithProfession);
+    }
+
+    int countWithProfession(String professionId) {
+        final var pawnsWithProfession = pawnsByProfession.get(professionId);
+        return pawnsWithProfession == null ? 0 : pawnsWithProfession.size();
+    }
+
+    boolean allWorkersAreFree() {
+        for (IWorkerPawn worker : busyWorkers) {
+            if(worker.getTaskControl().hasTask()) return false;
+        }
+        return true;
+    }
+
+    private void removeFromProfession(IProfessional professional, String professionId) {
+        if(professionId == null) return;
+        final var pawnsWithProfession = pawnsByProfession.get(professionId);
+        if(pawnsWithProfession == null) return;
+        pawnsWithProfession.remove(professional);
+        if(pawnsWithProfession.isEmpty()) pawnsByProfession.remove(professionId);
+    }
+
+}
@@ -9,19 +9,17 @@ import net.minecraft.entity.EntityType;
 import net.minecraft.entity.LivingEntity;
 import net.minecraft.entity.SpawnReason;
 import net.minecraft.entity.damage.DamageSource;
+import net.minecraft.entity.mob.HostileEntity;
 import net.minecraft.item.Items;
 import net.minecraft.nbt.NbtCompound;
-import net.minecraft.nbt.NbtElement;
-import net.minecraft.nbt.NbtHelper;
-import net.minecraft.nbt.NbtList;
-import net.minecraft.registry.Registries;
 import net.minecraft.server.MinecraftServer;
 import net.minecraft.server.network.ServerPlayerEntity;
 import net.minecraft.server.world.ServerWorld;
 import net.minecraft.text.Text;
-import net.minecraft.util.Identifier;
+import net.minecraft.util.math.BlockBox;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.math.MathHelper;
+import net.minecraft.util.math.Vec3d;
 import net.minecraft.world.Heightmap;
 import net.minecraft.world.World;
 import net.minecraft.world.event.GameEvent;
@@ -57,6 +55,7 @@ import org.minefortress.entity.BasePawnEntity;
 import org.minefortress.entity.Colonist;
 import org.minefortress.entity.colonist.ColonistNameGenerator;
 import org.minefortress.fight.ServerFightManager;
+import org.minefortress.fight.influence.BaseFortressBorderHolder;
 import org.minefortress.fight.influence.ServerInfluenceManager;
 import org.minefortress.fortress.automation.areas.AreasServerManager;
 import org.minefortress.fortress.automation.areas.ServerAutomationAreaInfo;
@@ -73,7 +72,9 @@ import org.minefortress.tasks.TasksCreator;
 import org.minefortress.utils.BlockInfoUtils;
 
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
 import java.util.stream.Stream;
 
 import static net.remmintan.mods.minefortress.core.interfaces.automation.ProfessionsSelectionType.QUARRY;
@@ -82,12 +83,19 @@ public final class ServerFortressManager implements IFortressManager, IServerMan
 
     private static final BlockState DEFAULT_STATE_ABOVE_CAMPFIRE = Blocks.BARRIER.getDefaultState();
     private static final int DEFAULT_COLONIST_COUNT = 5;
+    private static final int SPECIAL_BLOCKS_SWEEP_INTERVAL_TICKS = 20;
+    private static final int SPECIAL_BLOCKS_SWEEP_BATCH = 8;
     public static final BlockState CAMPFIRE_DEFAULT_STATE = Blocks.CAMPFIRE.getDefaultState();
 
     private final MinecraftServer server;
-    private final Set<LivingEntity> pawns = new HashSet<>();
-    private final Map<Block, List<BlockPos>> specialBlocks = new HashMap<>();
-    private final Map<Block, List<BlockPos>> blueprintsSpecialBlocks = new HashMap<>();
+    private final PawnsRegistry pawns = new PawnsRegistry();
+    private final SpecialBlocksIndex specialBlocks = new SpecialBlocksIndex();
+    private final SpecialBlocksIndex blueprintsSpecialBlocks = new SpecialBlocksIndex();
+    private final ThreatsIndex threats = new ThreatsIndex();
+    // the periodic sweeps of the fortresses start at different ticks, so they don't all land on the same server tick
+    private final int sweepPhase = ThreadLocalRandom.current().nextInt(SPECIAL_BLOCKS_SWEEP_INTERVAL_TICKS);
+    @Nullable
+    private ThreatsIndex.Buckets preparedThreats;
     private final Map<Class<? extends IServerManager>, IServerManager> managers = new HashMap<>();
     
     private IPawnNameGenerator nameGenerator = new ColonistNameGenerator();
@@ -101,6 +109,7 @@ public final class ServerFortressManager implements IFortressManager, IServerMan
 
     private boolean needSync = true;
     private boolean needSyncSpecialBlocks = true;
+    private boolean dirty = true;
 
     private BlockPos fortressCenter = null;
     private int maxColonistsCount = -1;
@@ -109,10 +118,13 @@ public final class ServerFortressManager implements IFortressManager, IServerMan
     private boolean borderEnabled;
     private boolean spawnPawns = true;
 
+    private boolean removed = false;
+    private int reachAreasVersion = 0;
+
     public ServerFortressManager(MinecraftServer server) {
         this.server = server;
 
-        registerManager(IServerTaskManager.class, new ServerTaskManager());
+        registerManager(IServerTaskManager.class, new ServerTaskManager(() -> this, this::getWorkersStream));
         registerManager(IServerProfessionsManager.class, new ServerProfessionManager(() -> this, () -> this, server));
         registerManager(IServerResourceManager.class, new ServerResourceManager(server));
         registerManager(IServerBuildingsManager.class, new FortressBuildingManager(() -> server.getWorld(World.OVERWORLD)));
@@ -138,6 +150,7 @@ public final class ServerFortressManager implements IFortressManager, IServerMan
     @Override
     public void setSpawnPawns(boolean spawnPawns) {
         this.spawnPawns = spawnPawns;
+        this.dirty = true;
     }
 
     @Override
@@ -162,6 +175,15 @@ public final class ServerFortressManager implements IFortressManager, IServerMan
         getFightManager().sync();
     }
 
+    // the read-only part of the tick, it runs off the server thread while the server thread waits, so it must not touch the world
+    public void prepareTick(HostilesSnapshot hostiles) {
+        if(minX == Integer.MAX_VALUE || pawns.size() == 0) {
+            preparedThreats = ThreatsIndex.Buckets.EMPTY;
+        } else {
+            preparedThreats = ThreatsIndex.bucket(hostiles, minX, minZ, maxX, maxZ);
+        }
+    }
+
     public void tick(@Nullable final ServerPlayerEntity player) {
         tickFortress(player);
 
@@ -170,7 +192,10 @@ public final class ServerFortressManager implements IFortressManager, IServerMan
                 tickableManager.tick(player);
         }
 
-        if(!needSync || player == null) return;
+        if(player == null) return;
+        syncSpecialBlocks(player);
+
+        if(!needSync) return;
         final var isServer = FabricLoader.getInstance().getEnvironmentType() == EnvType.SERVER;
         final var syncFortressPacket = new ClientboundSyncFortressManagerPacket(pawns.size(),
                 fortressCenter,
@@ -181,14 +206,36 @@ public final class ServerFortressManager implements IFortressManager, IServerMan
                 campfireEnabled,
                 borderEnabled);
         FortressServerNetworkHelper.send(player, FortressChannelNames.FORTRESS_MANAGER_SYNC, syncFortressPacket);
-        if(needSyncSpecialBlocks){
-            final var syncBlocks = new ClientboundSyncSpecialBlocksPacket(specialBlocks, blueprintsSpecialBlocks);
-            FortressServerNetworkHelper.send(player, FortressChannelNames.FORTRESS_SPECIAL_BLOCKS_SYNC, syncBlocks);
-            needSyncSpecialBlocks = false;
-        }
         needSync = false;
     }
 
+    private void syncSpecialBlocks(ServerPlayerEntity player) {
+        final ClientboundSyncSpecialBlocksPacket packet;
+        if(needSyncSpecialBlocks) {
+            packet = new ClientboundSyncSpecialBlocksPacket(
+                    true,
+                    specialBlocks.getAll(),
+                    Collections.emptyMap(),
+                    blueprintsSpecialBlocks.getAll(),
+                    Collections.emptyMap()
+            );
+        } else if(specialBlocks.hasChanges() || blueprintsSpecialBlocks.hasChanges()) {
+            packet = new ClientboundSyncSpecialBlocksPacket(
+                    false,
+                    specialBlocks.getAddedSinceSync(),
+                    specialBlocks.getRemovedSinceSync(),
+                    blueprintsSpecialBlocks.getAddedSinceSync(),
+                    blueprintsSpecialBlocks.getRemovedSinceSync()
+            );
+        } else {
+            return;
+        }
+        FortressServerNetworkHelper.send(player, FortressChannelNames.FORTRESS_SPECIAL_BLOCKS_SYNC, packet);
+        specialBlocks.markSynced();
+        blueprintsSpecialBlocks.markSynced();
+        needSyncSpecialBlocks = false;
+    }
+
     public void replaceColonistWithTypedPawn(LivingEntity colonist, String warriorId, EntityType<? extends LivingEntity> entityType) {
         final var pos = getRandomSpawnPosition();
         final var world = (ServerWorld) colonist.getEntityWorld();
@@ -200,14 +247,15 @@ public final class ServerFortressManager implements IFortressManager, IServerMan
         colonist.damage(getOutOfWorldDamageSource(), Float.MAX_VALUE);
         pawns.remove(colonist);
         final var typedReplacement = entityType.spawn(world, infoTag, (it) -> {}, pos, SpawnReason.EVENT, true, false);
-        pawns.add(typedReplacement);
+        if(typedReplacement != null)
+            pawns.add(typedReplacement);
         getFightManager().sync();
     }
 
     public void tickFortress(@Nullable ServerPlayerEntity player) {
         keepColonistsBelowMax();
 
-        final var deadPawns = pawns.stream()
+        final var deadPawns = pawns.getAll().stream()
                 .filter(is -> !is.isAlive()).toList();
         if(!deadPawns.isEmpty()) {
             for(LivingEntity pawn : deadPawns) {
@@ -222,28 +270,8 @@ public final class ServerFortressManager implements IFortressManager, IServerMan
 
         giveThePlayerCraftingTableInCaseItWasLost();
 
-        if(!(specialBlocks.isEmpty() || blueprintsSpecialBlocks.isEmpty())  && getWorld() != null && getWorld().getRegistryKey() == World.OVERWORLD) {
-            boolean needSync = false;
-            for(var entry : new HashSet<>(specialBlocks.entrySet())) {
-                final var block = entry.getKey();
-                final var positions = entry.getValue();
-                needSync = needSync || positions.removeIf(pos -> getWorld().getBlockState(pos).getBlock() != block);
-                if (positions.isEmpty()) {
-                    specialBlocks.remove(block);
-                }
-            }
-            for (var entry : new HashSet<>(blueprintsSpecialBlocks.entrySet())) {
-                final var block = entry.getKey();
-                final var positions = entry.getValue();
-                needSync = needSync || positions.removeIf(pos -> getWorld().getBlockState(pos).getBlock() != block);
-                if (positions.isEmpty()) {
-                    blueprintsSpecialBlocks.remove(block);
-                }
-            }
-            if(needSync) {
-                scheduleSyncSpecialBlocks();
-            }
-        }
+        sweepSpecialBlocks();
+        refreshThreats();
 
         if(this.fortressCenter != null) {
             if(this.campfireEnabled)
@@ -267,8 +295,45 @@ public final class ServerFortressManager implements IFortressManager, IServerMan
         }
     }
 
+    // the block change events keep the special blocks up to date, this only catches the changes made without them
+    private void sweepSpecialBlocks() {
+        final var world = getWorld();
+        if(world == null || (world.getTime() + sweepPhase) % SPECIAL_BLOCKS_SWEEP_INTERVAL_TICKS != 0) return;
+        final var specialBlocksChanged = specialBlocks.sweep(world, SPECIAL_BLOCKS_SWEEP_BATCH);
+        final var blueprintsSpecialBlocksChanged = blueprintsSpecialBlocks.sweep(world, SPECIAL_BLOCKS_SWEEP_BATCH);
+        if(specialBlocksChanged || blueprintsSpecialBlocksChanged)
+            this.dirty = true;
+    }
+
+    private void refreshThreats() {
+        final var prepared = preparedThreats;
+        if(prepared == null) return;
+        preparedThreats = null;
+        threats.refresh(prepared, getBuildingsManager().getBuildingAttackers());
+    }
+
+    @Override
+    public Optional<HostileEntity> findNearestThreat(Vec3d pos, double maxDistance, Predicate<HostileEntity> filter) {
+        return threats.findNearest(pos, maxDistance, filter);
+    }
+
+    @Override
+    public Optional<HostileEntity> getRandomBuildingAttacker() {
+        return threats.getRandomBuildingAttacker(getWorld().random);
+    }
+
+    public void onBlockChanged(BlockPos pos, BlockState state) {
+        final var specialBlockChanged = specialBlocks.onBlockChanged(pos, state);
+        final var blueprintsSpecialBlockChanged = blueprintsSpecialBlocks.onBlockChanged(pos, state);
+        if(specialBlockChanged || blueprintsSpecialBlockChanged)
+            this.dirty = true;
+
+        if(isPositionWithinFortress(pos))
+            getBuildingsManager().onBlockChanged(pos, state);
+    }
+
     private void giveThePlayerCraftingTableInCaseItWasLost() {
-        if(allPawnsAreFree() && (!specialBlocks.containsKey(Blocks.CRAFTING_TABLE) || specialBlocks.get(Blocks.CRAFTING_TABLE).isEmpty())) {
+        if(pawns.allWorkersAreFree() && specialBlocks.count(Blocks.CRAFTING_TABLE) == 0) {
             final var ii = new ItemInfo(Items.CRAFTING_TABLE, 1);
             final var resourceManager = getResourceManager();
             if(!resourceManager.hasItems(Collections.singletonList(ii))) {
@@ -279,9 +344,9 @@ public final class ServerFortressManager implements IFortressManager, IServerMan
 
     private void keepColonistsBelowMax() {
         if(maxColonistsCount != -1 && getTotalColonistsCount() > maxColonistsCount) {
-            final var deltaColonists = Math.max( pawns.stream().filter(LivingEntity::isAlive).count() - maxColonistsCount, 0);
+            final var deltaColonists = Math.max( pawns.getAll().stream().filter(LivingEntity::isAlive).count() - maxColonistsCount, 0);
 
-            pawns.stream()
+            new ArrayList<>(pawns.getAll()).stream()
                     .filter(LivingEntity::isAlive)
                     .limit(deltaColonists)
                     .forEach(it -> it.damage(getOutOfWorldDamageSource(), Integer.MAX_VALUE));
@@ -321,15 +386,12 @@ public final class ServerFortressManager implements IFortressManager, IServerMan
     }
 
     public int getReservedPawnsCount() {
-        return (int) getProfessionals()
-                .stream()
-                .filter(it -> it.getProfessionId().equals(Colonist.RESERVE_PROFESSION_ID))
-                .count();
+        return pawns.countWithProfession(Colonist.RESERVE_PROFESSION_ID);
     }
 
     public void killAllPawns() {
         final var outOfWorldDamageSource = getOutOfWorldDamageSource();
-        pawns.forEach(it -> it.damage(outOfWorldDamageSource, 40f));
+        new ArrayList<>(pawns.getAll()).forEach(it -> it.damage(outOfWorldDamageSource, 40f));
     }
 
     private DamageSource getOutOfWorldDamageSource() {
@@ -340,14 +402,7 @@ public final class ServerFortressManager implements IFortressManager, IServerMan
     }
 
     private Stream<IWorkerPawn> getWorkersStream() {
-        return pawns
-                .stream()
-                .filter(IWorkerPawn.class::isInstance)
-                .map(IWorkerPawn.class::cast);
-    }
-
-    private boolean allPawnsAreFree() {
-        return getWorkersStream().noneMatch(it -> it.getTaskControl().hasTask());
+        return pawns.getWorkers().stream();
     }
 
     public Optional<LivingEntity> spawnPawnNearCampfire(UUID masterPlayerId) {
@@ -373,6 +428,7 @@ public final class ServerFortressManager implements IFortressManager, IServerMan
     @Override
     public void setupCenter(@NotNull BlockPos fortressCenter, World world, ServerPlayerEntity player) {
         this.fortressCenter = fortressCenter;
+        markReachAreasChanged();
 
         if(!(world instanceof ServerWorld))
             throw new IllegalArgumentException("World must be a server world");
@@ -452,6 +508,26 @@ public final class ServerFortressManager implements IFortressManager, IServerMan
 
     public void scheduleSync() {
         needSync = true;
+        dirty = true;
+    }
+
+    public boolean isDirty() {
+        if(dirty) return true;
+        for (IServerManager value : managers.values()) {
+            if(value instanceof IWritableManager wm && wm.isDirty()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public void markClean() {
+        dirty = false;
+        for (IServerManager value : managers.values()) {
+            if(value instanceof IWritableManager wm) {
+                wm.markClean();
+            }
+        }
     }
 
     private void scheduleSyncSpecialBlocks() {
@@ -460,11 +536,30 @@ public final class ServerFortressManager implements IFortressManager, IServerMan
     }
 
     public Set<IProfessional> getProfessionals() {
-        return pawns
-                .stream()
-                .filter(IProfessional.class::isInstance)
-                .map(IProfessional.class::cast)
-                .collect(Collectors.toUnmodifiableSet());
+        return pawns.getProfessionals();
+    }
+
+    public List<IProfessional> getPawnsWithProfession(String professionId) {
+        return pawns.getWithProfession(professionId);
+    }
+
+    public int countPawnsWithProfession(String professionId) {
+        return pawns.countWithProfession(professionId);
+    }
+
+    @Override
+    public void updatePawnIndexes(LivingEntity pawn) {
+        pawns.update(pawn);
+    }
+
+    // the pawns keep the reference to their fortress until it's removed
+    public void markRemoved() {
+        this.removed = true;
+    }
+
+    @Override
+    public boolean isRemoved() {
+        return removed;
     }
 
     public void writeToNbt(NbtCompound tag) {
@@ -484,29 +579,11 @@ public final class ServerFortressManager implements IFortressManager, IServerMan
         tag.put("nameGenerator", nameGeneratorTag);
 
         if(!specialBlocks.isEmpty()) {
-            final NbtCompound specialBlocksTag = new NbtCompound();
-            for (var specialBlock : this.specialBlocks.entrySet()) {
-                final String blockId = Registries.BLOCK.getId(specialBlock.getKey()).toString();
-                final NbtList posList = new NbtList();
-                for (BlockPos pos : specialBlock.getValue()) {
-                    posList.add(NbtHelper.fromBlockPos(pos));
-                }
-                specialBlocksTag.put(blockId, posList);
-            }
-            tag.put("specialBlocks", specialBlocksTag);
+            tag.put("specialBlocks", specialBlocks.toNbt());
         }
 
         if(!blueprintsSpecialBlocks.isEmpty()) {
-            final NbtCompound blueprintsSpecialBlocksTag = new NbtCompound();
-            for (var specialBlock : this.blueprintsSpecialBlocks.entrySet()) {
-                final String blockId = Registries.BLOCK.getId(specialBlock.getKey()).toString();
-                final NbtList posList = new NbtList();
-                for (BlockPos pos : specialBlock.getValue()) {
-                    posList.add(NbtHelper.fromBlockPos(pos));
-                }
-                blueprintsSpecialBlocksTag.put(blockId, posList);
-            }
-            tag.put("blueprintsSpecialBlocks", blueprintsSpecialBlocksTag);
+            tag.put("blueprintsSpecialBlocks", blueprintsSpecialBlocks.toNbt());
         }
         tag.putString("gamemode", this.gamemode.name());
 
@@ -535,6 +612,7 @@ public final class ServerFortressManager implements IFortressManager, IServerMan
         if(tag.contains("minZ")) minZ = tag.getInt("minZ");
         if(tag.contains("maxX")) maxX = tag.getInt("maxX");
         if(tag.contains("maxZ")) maxZ = tag.getInt("maxZ");
+        markReachAreasChanged();
 
         if(tag.contains("nameGenerator")) {
             final NbtCompound nameGeneratorTag = tag.getCompound("nameGenerator");
@@ -542,30 +620,12 @@ public final class ServerFortressManager implements IFortressManager, IServerMan
         }
 
         if (tag.contains("specialBlocks")) {
-            final NbtCompound specialBlocksTag = tag.getCompound("specialBlocks");
-            for (String blockId : specialBlocksTag.getKeys()) {
-                final Block block = Registries.BLOCK.get(new Identifier(blockId));
-                final NbtList posList = specialBlocksTag.getList(blockId, NbtElement.COMPOUND_TYPE);
-                final var positions = new ArrayList<BlockPos>();
-                for (int j = 0; j < posList.size(); j++) {
-                    positions.add(NbtHelper.toBlockPos(posList.getCompound(j)));
-                }
-                this.specialBlocks.put(block, positions);
-            }
+            this.specialBlocks.readNbt(tag.getCompound("specialBlocks"));
             this.scheduleSyncSpecialBlocks();
         }
 
         if (tag.contains("blueprintsSpecialBlocks")) {
-            final NbtCompound blueprintsSpecialBlocksTag = tag.getCompound("blueprintsSpecialBlocks");
-            for (String blockId : blueprintsSpecialBlocksTag.getKeys()) {
-                final Block block = Registries.BLOCK.get(new Identifier(blockId));
-                final NbtList posList = blueprintsSpecialBlocksTag.getList(blockId, NbtElement.COMPOUND_TYPE);
-                final var positions = new ArrayList<BlockPos>();
-                for (int j = 0; j < posList.size(); j++) {
-                    positions.add(NbtHelper.toBlockPos(posList.getCompound(j)));
-                }
-                this.blueprintsSpecialBlocks.put(block, positions);
-            }
+            this.blueprintsSpecialBlocks.readNbt(tag.getCompound("blueprintsSpecialBlocks"));
             this.scheduleSyncSpecialBlocks();
         }
 
@@ -671,9 +731,9 @@ public final class ServerFortressManager implements IFortressManager, IServerMan
     @Override
     public boolean hasRequiredBlock(Block block, boolean blueprint, int minCount) {
         if(blueprint)
-            return blueprintsSpecialBlocks.getOrDefault(block, Collections.emptyList()).size() > minCount;
+            return blueprintsSpecialBlocks.count(block) > minCount;
         else
-            return this.specialBlocks.getOrDefault(block, Collections.emptyList()).size() > minCount;
+            return this.specialBlocks.count(block) > minCount;
     }
 
     public boolean isBlockSpecial(Block block) {
@@ -681,12 +741,9 @@ public final class ServerFortressManager implements IFortressManager, IServerMan
     }
 
     public void addSpecialBlocks(Block block, BlockPos blockPos, boolean blueprint) {
-        final var blocks = blueprint ?
-                blueprintsSpecialBlocks.computeIfAbsent(block, k -> new ArrayList<>())
-                :
-                specialBlocks.computeIfAbsent(block, k -> new ArrayList<>());
-        if(!blocks.contains(blockPos)) blocks.add(blockPos);
-        scheduleSyncSpecialBlocks();
+        final var blocks = blueprint ? blueprintsSpecialBlocks : specialBlocks;
+        if(blocks.add(block, blockPos))
+            this.dirty = true;
     }
 
     @Override
@@ -696,6 +753,7 @@ public final class ServerFortressManager implements IFortressManager, IServerMan
 
     public Optional<Colonist> getPawnWithoutAProfession() {
         return pawns
+                .getWithProfession(Colonist.DEFAULT_PROFESSION_ID)
                 .stream()
                 .filter(Colonist.class::isInstance)
                 .map(Colonist.class::cast)
@@ -704,19 +762,15 @@ public final class ServerFortressManager implements IFortressManager, IServerMan
     }
 
     @Override
-    public List<ITargetedPawn> getAllTargetedPawns() {
-        return pawns
-                .stream()
-                .filter(ITargetedPawn.class::isInstance)
-                .map(ITargetedPawn.class::cast)
-                .toList();
+    public Collection<ITargetedPawn> getAllTargetedPawns() {
+        return pawns.getTargetedPawns();
     }
 
     public List<BlockPos> getSpecialBlocksByType(Block block, boolean blueprint) {
         if(blueprint)
-            return blueprintsSpecialBlocks.getOrDefault(block, Collections.emptyList());
+            return blueprintsSpecialBlocks.getPositions(block);
         else
-            return specialBlocks.getOrDefault(block, Collections.emptyList());
+            return specialBlocks.getPositions(block);
     }
 
     @Override
@@ -760,12 +814,55 @@ public final class ServerFortressManager implements IFortressManager, IServerMan
     }
 
     public void expandTheVillage(BlockPos pos) {
+        dirty = true;
+        if(pos.getX() > maxX || pos.getX() < minX || pos.getZ() > maxZ || pos.getZ() < minZ)
+            markReachAreasChanged();
         if(maxX < pos.getX()) maxX = pos.getX();
         if(minX > pos.getX()) minX = pos.getX();
         if(maxZ < pos.getZ()) maxZ = pos.getZ();
         if(minZ > pos.getZ()) minZ = pos.getZ();
     }
 
+    public void markReachAreasChanged() {
+        reachAreasVersion++;
+    }
+
+    public int getReachAreasVersion() {
+        return reachAreasVersion;
+    }
+
+    // the village and the captured influence cells, the hostile mobs around them may attack the fortress
+    public void forEachReachArea(Consumer<BlockBox> consumer) {
+        if(fortressCenter == null) return;
+        final var radius = (int) Math.ceil(getVillageRadius());
+        consumer.accept(new BlockBox(
+                fortressCenter.getX() - radius, 0, fortressCenter.getZ() - radius,
+                fortressCenter.getX() + radius, 0, fortressCenter.getZ() + radius
+        ));
+
+        final var halfCell = BaseFortressBorderHolder.FORTRESS_BORDER_SIZE / 2;
+        for (BlockPos pos : getInfluenceManager().getInfluencePositions()) {
+            final var cell = BaseFortressBorderHolder.alignToAGrid(pos);
+            consumer.accept(new BlockBox(
+                    cell.getX() - halfCell, 0, cell.getZ() - halfCell,
+                    cell.getX() + halfCell, 0, cell.getZ() + halfCell
+            ));
+        }
+    }
+
+    public boolean isReachableFrom(BlockPos pos, double reachRange) {
+        if(fortressCenter == null) return false;
+        if(fortressCenter.isWithinDistance(pos, getVillageRadius() + reachRange)) return true;
+
+        final var cellReach = BaseFortressBorderHolder.FORTRESS_BORDER_SIZE / 2 + reachRange;
+        for (BlockPos influencePos : getInfluenceManager().getInfluencePositions()) {
+            final var cell = BaseFortressBorderHolder.alignToAGrid(influencePos);
+            if(Math.abs(pos.getX() - cell.getX()) <= cellReach && Math.abs(pos.getZ() - cell.getZ()) <= cellReach)
+                return true;
+        }
+        return false;
+    }
+
     public double getVillageRadius() {
         final var radius1 = flatDistanceToCampfire(maxX, maxZ);
         final var radius2 = flatDistanceToCampfire(minX, minZ);
@@ -0,0 +1,182 @@
+package org.minefortress.fortress;
+
+import it.unimi.dsi.fastutil.longs.*;
+import net.minecraft.block.Block;
+import net.minecraft.block.BlockState;
+import net.minecraft.nbt.NbtCompound;
+import net.minecraft.nbt.NbtElement;
+import net.minecraft.nbt.NbtHelper;
+import net.minecraft.nbt.NbtList;
+import net.minecraft.registry.Registries;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.util.Identifier;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkSectionPos;
+
+import java.util.*;
+
+/**
+ * Positions of the special blocks (crafting tables, furnaces) by the block type. Removed blocks are
+ * reported by the block change events, a slow sweep catches whatever was changed without an event.
+ * The changes since the last sync are kept, so only they are sent to the client.
+ */
+final class SpecialBlocksIndex {
+
+    private final Map<Block, LongSet> positionsByBlock = new HashMap<>();
+    private final Long2ObjectOpenHashMap<Block> blocksByPosition = new Long2ObjectOpenHashMap<>();
+    // the lists given out by getPositions, dropped once the positions of the block change
+    private final Map<Block, List<BlockPos>> positionsLists = new HashMap<>();
+
+    private final Map<Block, LongSet> addedSinceSync = new HashMap<>();
+    private final Map<Block, LongSet> removedSinceSync = new HashMap<>();
+
+    private final LongArrayList sweepQueue = new LongArrayList();
+    private int sweepIndex = 0;
+
+    boolean add(Block block, BlockPos pos) {
+        final var key = pos.asLong();
+        final var previousBlock = blocksByPosition.put(key, block);
+        if(previousBlock == block) return false;
+        if(previousBlock != null) removeFromBlock(previousBlock, key);
+
+        positionsByBlock.computeIfAbsent(block, it -> new LongOpenHashSet()).add(key);
+        positionsLists.remove(block);
+        trackChange(block, key, addedSinceSync, removedSinceSync);
+        return true;
+    }
+
+    boolean onBlockChanged(BlockPos pos, BlockState state) {
+        final var key = pos.asLong();
+        final var block = blocksByPosition.get(key);
+        if(block == null || state.isOf(block)) return false;
+        remove(key);
+        return true;
+    }
+
+    /**
+     * Checks a few positions every call, so every position is checked once in a while without
+     * spending any noticeable time on a single tick. The positions in unloaded chunks are skipped.
+     */
+    boolean sweep(ServerWorld world, int maxChecks) {
+        if(sweepIndex >= sweepQueue.size()) {
+            sweepQueue.clear();
+            sweepQueue.addAll(blocksByPosition.keySet());
+            sweepIndex = 0;
+        }
+
+        boolean changed = false;
+        final var pos = new BlockPos.Mutable();
+        for (int i = 0; i < maxChecks && sweepIndex < sweepQueue.size(); i++) {
+            final var key = sweepQueue.getLong(sweepIndex++);
+            final var block = blocksByPosition.get(key);
+            if(block == null) continue;
+            pos.set(key);
+            if(!world.isChunkLoaded(ChunkSectionPos.getSectionCoord(pos.getX()), ChunkSectionPos.getSectionCoord(pos.getZ()))) continue;
+            if(!world.getBlockState(pos).isOf(block)) {
+                remove(key);
+                changed = true;
+            }
+        }
+        return changed;
+    }
+
+    List<BlockPos> getPositions(Block block) {
+        final var positions = positionsByBlock.get(block);
+        if(positions == null) return Collections.emptyList();
+        return positionsLists.computeIfAbsent(block, it -> toPositions(positions));
+    }
+
+    int count(Block block) {
+        final var positions = positionsByBlock.get(block);
+        return positions == null ? 0 : positions.size();
+    }
+
+    Map<Block, List<BlockPos>> getAll() {
+        return toPositionsMap(positionsByBlock);
+    }
+
+    boolean hasChanges() {
+        return !addedSinceSync.isEmpty() || !removedSinceSync.isEmpty();
+    }
+
+    Map<Block, List<BlockPos>> getAddedSinceSync() {
+        return toPositionsMap(addedSinceSync);
+    }
+
+    Map<Block, List<BlockPos>> getRemovedSinceSync() {
+        return toPositionsMap(removedSinceSync);
+    }
+
+    void markSynced() {
+        addedSinceSync.clear();
+        removedSinceSync.clear();
+    }
+
+    NbtCompound toNbt() {
+        final NbtCompound tag = new NbtCompound();
+        for (var entry : positionsByBlock.entrySet()) {
+            final String blockId = Registries.BLOCK.getId(entry.getKey()).toString();
+            final NbtList posList = new NbtList();
+            for (long pos : entry.getValue()) {
+                posList.add(NbtHelper.fromBlockPos(BlockPos.fromLong(pos)));
+            }
+            tag.put(blockId, posList);
+        }
+        return tag;
+    }
+
+    void readNbt(NbtCompound tag) {
+        for (String blockId : tag.getKeys()) {
+            final Block block = Registries.BLOCK.get(new Identifier(blockId));
+            final NbtList posList = tag.getList(blockId, NbtElement.COMPOUND_TYPE);
+            for (int j = 0; j < posList.size(); j++) {
+                add(block, NbtHelper.toBlockPos(posList.getCompound(j)));
+            }
+        }
+    }
+
+    boolean isEmpty() {
+        return blocksByPosition.isEmpty();
+    }
+
+    private void remove(long key) {
+        final var block = blocksByPosition.remove(key);
+        if(block == null) return;
+        removeFromBlock(block, key);
+    }
+
+    private void removeFromBlock(Block block, long key) {
+        final var positions = positionsByBlock.get(block);
+        if(positions == null) return;
+        positions.remove(key);
+        if(positions.isEmpty()) positionsByBlock.remove(block);
+        positionsLists.remove(block);
+        trackChange(block, key, removedSinceSync, addedSinceSync);
+    }
+
+    // a change cancels the opposite one which wasn't synced yet
+    private static void trackChange(Block block, long key, Map<Block, LongSet> changes, Map<Block, LongSet> oppositeChanges) {
+        final var opposite = oppositeChanges.get(block);
+        if(opposite != null && opposite.remove(key)) {
+            if(opposite.isEmpty()) oppositeChanges.remove(block);
+            return;
+        }
+        changes.computeIfAbsent(block, it -> new LongOpenHashSet()).add(key);
+    }
+
+    private static Map<Block, List<BlockPos>> toPositionsMap(Map<Block, LongSet> positionsByBlock) {
+        final var result = new HashMap<Block, List<BlockPos>>();
+        positionsByBlock.forEach((block, positions) -> result.put(block, toPositions(positions)));
+        return result;
+    }
+
+    private static List<BlockPos> toPositions(LongSet positions) {
+        final var result = new ArrayList<BlockPos>(positions.size());
+        final LongIterator iterator = positions.iterator();
+        while (iterator.hasNext()) {
+            result.add(BlockPos.fromLong(iterator.nextLong()));
+        }
+        return Collections.unmodifiableList(result);
+    }
+
+}
@@ -0,0 +1,114 @@
+package org.minefortress.fortress;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import net.minecraft.entity.mob.HostileEntity;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.util.math.ChunkSectionPos;
+import net.minecraft.util.math.Vec3d;
+import net.minecraft.util.math.random.Random;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Predicate;
+
+/**
+ * The hostile mobs within the fortress bounds, bucketed from a snapshot shared by all the fortresses and used by all the pawns,
+ * so finding a target costs as much as the threats around the pawn and not as much as all the entities around it.
+ */
+final class ThreatsIndex {
+
+    private Buckets buckets = Buckets.EMPTY;
+    private final List<HostileEntity> buildingAttackers = new ArrayList<>();
+
+    // runs off the server thread, so it reads only the snapshot
+    static Buckets bucket(HostilesSnapshot hostiles, int minX, int minZ, int maxX, int maxZ) {
+        final var buckets = new Buckets();
+        for (int i = 0; i < hostiles.size(); i++) {
+            final var x = hostiles.getX(i);
+            final var z = hostiles.getZ(i);
+            if(x < minX || x >= maxX + 1 || z < minZ || z >= maxZ + 1) continue;
+            buckets.add(hostiles.get(i), ChunkSectionPos.getSectionCoord(x), ChunkSectionPos.getSectionCoord(z));
+        }
+        return buckets;
+    }
+
+    void refresh(Buckets buckets, Collection<HostileEntity> attackers) {
+        this.buckets = buckets;
+
+        buildingAttackers.clear();
+        for (HostileEntity attacker : attackers) {
+            if(attacker.isAlive()) buildingAttackers.add(attacker);
+        }
+    }
+
+    Optional<HostileEntity> findNearest(Vec3d pos, double maxDistance, Predicate<HostileEntity> filter) {
+        final var buckets = this.buckets;
+        if(buckets.threatsByChunk.isEmpty()) return Optional.empty();
+
+        final var chunkX = ChunkSectionPos.getSectionCoord(pos.x);
+        final var chunkZ = ChunkSectionPos.getSectionCoord(pos.z);
+        // the threats are bucketed by the position they had during the refresh, one more ring covers their moves
+        final var rangeRings = (int) Math.ceil(maxDistance / 16.0) + 1;
+        final var maxRing = Math.min(rangeRings, Math.max(
+                Math.max(chunkX - buckets.minChunkX, buckets.maxChunkX - chunkX),
+                Math.max(chunkZ - buckets.minChunkZ, buckets.maxChunkZ - chunkZ)
+        ));
+        final var maxSquaredDistance = maxDistance * maxDistance;
+
+        HostileEntity nearest = null;
+        double nearestDistance = maxSquaredDistance;
+        for (int ring = 0; ring <= maxRing; ring++) {
+            // nothing in this ring can be closer than this
+            final double ringDistance = Math.max(0, ring - 2) * 16.0;
+            if(ringDistance * ringDistance > nearestDistance) break;
+
+            for (int dx = -ring; dx <= ring; dx++) {
+                for (int dz = -ring; dz <= ring; dz++) {
+                    if(Math.abs(dx) != ring && Math.abs(dz) != ring) continue;
+                    final var bucket = buckets.threatsByChunk.get(ChunkPos.toLong(chunkX + dx, chunkZ + dz));
+                    if(bucket == null) continue;
+                    for (HostileEntity threat : bucket) {
+                        if(!threat.isAlive()) continue;
+                        final var distance = threat.squaredDistanceTo(pos);
+                        if(distance > nearestDistance) continue;
+                        if(!filter.test(threat)) continue;
+                        nearestDistance = distance;
+                        nearest = threat;
+                    }
+                }
+            }
+        }
+
+        return Optional.ofNullable(nearest);
+    }
+
+    Optional<HostileEntity> getRandomBuildingAttacker(Random random) {
+        buildingAttackers.removeIf(it -> !it.isAlive());
+        if(buildingAttackers.isEmpty()) return Optional.empty();
+        return Optional.of(buildingAttackers.get(random.nextInt(buildingAttackers.size())));
+    }
+
+    static final class Buckets {
+
+        static final Buckets EMPTY = new Buckets();
+
+        private final Long2ObjectOpenHashMap<List<HostileEntity>> threatsByChunk = new Long2ObjectOpenHashMap<>();
+        private int minChunkX = Integer.MAX_VALUE;
+        private int minChunkZ = Integer.MAX_VALUE;
+        private int maxChunkX = Integer.MIN_VALUE;
+        private int maxChunkZ = Integer.MIN_VALUE;
+
+        private void add(HostileEntity threat, int chunkX, int chunkZ) {
+            threatsByChunk.computeIfAbsent(ChunkPos.toLong(chunkX, chunkZ), it -> new ArrayList<>()).add(threat);
+
+            minChunkX = Math.min(minChunkX, chunkX);
+            minChunkZ = Math.min(minChunkZ, chunkZ);
+            maxChunkX = Math.max(maxChunkX, chunkX);
+            maxChunkZ = Math.max(maxChunkZ, chunkZ);
+        }
+
+    }
+
+}
@@ -14,14 +14,19 @@ import net.remmintan.mods.minefortress.networking.helpers.FortressServerNetworkH
 import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.stream.Stream;
 
 public final class AreasServerManager implements IServerAutomationAreaManager, ITickableManager, IWritableManager {
 
+    private static final int REFRESH_INTERVAL_TICKS = 20;
+
     private boolean needSync = false;
+    private boolean dirty = false;
     private final List<ServerAutomationAreaInfo> areas = new ArrayList<>();
 
-    private int tickCounter = 0;
+    // different fortresses refresh their areas on different ticks
+    private int tickCounter = ThreadLocalRandom.current().nextInt(REFRESH_INTERVAL_TICKS);
     private int refreshPointer = 0;
 
     public void addArea(IAutomationAreaInfo area) {
@@ -39,7 +44,7 @@ public final class AreasServerManager implements IServerAutomationAreaManager, I
     public void tick(ServerPlayerEntity serverPlayer) {
         if(serverPlayer == null) return;
 
-        if(tickCounter++ % 20 == 0) {
+        if(tickCounter++ % REFRESH_INTERVAL_TICKS == 0) {
             if(areas.isEmpty()) return;
             if(refreshPointer >= areas.size()) refreshPointer = 0;
             areas.get(refreshPointer++).refresh(serverPlayer.getWorld());
@@ -61,6 +66,7 @@ public final class AreasServerManager implements IServerAutomationAreaManager, I
 
     public void sync() {
         needSync = true;
+        dirty = true;
     }
 
     @Override
@@ -90,4 +96,14 @@ public final class AreasServerManager implements IServerAutomationAreaManager, I
         this.sync();
     }
 
+    @Override
+    public boolean isDirty() {
+        return dirty;
+    }
+
+    @Override
+    public void markClean() {
+        dirty = false;
+    }
+
 }
@@ -0,0 +1,196 @@
+package org.minefortress.fortress.buildings;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.util.math.ChunkSectionPos;
+import net.remmintan.mods.minefortress.core.interfaces.buildings.IFortressBuilding;
+
+import java.util.*;
+import java.util.function.Predicate;
+
+final class BuildingsSpatialIndex {
+
+    private final Map<UUID, IFortressBuilding> buildingsById = new HashMap<>();
+    // every chunk the building's box touches, used for the containment checks
+    private final Long2ObjectOpenHashMap<List<IFortressBuilding>> buildingsByChunk = new Long2ObjectOpenHashMap<>();
+    // only the chunk of the building's center, used for the nearest search
+    private final Long2ObjectOpenHashMap<List<IFortressBuilding>> buildingsByCenterChunk = new Long2ObjectOpenHashMap<>();
+
+    private int minChunkX = Integer.MAX_VALUE;
+    private int minChunkZ = Integer.MAX_VALUE;
+    private int maxChunkX = Integer.MIN_VALUE;
+    private int maxChunkZ = Integer.MIN_VALUE;
+
+    void add(IFortressBuilding building) {
+        buildingsById.put(building.getId(), building);
+
+        final var start = building.getStart();
+        final var end = building.getEnd();
+        for (int chunkX = toChunk(start.getX()); chunkX <= toChunk(end.getX()); chunkX++) {
+            for (int chunkZ = toChunk(start.getZ()); chunkZ <= toChunk(end.getZ()); chunkZ++) {
+                buildingsByChunk.computeIfAbsent(ChunkPos.toLong(chunkX, chunkZ), it -> new ArrayList<>()).add(building);
+            }
+        }
+
+        final var center = building.getCenter();
+        final var centerChunkX = toChunk(center.getX());
+        final var centerChunkZ = toChunk(center.getZ());
+        buildingsByCenterChunk.computeIfAbsent(ChunkPos.toLong(centerChunkX, centerChunkZ), it -> new ArrayList<>()).add(building);
+
+        minChunkX = Math.min(minChunkX, centerChunkX);
+        minChunkZ = Math.min(minChunkZ, centerChunkZ);
+        maxChunkX = Math.max(maxChunkX, centerChunkX);
+        maxChunkZ = Math.max(maxChunkZ, centerChunkZ);
+    }
+
+    void remove(IFortressBuilding building) {
+        if(buildingsById.remove(building.getId()) == null) return;
+
+        final var start = building.getStart();
+        final var end = building.getEnd();
+        for (int chunkX = toChunk(start.getX()); chunkX <= toChunk(end.getX()); chunkX++) {
+            for (int chunkZ = toChunk(start.getZ()); chunkZ <= toChunk(end.getZ()); chunkZ++) {
+                removeFromBucket(buildingsByChunk, ChunkPos.toLong(chunkX, chunkZ), building);
+            }
+        }
+
+        final var center = building.getCenter();
+        final var centerChunkX = toChunk(center.getX());
+        final var centerChunkZ = toChunk(center.getZ());
+        removeFromBucket(buildingsByCenterChunk, ChunkPos.toLong(centerChunkX, centerChunkZ), building);
+        if(centerChunkX == minChunkX || centerChunkX == maxChunkX || centerChunkZ == minChunkZ || centerChunkZ == maxChunkZ)
+            recomputeBounds();
+    }
+
+    void clear() {
+        buildingsById.clear();
+        buildingsByChunk.clear();
+        buildingsByCenterChunk.clear();
+        minChunkX = Integer.MAX_VALUE;
+        minChunkZ = Integer.MAX_VALUE;
+        maxChunkX = Integer.MIN_VALUE;
+        maxChunkZ = Integer.MIN_VALUE;
+    }
+
+    Optional<IFortressBuilding> getById(UUID id) {
+        return Optional.ofNullable(buildingsById.get(id));
+    }
+
+    List<IFortressBuilding> getBuildingsContaining(BlockPos pos) {
+        final var bucket = buildingsByChunk.get(ChunkPos.toLong(toChunk(pos.getX()), toChunk(pos.getZ())));
+        if(bucket == null) return Collections.emptyList();
+
+        List<IFortressBuilding> result = null;
+        for (IFortressBuilding building : bucket) {
+            if(!building.isPartOfTheBuilding(pos)) continue;
+            if(result == null) result = new ArrayList<>(1);
+            result.add(building);
+        }
+        return result == null ? Collections.emptyList() : result;
+    }
+
+    boolean isPartOfAnyBuilding(BlockPos pos) {
+        final var bucket = buildingsByChunk.get(ChunkPos.toLong(toChunk(pos.getX()), toChunk(pos.getZ())));
+        if(bucket == null) return false;
+
+        for (IFortressBuilding building : bucket) {
+            if(building.isPartOfTheBuilding(pos)) return true;
+        }
+        return false;
+    }
+
+    Optional<IFortressBuilding> findNearest(BlockPos pos, Predicate<IFortressBuilding> filter) {
+        if(buildingsById.isEmpty()) return Optional.empty();
+
+        final var chunkX = toChunk(pos.getX());
+        final var chunkZ = toChunk(pos.getZ());
+        // the rings closer than the bounds are empty, and only the part of a ring within the bounds is visited
+        final var minRing = Math.max(
+                Math.max(minChunkX - chunkX, chunkX - maxChunkX),
+                Math.max(Math.max(minChunkZ - chunkZ, chunkZ - maxChunkZ), 0)
+        );
+        final var maxRing = Math.max(
+                Math.max(chunkX - minChunkX, maxChunkX - chunkX),
+                Math.max(chunkZ - minChunkZ, maxChunkZ - chunkZ)
+        );
+
+        final var search = new NearestSearch(pos, filter);
+        for (int ring = minRing; ring <= maxRing; ring++) {
+            // nothing in this ring can be closer than this
+            final double ringDistance = Math.max(0, ring - 1) * 16.0;
+            if(search.nearest != null && ringDistance * ringDistance > search.nearestDistance) break;
+
+            final var fromX = Math.max(chunkX - ring, minChunkX);
+            final var toX = Math.min(chunkX + ring, maxChunkX);
+            final var fromZ = Math.max(chunkZ - ring + 1, minChunkZ);
+            final var toZ = Math.min(chunkZ + ring - 1, maxChunkZ);
+            for (int x = fromX; x <= toX; x++) {
+                search.visit(x, chunkZ - ring);
+                if(ring > 0) search.visit(x, chunkZ + ring);
+            }
+            for (int z = fromZ; z <= toZ; z++) {
+                search.visit(chunkX - ring, z);
+                search.visit(chunkX + ring, z);
+            }
+        }
+
+        return Optional.ofNullable(search.nearest);
+    }
+
+    // the bounds only grow on add, so they are recomputed once a building on the edge is removed
+    private void recomputeBounds() {
+        minChunkX = Integer.MAX_VALUE;
+        minChunkZ = Integer.MAX_VALUE;
+        maxChunkX = Integer.MIN_VALUE;
+        maxChunkZ = Integer.MIN_VALUE;
+        for (long key : buildingsByCenterChunk.keySet()) {
+            final var chunkX = ChunkPos.getPackedX(key);
+            final var chunkZ = ChunkPos.getPackedZ(key);
+            minChunkX = Math.min(minChunkX, chunkX);
+            minChunkZ = Math.min(minChunkZ, chunkZ);
+            maxChunkX = Math.max(maxChunkX, chunkX);
+            maxChunkZ = Math.max(maxChunkZ, chunkZ);
+        }
+    }
+
+    private final class NearestSearch {
+
+        private final BlockPos pos;
+        private final Predicate<IFortressBuilding> filter;
+        private IFortressBuilding nearest = null;
+        private double nearestDistance = Double.MAX_VALUE;
+
+        NearestSearch(BlockPos pos, Predicate<IFortressBuilding> filter) {
+            this.pos = pos;
+            this.filter = filter;
+        }
+
+        void visit(int chunkX, int chunkZ) {
+            if(chunkX < minChunkX || chunkX > maxChunkX || chunkZ < minChunkZ || chunkZ > maxChunkZ) return;
+            final var bucket = buildingsByCenterChunk.get(ChunkPos.toLong(chunkX, chunkZ));
+            if(bucket == null) return;
+            for (IFortressBuilding building : bucket) {
+                if(!filter.test(building)) continue;
+                final var distance = building.getCenter().getSquaredDistance(pos);
+                if(distance < nearestDistance) {
+                    nearestDistance = distance;
+                    nearest = building;
+                }
+            }
+        }
+
+    }
+
+    private static void removeFromBucket(Long2ObjectOpenHashMap<List<IFortressBuilding>> index, long key, IFortressBuilding building) {
+        final var bucket = index.get(key);
+        if(bucket == null) return;
+        bucket.remove(building);
+        if(bucket.isEmpty()) index.remove(key);
+    }
+
+    private static int toChunk(int coord) {
+        return ChunkSectionPos.getSectionCoord(coord);
+    }
+
+}
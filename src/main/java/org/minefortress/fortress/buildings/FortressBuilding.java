@@ -2,7 +2,6 @@ package org.minefortress.fortress.buildings;
 
 import net.minecraft.block.BedBlock;
 import net.minecraft.block.BlockState;
-import net.minecraft.block.enums.BedPart;
 import net.minecraft.entity.mob.HostileEntity;
 import net.minecraft.nbt.NbtCompound;
 import net.minecraft.nbt.NbtElement;
@@ -20,9 +19,8 @@ import org.minefortress.fortress.automation.iterators.FarmBuildingIterator;
 
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
-import java.util.stream.StreamSupport;
 
 public class FortressBuilding implements IFortressBuilding {
 
@@ -31,6 +29,7 @@ public class FortressBuilding implements IFortressBuilding {
     private final UUID id;
     private final BlockPos start;
     private final BlockPos end;
+    private final BlockPos center;
     private final String requirementId;
     @Nullable
     private final String blueprintId;
@@ -41,6 +40,10 @@ public class FortressBuilding implements IFortressBuilding {
     private Iterator<IAutomationBlockInfo> currentIterator;
 
     private Set<HostileEntity> attackers = new HashSet<>();
+    // beds placed after the building was built, they are not part of the blueprint
+    private final Set<BlockPos> extraBeds = new HashSet<>();
+    // buildings from old saves don't have the extra beds stored, they are looked up once on the first health check
+    private boolean extraBedsScanned = true;
 
     public FortressBuilding(UUID id,
                             BlockPos start,
@@ -53,6 +56,7 @@ public class FortressBuilding implements IFortressBuilding {
         this.id = id;
         this.start = start.toImmutable();
         this.end = end.toImmutable();
+        this.center = computeCenter(this.start, this.end);
         this.requirementId = requirementId;
         final var blockData = buildingBlockData.entrySet().stream()
                 .collect(Collectors.toMap(it -> it.getKey().add(start).toImmutable(), Map.Entry::getValue));
@@ -79,6 +83,8 @@ public class FortressBuilding implements IFortressBuilding {
         else
             throw new IllegalArgumentException("Tag does not contain end");
 
+        this.center = computeCenter(this.start, this.end);
+
         if (tag.contains("requirementId"))
             this.requirementId = tag.getString("requirementId");
         else
@@ -111,6 +117,14 @@ public class FortressBuilding implements IFortressBuilding {
             this.floorLevel = tag.getInt("floorLevel");
         else
             this.floorLevel = 0;
+
+        if (tag.contains("extraBeds")) {
+            for (long pos : tag.getLongArray("extraBeds")) {
+                this.extraBeds.add(BlockPos.fromLong(pos));
+            }
+        } else {
+            this.extraBedsScanned = false;
+        }
     }
 
     @Override
@@ -123,11 +137,37 @@ public class FortressBuilding implements IFortressBuilding {
             final var blocks = BlockPos.stream(start, end)
                     .collect(Collectors.toMap(BlockPos::toImmutable, world::getBlockState));
             buildingBlockData = new FortressBuildingBlockData(blocks, this.start.getY() + floorLevel);
+            // the whole volume is part of the block data now, so there are no extra beds
+            extraBedsScanned = true;
+        }
+
+        if(!extraBedsScanned) {
+            scanExtraBeds(world);
         }
 
         return buildingBlockData.checkTheNextBlocksState(MAX_BLOCKS_PER_UPDATE, world);
     }
 
+    private void scanExtraBeds(World world) {
+        for (BlockPos pos : BlockPos.iterate(start, end)) {
+            if(!buildingBlockData.contains(pos) && FortressBuildingBlockData.isBedHead(world.getBlockState(pos)))
+                extraBeds.add(pos.toImmutable());
+        }
+        extraBedsScanned = true;
+    }
+
+    @Override
+    public boolean updateBlockState(BlockPos pos, BlockState state) {
+        if(buildingBlockData == null) return false;
+        if(buildingBlockData.contains(pos))
+            return buildingBlockData.updateBlockState(pos, state);
+
+        if(FortressBuildingBlockData.isBedHead(state))
+            return extraBeds.add(pos.toImmutable());
+        else
+            return extraBeds.remove(pos);
+    }
+
     @Override
     public int getHealth() {
         return buildingBlockData == null ? 0 : buildingBlockData.getHealth();
@@ -152,6 +192,10 @@ public class FortressBuilding implements IFortressBuilding {
 
     @Override
     public BlockPos getCenter() {
+        return center;
+    }
+
+    private static BlockPos computeCenter(BlockPos start, BlockPos end) {
         return new BlockPos((start.getX() + end.getX()) / 2, (start.getY() + end.getY()) / 2, (start.getZ() + end.getZ()) / 2);
     }
 
@@ -163,23 +207,20 @@ public class FortressBuilding implements IFortressBuilding {
     }
 
     @Override
-    public Optional<BlockPos> getFreeBed(World world) {
-        return streamBeds(world)
-                .filter(pos -> !world.getBlockState(pos).get(BedBlock.OCCUPIED))
-                .findFirst();
-    }
-
-    @NotNull
-    private Stream<BlockPos> streamBeds(World world) {
-        return StreamSupport.stream(BlockPos.iterate(start, end).spliterator(), false)
-                .filter(pos -> world.getBlockState(pos).isIn(BlockTags.BEDS))
-                .filter(pos -> world.getBlockState(pos).get(BedBlock.PART) == BedPart.HEAD)
-                .map(BlockPos::toImmutable);
+    public Optional<BlockPos> getFreeBed(World world, Predicate<BlockPos> canClaim) {
+        if(buildingBlockData == null) return Optional.empty();
+        final Predicate<BlockPos> isFreeBed = pos -> {
+            final var state = world.getBlockState(pos);
+            return state.isIn(BlockTags.BEDS) && !state.get(BedBlock.OCCUPIED) && canClaim.test(pos);
+        };
+        final var bed = buildingBlockData.findBed(isFreeBed);
+        if(bed.isPresent()) return bed;
+        return extraBeds.stream().filter(isFreeBed).findFirst();
     }
 
     @Override
-    public long getBedsCount(World world) {
-        return streamBeds(world).count();
+    public long getBedsCount() {
+        return buildingBlockData == null ? 0 : buildingBlockData.getBedsCount() + extraBeds.size();
     }
 
     @Override
@@ -196,6 +237,9 @@ public class FortressBuilding implements IFortressBuilding {
             tag.put("buildingBlockData", buildingBlockData.toNbt());
         }
         tag.putInt("floorLevel", floorLevel);
+        if(extraBedsScanned) {
+            tag.putLongArray("extraBeds", extraBeds.stream().mapToLong(BlockPos::asLong).toArray());
+        }
     }
 
     @Override
@@ -247,8 +291,8 @@ public class FortressBuilding implements IFortressBuilding {
     }
 
     @Override
-    public IEssentialBuildingInfo toEssentialInfo(World world) {
-        return new EssentialBuildingInfo(id, start, end, requirementId, getBedsCount(world), blueprintId, getHealth());
+    public IEssentialBuildingInfo toEssentialInfo() {
+        return new EssentialBuildingInfo(id, start, end, requirementId, getBedsCount(), blueprintId, getHealth());
     }
 
     @Override
@@ -1,9 +1,14 @@
 package org.minefortress.fortress.buildings;
 
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
 import net.fabricmc.fabric.api.util.NbtType;
+import net.minecraft.block.BedBlock;
 import net.minecraft.block.Block;
 import net.minecraft.block.BlockState;
 import net.minecraft.block.Blocks;
+import net.minecraft.block.enums.BedPart;
 import net.minecraft.entity.mob.HostileEntity;
 import net.minecraft.nbt.NbtCompound;
 import net.minecraft.nbt.NbtHelper;
@@ -21,6 +26,7 @@ import net.minecraft.world.event.GameEvent;
 import org.apache.logging.log4j.LogManager;
 
 import java.util.*;
+import java.util.function.Predicate;
 
 class FortressBuildingBlockData {
 
@@ -31,23 +37,40 @@ class FortressBuildingBlockData {
     );
 
     private int blockPointer = 0;
-    private final List<PositionedState> referenceState = new ArrayList<>();
-    private final Map<BlockPos, BuildingBlockState> actualState = new HashMap<>();
-    private List<BlockPos> preservedPositions;
+
+    // block i of the building is at positions[i] and should have the state palette[states[i]]
+    private final long[] positions;
+    private final int[] states;
+    private final List<BlockState> palette;
+    private final Long2IntOpenHashMap indexByPosition;
+    private final BitSet destroyed;
+    private int destroyedCount;
+
+    // heads of the beds from the blueprint and the ones of them which are still in place
+    private final BitSet referenceBeds = new BitSet();
+    private final BitSet beds = new BitSet();
 
     FortressBuildingBlockData(Map<BlockPos, BlockState> preservedState, int floorYLevel) {
+        final var positionsList = new LongArrayList(preservedState.size());
+        final var statesList = new IntArrayList(preservedState.size());
+        final var paletteBuilder = new PaletteBuilder();
         for (Map.Entry<BlockPos, BlockState> entry : preservedState.entrySet()) {
             final var pos = entry.getKey();
             final var state = entry.getValue();
             if(shouldSkipBlock(pos, state, floorYLevel) || shouldSkipState(state))
                 continue;
-            final var positionedState = new PositionedState(pos, state);
-            this.referenceState.add(positionedState);
-            this.actualState.put(pos, BuildingBlockState.PRESERVED);
+            positionsList.add(pos.asLong());
+            statesList.add(paletteBuilder.getIndex(state));
         }
-    }
-
 
+        this.positions = positionsList.toLongArray();
+        this.states = statesList.toIntArray();
+        this.palette = paletteBuilder.palette;
+        this.indexByPosition = buildIndex(this.positions);
+        this.destroyed = new BitSet(this.positions.length);
+        this.destroyedCount = 0;
+        initBeds();
+    }
 
     private static boolean shouldSkipState(BlockState state) {
         for (Block ignoredBlock : IGNORED_BLOCKS) {
@@ -73,91 +96,80 @@ class FortressBuildingBlockData {
         return false;
     }
 
-    private FortressBuildingBlockData(NbtCompound tag) {
-        if(tag.contains("pointer", NbtType.NUMBER))
-            blockPointer = tag.getInt("pointer");
-
-        final var skippedPositions = new ArrayList<BlockPos>();
-        if(tag.contains("referenceState", NbtType.LIST)) {
-            final var list = tag.getList("referenceState", NbtType.COMPOUND);
-            for (int i = 0; i < list.size(); i++) {
-                final var compound = list.getCompound(i);
-                final var pos = BlockPos.fromLong(compound.getLong("pos"));
-                final var blockStateTag = compound.get("blockState");
-                if(blockStateTag != null) {
-                    final BlockState blockState;
-                    if(blockStateTag.getType() == NbtType.INT) {
-                        final var nbtInt = (NbtInt)blockStateTag;
-                        final var blockId = nbtInt.intValue();
-                        final var block = Registries.BLOCK.get(blockId);
-                        blockState = block.getDefaultState();
-                    } else if(blockStateTag.getType() == NbtType.COMPOUND) {
-                        final var compoundTag = (NbtCompound)blockStateTag;
-                        blockState = NbtHelper.toBlockState(Registries.BLOCK.getReadOnlyWrapper(), compoundTag);
-                    } else {
-                        throw new IllegalArgumentException("Invalid block state tag");
-                    }
-
-                    if (shouldSkipState(blockState)) {
-                        skippedPositions.add(pos);
-                        continue;
-                    }
-
-
-                    final var positionedState = new PositionedState(pos, blockState);
-                    referenceState.add(positionedState);
-                }
-            }
-        }
-
-        if(tag.contains("actualState", NbtType.LIST)) {
-            final var list = tag.getList("actualState", NbtType.COMPOUND);
-            for (int i = 0; i < list.size(); i++) {
-                final var compound = list.getCompound(i);
-                final var pos = BlockPos.fromLong(compound.getLong("pos"));
-                if(skippedPositions.contains(pos))
-                    continue;
-                final var blockState = compound.getString("blockState");
-                try {
-                    final var block = BuildingBlockState.valueOf(blockState);
-                    actualState.put(pos, block);
-                }catch (IllegalArgumentException e) {
-                    LogManager.getLogger().error("Invalid block state: " + blockState);
-                    throw e;
-                }
+    private FortressBuildingBlockData(long[] positions, int[] states, List<BlockState> palette, BitSet destroyed, int blockPointer) {
+        this.positions = positions;
+        this.states = states;
+        this.palette = palette;
+        this.indexByPosition = buildIndex(positions);
+        this.destroyed = destroyed;
+        this.destroyedCount = destroyed.cardinality();
+        this.blockPointer = blockPointer;
+        initBeds();
+    }
 
-            }
+    private static Long2IntOpenHashMap buildIndex(long[] positions) {
+        final var index = new Long2IntOpenHashMap(positions.length);
+        index.defaultReturnValue(-1);
+        for (int i = 0; i < positions.length; i++) {
+            index.put(positions[i], i);
         }
+        return index;
+    }
 
-        recalculatePreservedPositions();
+    private void initBeds() {
+        for (int i = 0; i < positions.length; i++) {
+            if(!isBedHead(palette.get(states[i]))) continue;
+            referenceBeds.set(i);
+            if(!destroyed.get(i))
+                beds.set(i);
+        }
     }
 
     boolean checkTheNextBlocksState(int blocksAmount, ServerWorld world) {
-        if(referenceState.isEmpty()) return false;
+        if(positions.length == 0) return false;
         if(world.getRegistryKey() != World.OVERWORLD)
             throw new IllegalArgumentException("The world must be the overworld");
 
+        final var pos = new BlockPos.Mutable();
         boolean stateUpdated = false;
         for (int i = 0; i < blocksAmount; i++) {
-            blockPointer = blockPointer % referenceState.size();
-            final var state = referenceState.get(blockPointer);
-            final var pos = state.pos;
-            final var referenceBlock = state.blockState;
-
+            blockPointer = blockPointer % positions.length;
+            pos.set(positions[blockPointer]);
             final var actualBlock = world.getBlockState(pos);
+            stateUpdated = updateBlockState(blockPointer, actualBlock) || stateUpdated;
+            blockPointer++;
+        }
 
-            final var previousState = actualState.getOrDefault(pos, BuildingBlockState.PRESERVED);
-            final var newState = areBlocksSimilar(referenceBlock, actualBlock) ? BuildingBlockState.PRESERVED : BuildingBlockState.DESTROYED;
+        return stateUpdated;
+    }
 
-            actualState.put(pos, newState);
+    boolean contains(BlockPos pos) {
+        return indexByPosition.containsKey(pos.asLong());
+    }
 
-            blockPointer++;
-            stateUpdated = stateUpdated || previousState != newState;
-        }
+    boolean updateBlockState(BlockPos pos, BlockState actualBlock) {
+        final var index = indexByPosition.get(pos.asLong());
+        return index >= 0 && updateBlockState(index, actualBlock);
+    }
 
-        if(stateUpdated)
-            recalculatePreservedPositions();
+    private boolean updateBlockState(int index, BlockState actualBlock) {
+        final var referenceBlock = palette.get(states[index]);
+        final var wasDestroyed = destroyed.get(index);
+        final var isDestroyed = !areBlocksSimilar(referenceBlock, actualBlock);
 
+        boolean stateUpdated = wasDestroyed != isDestroyed;
+        if(stateUpdated) {
+            destroyed.set(index, isDestroyed);
+            destroyedCount += isDestroyed ? 1 : -1;
+        }
+
+        if(referenceBeds.get(index)) {
+            final var isBed = isBedHead(actualBlock);
+            if(beds.get(index) != isBed) {
+                beds.set(index, isBed);
+                stateUpdated = true;
+            }
+        }
 
         return stateUpdated;
     }
@@ -184,42 +196,40 @@ class FortressBuildingBlockData {
         return a.isIn(blockTag) && b.isIn(blockTag);
     }
 
-    private void recalculatePreservedPositions() {
-        preservedPositions = actualState.entrySet()
-                .stream()
-                .filter(it -> it.getValue() == BuildingBlockState.PRESERVED)
-                .map(Map.Entry::getKey)
-                .toList();
+    static boolean isBedHead(BlockState state) {
+        return state.isIn(BlockTags.BEDS) && state.get(BedBlock.PART) == BedPart.HEAD;
+    }
+
+    long getBedsCount() {
+        return beds.cardinality();
+    }
+
+    Optional<BlockPos> findBed(Predicate<BlockPos> predicate) {
+        for (int i = beds.nextSetBit(0); i >= 0; i = beds.nextSetBit(i + 1)) {
+            final var pos = BlockPos.fromLong(positions[i]);
+            if(predicate.test(pos))
+                return Optional.of(pos);
+        }
+        return Optional.empty();
     }
 
     int getHealth() {
-        if(actualState.size() == 0) return 0;
-        final var preserved = actualState.values().stream().filter(state -> state == BuildingBlockState.PRESERVED).count();
-        final var delta = (float) preserved / (float) actualState.size();
+        if(positions.length == 0) return 0;
+        final var preserved = positions.length - destroyedCount;
+        final var delta = (float) preserved / (float) positions.length;
         return (int)MathHelper.clampedMap(delta, 0.5f, 1, 0, 100);
     }
 
     NbtCompound toNbt() {
         final var tag = new NbtCompound();
-        final var preservedStateList = new NbtList();
-        for (PositionedState positionedState : referenceState) {
-            final var compound = new NbtCompound();
-            compound.putLong("pos", positionedState.pos.asLong());
-            final var blockState = positionedState.blockState;
-            compound.put("blockState", NbtHelper.fromBlockState(blockState));
-            preservedStateList.add(compound);
+        final var paletteList = new NbtList();
+        for (BlockState state : palette) {
+            paletteList.add(NbtHelper.fromBlockState(state));
         }
-        tag.put("referenceState", preservedStateList);
-
-        final var actualStateList = new NbtList();
-        for (Map.Entry<BlockPos, BuildingBlockState> entry : actualState.entrySet()) {
-            final var compound = new NbtCompound();
-            compound.putLong("pos", entry.getKey().asLong());
-            compound.putString("blockState", entry.getValue().name());
-            actualStateList.add(compound);
-        }
-
-        tag.put("actualState", actualStateList);
+        tag.put("palette", paletteList);
+        tag.putLongArray("positions", positions);
+        tag.putIntArray("states", states);
+        tag.putLongArray("destroyed", destroyed.toLongArray());
         tag.putInt("pointer", blockPointer);
 
         return tag;
@@ -228,58 +238,134 @@ class FortressBuildingBlockData {
     boolean attack(HostileEntity attacker) {
         final var world = attacker.getWorld();
         final var random = world.random;
-        for (Map.Entry<BlockPos, BuildingBlockState> entries : actualState.entrySet()) {
-            final var pos = entries.getKey();
-            final var state = entries.getValue();
-            if(state == BuildingBlockState.DESTROYED)
-                continue;
-
-
-            if(random.nextFloat() >= 0.6f) {
-                world.syncWorldEvent(
-                        WorldEvents.BLOCK_BROKEN,
-                        pos,
-                        Block.getRawIdFromState(world.getBlockState(pos))
-                );
-                world.setBlockState(pos, Blocks.AIR.getDefaultState());
-                world.emitGameEvent(attacker, GameEvent.BLOCK_DESTROY, pos);
-                return true;
-            }
-            break;
+        final var preservedCount = positions.length - destroyedCount;
+        if(preservedCount <= 0) return false;
+
+        final var firstPreserved = destroyed.nextClearBit(0);
+        if(random.nextFloat() >= 0.6f) {
+            final var pos = BlockPos.fromLong(positions[firstPreserved]);
+            world.syncWorldEvent(
+                    WorldEvents.BLOCK_BROKEN,
+                    pos,
+                    Block.getRawIdFromState(world.getBlockState(pos))
+            );
+            world.setBlockState(pos, Blocks.AIR.getDefaultState());
+            world.emitGameEvent(attacker, GameEvent.BLOCK_DESTROY, pos);
+            return true;
         }
 
-        if(preservedPositions!=null) {
-            final var pos = preservedPositions.get(random.nextInt(preservedPositions.size()));
-            world.setBlockBreakingInfo(attacker.getId(), pos, random.nextInt(10));
-        }
+        var randomPreserved = destroyed.nextClearBit(random.nextInt(positions.length));
+        if(randomPreserved >= positions.length)
+            randomPreserved = firstPreserved;
+        world.setBlockBreakingInfo(attacker.getId(), BlockPos.fromLong(positions[randomPreserved]), random.nextInt(10));
 
         return false;
     }
 
     Map<BlockPos, BlockState> getAllBlockStatesToRepairTheBuilding() {
         final var map = new HashMap<BlockPos, BlockState>();
-        for (Map.Entry<BlockPos, BuildingBlockState> entry : actualState.entrySet()) {
-            final var pos = entry.getKey();
-            final var state = entry.getValue();
-            if(state == BuildingBlockState.PRESERVED)
-                continue;
-
-            final var blockState = referenceState
-                    .stream()
-                    .filter(it -> it.pos.equals(pos))
-                    .findFirst()
-                    .orElseThrow()
-                    .blockState;
-            map.put(pos, blockState);
+        for (int i = destroyed.nextSetBit(0); i >= 0; i = destroyed.nextSetBit(i + 1)) {
+            map.put(BlockPos.fromLong(positions[i]), palette.get(states[i]));
         }
         return map;
     }
 
-    static FortressBuildingBlockData fromNbt(NbtCompound compound) {
-        return new FortressBuildingBlockData(compound);
+    static FortressBuildingBlockData fromNbt(NbtCompound tag) {
+        if(tag.contains("referenceState", NbtType.LIST))
+            return fromLegacyNbt(tag);
+
+        final var blockPointer = tag.getInt("pointer");
+        final var paletteList = tag.getList("palette", NbtType.COMPOUND);
+        final var palette = new ArrayList<BlockState>(paletteList.size());
+        for (int i = 0; i < paletteList.size(); i++) {
+            palette.add(NbtHelper.toBlockState(Registries.BLOCK.getReadOnlyWrapper(), paletteList.getCompound(i)));
+        }
+        final var savedPositions = tag.getLongArray("positions");
+        final var savedStates = tag.getIntArray("states");
+        final var savedDestroyed = BitSet.valueOf(tag.getLongArray("destroyed"));
+
+        // states could become ignored after an update, such blocks are dropped here
+        final var positions = new LongArrayList(savedPositions.length);
+        final var states = new IntArrayList(savedStates.length);
+        final var destroyed = new BitSet(savedPositions.length);
+        for (int i = 0; i < savedPositions.length; i++) {
+            if(shouldSkipState(palette.get(savedStates[i]))) continue;
+            if(savedDestroyed.get(i)) destroyed.set(positions.size());
+            positions.add(savedPositions[i]);
+            states.add(savedStates[i]);
+        }
+
+        return new FortressBuildingBlockData(positions.toLongArray(), states.toIntArray(), palette, destroyed, blockPointer);
     }
 
-    private record PositionedState(BlockPos pos, BlockState blockState) {}
+    private static FortressBuildingBlockData fromLegacyNbt(NbtCompound tag) {
+        final var blockPointer = tag.contains("pointer", NbtType.NUMBER) ? tag.getInt("pointer") : 0;
+
+        final var positions = new LongArrayList();
+        final var states = new IntArrayList();
+        final var paletteBuilder = new PaletteBuilder();
+        final var list = tag.getList("referenceState", NbtType.COMPOUND);
+        for (int i = 0; i < list.size(); i++) {
+            final var compound = list.getCompound(i);
+            final var pos = compound.getLong("pos");
+            final var blockStateTag = compound.get("blockState");
+            if(blockStateTag == null) continue;
+
+            final BlockState blockState;
+            if(blockStateTag.getType() == NbtType.INT) {
+                final var nbtInt = (NbtInt)blockStateTag;
+                final var blockId = nbtInt.intValue();
+                final var block = Registries.BLOCK.get(blockId);
+                blockState = block.getDefaultState();
+            } else if(blockStateTag.getType() == NbtType.COMPOUND) {
+                final var compoundTag = (NbtCompound)blockStateTag;
+                blockState = NbtHelper.toBlockState(Registries.BLOCK.getReadOnlyWrapper(), compoundTag);
+            } else {
+                throw new IllegalArgumentException("Invalid block state tag");
+            }
+
+            if (shouldSkipState(blockState))
+                continue;
+
+            positions.add(pos);
+            states.add(paletteBuilder.getIndex(blockState));
+        }
+
+        final var positionsArray = positions.toLongArray();
+        final var index = buildIndex(positionsArray);
+        final var destroyed = new BitSet(positionsArray.length);
+        if(tag.contains("actualState", NbtType.LIST)) {
+            final var actualStateList = tag.getList("actualState", NbtType.COMPOUND);
+            for (int i = 0; i < actualStateList.size(); i++) {
+                final var compound = actualStateList.getCompound(i);
+                final var blockIndex = index.get(compound.getLong("pos"));
+                if(blockIndex < 0)
+                    continue;
+                final var blockState = compound.getString("blockState");
+                try {
+                    if(BuildingBlockState.valueOf(blockState) == BuildingBlockState.DESTROYED)
+                        destroyed.set(blockIndex);
+                }catch (IllegalArgumentException e) {
+                    LogManager.getLogger().error("Invalid block state: " + blockState);
+                    throw e;
+                }
+            }
+        }
+
+        return new FortressBuildingBlockData(positionsArray, states.toIntArray(), paletteBuilder.palette, destroyed, blockPointer);
+    }
+
+    private static class PaletteBuilder {
+        private final List<BlockState> palette = new ArrayList<>();
+        private final Map<BlockState, Integer> indexes = new HashMap<>();
+
+        int getIndex(BlockState state) {
+            return indexes.computeIfAbsent(state, it -> {
+                palette.add(it);
+                return palette.size() - 1;
+            });
+        }
+    }
 
     private enum BuildingBlockState {
         DESTROYED,
@@ -1,8 +1,7 @@
 package org.minefortress.fortress.buildings;
 
 
-import com.google.common.cache.Cache;
-import com.google.common.cache.CacheBuilder;
+import net.minecraft.block.BlockState;
 import net.minecraft.block.Blocks;
 import net.minecraft.entity.mob.HostileEntity;
 import net.minecraft.nbt.NbtCompound;
@@ -23,7 +22,7 @@ import org.apache.commons.lang3.StringUtils;
 import org.jetbrains.annotations.NotNull;
 
 import java.util.*;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.function.Predicate;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
@@ -31,14 +30,18 @@ import java.util.stream.Stream;
 
 public class FortressBuildingManager implements IAutomationAreaProvider, IServerBuildingsManager, ITickableManager, IWritableManager {
 
+    private static final int HEALTH_SWEEP_INTERVAL_TICKS = 20;
+
     private int buildingPointer = 0;
+    // a random start keeps the health sweeps of the fortresses off the same tick
+    private int ticks = ThreadLocalRandom.current().nextInt(HEALTH_SWEEP_INTERVAL_TICKS);
     private final List<IFortressBuilding> buildings = new ArrayList<>();
+    private final BuildingsSpatialIndex buildingsIndex = new BuildingsSpatialIndex();
     private final Supplier<ServerWorld> overworldSupplier;
-    private final Cache<BlockPos, Object> bedsCache =
-            CacheBuilder.newBuilder()
-                    .expireAfterWrite(10, TimeUnit.SECONDS)
-                    .build();
+    private final Map<BlockPos, UUID> claimedBeds = new HashMap<>();
+    private final Set<UUID> changedBuildings = new HashSet<>();
     private boolean needSync = false;
+    private boolean dirty = false;
 
     public FortressBuildingManager(Supplier<ServerWorld> overworldSupplier) {
         this.overworldSupplier = overworldSupplier;
@@ -46,6 +49,7 @@ public class FortressBuildingManager implements IAutomationAreaProvider, IServer
 
     public void addBuilding(IFortressBuilding building) {
         buildings.add(building);
+        buildingsIndex.add(building);
         this.scheduleSync();
     }
 
@@ -54,34 +58,56 @@ public class FortressBuildingManager implements IAutomationAreaProvider, IServer
         getBuildingById(id)
                 .ifPresent(it -> {
                     buildings.remove(it);
+                    buildingsIndex.remove(it);
                     BlockPos.iterate(it.getStart(), it.getEnd())
                             .forEach(pos -> getWorld().setBlockState(pos, Blocks.AIR.getDefaultState()));
                     this.scheduleSync();
                 });
     }
 
-    public Optional<BlockPos> getFreeBed(){
-        final var freeBed = buildings
-                .stream()
-                .map(it -> it.getFreeBed(getWorld()))
-                .filter(Optional::isPresent)
-                .map(Optional::get)
-                .filter(it -> !bedsCache.asMap().containsKey(it))
-                .findFirst();
+    public Optional<BlockPos> getFreeBed(UUID pawnId){
+        final var world = getWorld();
+        for (IFortressBuilding building : buildings) {
+            final var freeBed = building.getFreeBed(world, pos -> canClaimBed(pos, pawnId));
+            if(freeBed.isPresent()) {
+                releaseBed(pawnId);
+                claimedBeds.put(freeBed.get(), pawnId);
+                return freeBed;
+            }
+        }
+        return Optional.empty();
+    }
+
+    @Override
+    public void releaseBed(UUID pawnId) {
+        claimedBeds.values().removeIf(pawnId::equals);
+    }
+
+    private boolean canClaimBed(BlockPos pos, UUID pawnId) {
+        final var claimedBy = claimedBeds.get(pos);
+        if(claimedBy == null || claimedBy.equals(pawnId)) return true;
 
-        freeBed.ifPresent(it -> bedsCache.put(it, new Object()));
-        return freeBed;
+        final var claimingPawn = getWorld().getEntity(claimedBy);
+        if(claimingPawn == null || !claimingPawn.isAlive()) {
+            claimedBeds.remove(pos);
+            return true;
+        }
+        return false;
     }
 
     public long getTotalBedsCount() {
-        return buildings.stream().mapToLong(it -> it.getBedsCount(getWorld())).reduce(0, Long::sum);
+        long bedsCount = 0;
+        for (IFortressBuilding building : buildings) {
+            bedsCount += building.getBedsCount();
+        }
+        return bedsCount;
     }
 
     public void tick(ServerPlayerEntity player) {
         if(player != null) {
             if (needSync) {
                 final var houses = buildings.stream()
-                        .map(it -> it.toEssentialInfo(getWorld()))
+                        .map(IFortressBuilding::toEssentialInfo)
                         .collect(Collectors.collectingAndThen(Collectors.toList(), Collections::unmodifiableList));
                 final var syncBuildings = new ClientboundSyncBuildingsPacket(houses);
                 FortressServerNetworkHelper.send(player, FortressChannelNames.FORTRESS_BUILDINGS_SYNC, syncBuildings);
@@ -90,7 +116,19 @@ public class FortressBuildingManager implements IAutomationAreaProvider, IServer
             }
         }
 
-        if(!buildings.isEmpty()) {
+        if(!changedBuildings.isEmpty()) {
+            final var changed = new ArrayList<>(changedBuildings);
+            changedBuildings.clear();
+            this.scheduleSync();
+            for (UUID id : changed) {
+                getBuildingById(id)
+                        .filter(it -> it.getHealth() < 1)
+                        .ifPresent(it -> this.destroyBuilding(it.getId()));
+            }
+        }
+
+        // block changes are tracked through the events, the sweep only catches what they could miss
+        if(!buildings.isEmpty() && ticks++ % HEALTH_SWEEP_INTERVAL_TICKS == 0) {
             buildingPointer = buildingPointer % buildings.size();
             final var building = buildings.get(buildingPointer++);
             if(building.updateTheHealthState(getWorld())) {
@@ -103,8 +141,18 @@ public class FortressBuildingManager implements IAutomationAreaProvider, IServer
         }
     }
 
+    @Override
+    public void onBlockChanged(BlockPos pos, BlockState state) {
+        for (IFortressBuilding building : buildingsIndex.getBuildingsContaining(pos)) {
+            if(building.updateBlockState(pos, state)) {
+                changedBuildings.add(building.getId());
+            }
+        }
+    }
+
     private void scheduleSync() {
         needSync = true;
+        dirty = true;
     }
 
     public boolean hasRequiredBuilding(String requirementId, int minCount) {
@@ -112,7 +160,7 @@ public class FortressBuildingManager implements IAutomationAreaProvider, IServer
                 .filter(b -> b.satisfiesRequirement(requirementId));
         if(requirementId.startsWith("miner") || requirementId.startsWith("lumberjack") || requirementId.startsWith("warrior")) {
             return requiredBuildings
-                    .mapToLong(it -> it.getBedsCount(getWorld()) * 10)
+                    .mapToLong(it -> it.getBedsCount() * 10)
                     .sum() > minCount;
         }
         final var count = requiredBuildings.count();
@@ -142,6 +190,16 @@ public class FortressBuildingManager implements IAutomationAreaProvider, IServer
         this.readFromNbt(buildingsTag);
     }
 
+    @Override
+    public boolean isDirty() {
+        return dirty;
+    }
+
+    @Override
+    public void markClean() {
+        dirty = false;
+    }
+
     @Override
     public Stream<IAutomationArea> getAutomationAreasByRequirement(String requirementId) {
         return this.buildings.stream()
@@ -150,7 +208,7 @@ public class FortressBuildingManager implements IAutomationAreaProvider, IServer
     }
 
     public boolean isPartOfAnyBuilding(BlockPos pos) {
-        return buildings.stream().anyMatch(it -> it.isPartOfTheBuilding(pos));
+        return buildingsIndex.isPartOfAnyBuilding(pos);
     }
 
     public Optional<IFortressBuilding> findNearest(BlockPos pos) {
@@ -159,15 +217,10 @@ public class FortressBuildingManager implements IAutomationAreaProvider, IServer
 
     public Optional<IFortressBuilding> findNearest(BlockPos pos, String requirement) {
         final Predicate<IFortressBuilding> buildingsFilter = StringUtils.isBlank(requirement) ?
-                it -> true :
-                it -> it.satisfiesRequirement(requirement);
+                it -> it.getHealth() > 0 :
+                it -> it.satisfiesRequirement(requirement) && it.getHealth() > 0;
 
-        return buildings
-                .stream()
-                .filter(buildingsFilter)
-                .sorted(Comparator.comparing(it -> it.getCenter().getSquaredDistance(pos)))
-                .filter(it -> it.getHealth() > 0)
-                .findFirst();
+        return buildingsIndex.findNearest(pos, buildingsFilter);
     }
 
     @Override
@@ -182,22 +235,15 @@ public class FortressBuildingManager implements IAutomationAreaProvider, IServer
 
     @NotNull
     public Optional<IFortressBuilding> getBuildingById(UUID id) {
-        return buildings.stream()
-                .filter(it -> it.getId().equals(id))
-                .findFirst();
+        return buildingsIndex.getById(id);
     }
 
-    public Optional<HostileEntity> getRandomBuildingAttacker() {
-        final var attackersList = this.buildings
-                .stream()
-                .map(IFortressBuilding::getAttackers)
-                .flatMap(Collection::stream)
-                .toList();
-        if(attackersList.isEmpty())
-            return Optional.empty();
-
-        final var random = getWorld().random;
-        return Optional.of(attackersList.get(random.nextInt(attackersList.size())));
+    public List<HostileEntity> getBuildingAttackers() {
+        final var attackers = new ArrayList<HostileEntity>();
+        for (IFortressBuilding building : this.buildings) {
+            attackers.addAll(building.getAttackers());
+        }
+        return attackers;
     }
 
     private NbtCompound toNbt() {
@@ -220,6 +266,7 @@ public class FortressBuildingManager implements IAutomationAreaProvider, IServer
             final NbtCompound buildingTag = buildingsTag.getCompound("building" + i++);
             FortressBuilding building = new FortressBuilding(buildingTag);
             buildings.add(building);
+            buildingsIndex.add(building);
             this.scheduleSync();
         }
 
@@ -228,7 +275,9 @@ public class FortressBuildingManager implements IAutomationAreaProvider, IServer
 
     private void reset() {
         buildings.clear();
-        bedsCache.invalidateAll();
+        buildingsIndex.clear();
+        claimedBeds.clear();
+        changedBuildings.clear();
         buildingPointer = 0;
         this.scheduleSync();
     }
@@ -1,10 +1,8 @@
 package org.minefortress.fortress.resources;
 
 import net.minecraft.item.Item;
-import net.minecraft.item.ItemStack;
 import net.minecraft.item.Items;
 import net.minecraft.registry.Registries;
-import net.minecraft.registry.entry.RegistryEntry;
 import net.minecraft.registry.tag.ItemTags;
 import net.minecraft.registry.tag.TagKey;
 import org.minefortress.blueprints.data.StructureBlockData;
@@ -121,49 +119,34 @@ public class SimilarItemsHelper {
                 defaultStack.isIn(ItemTags.BANNERS);
     }
 
-    public static List<Item> getSimilarItems(Item item) {
-        if (strippedLogs.contains(item)) {
-            return strippedLogs.stream().filter(i -> i != item).toList();
-        }
-
-        if (strippedWood.contains(item)) {
-            return strippedWood.stream().filter(i -> i != item).toList();
-        }
+    private static volatile SimilarItemsTable table;
 
-        if (similarDirt.contains(item)) {
-            return similarDirt.stream().filter(i -> i != item).toList();
-        }
-
-        if (similarFenceGate.contains(item)) {
-            return similarFenceGate.stream().filter(i -> i != item).toList();
-        }
-
-        if (similarGlass.contains(item)) {
-            return similarGlass.stream().filter(i -> i != item).toList();
-        }
-
-        if (similarGlassPanes.contains(item)) {
-            return similarGlassPanes.stream().filter(i -> i != item).toList();
+    public static SimilarItemsTable getTable() {
+        var current = table;
+        if(current == null) {
+            current = buildTable();
+            table = current;
         }
+        return current;
+    }
 
-        return getItemTag(item)
-                .map(tag ->
-                        getItems(tag)
-                                .stream()
-                                .filter(it -> it != item)
-                                .filter(it -> !strippedLogs.contains(it))
-                                .filter(it -> !strippedWood.contains(it))
-                                .filter(it -> !similarDirt.contains(it))
-                                .filter(it -> !similarFenceGate.contains(it))
-                                .filter(it -> !similarGlass.contains(it))
-                                .toList()
-                )
-                .orElse(Collections.emptyList());
+    // the tags define the classes, so the table is rebuilt lazily after every tags reload
+    public static void invalidate() {
+        table = null;
     }
 
-    private static Optional<TagKey<Item>> getItemTag(Item item) {
-        final var defaultStack = item.getDefaultStack();
-        return defaultStack.streamTags().filter(tags::contains).findFirst();
+    private static SimilarItemsTable buildTable() {
+        final var builder = new SimilarItemsTable.Builder(Registries.ITEM.size())
+                .addClass(strippedLogs)
+                .addClass(strippedWood)
+                .addClass(similarDirt)
+                .addClass(similarFenceGate)
+                .addClass(similarGlass)
+                .addClass(similarGlassPanes);
+        for (TagKey<Item> tag : tags) {
+            builder.addClass(getItems(tag));
+        }
+        return builder.build();
     }
 
     public static List<Item> getItems(TagKey<Item> tag) {
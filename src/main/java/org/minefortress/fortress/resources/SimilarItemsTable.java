@@ -0,0 +1,83 @@
+package org.minefortress.fortress.resources;
+
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import net.minecraft.item.Item;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Splits the items into the classes of the interchangeable items, item raw id -> class id -> member raw ids.
+ * Every item belongs to at most one class, so the table is built once and the lookups don't allocate.
+ */
+public final class SimilarItemsTable {
+
+    public static final int NO_CLASS = -1;
+
+    private final int[] classByRawId;
+    private final int[][] members;
+
+    private SimilarItemsTable(int[] classByRawId, int[][] members) {
+        this.classByRawId = classByRawId;
+        this.members = members;
+    }
+
+    public int getClassId(Item item) {
+        final var rawId = Item.getRawId(item);
+        if(rawId < 0 || rawId >= classByRawId.length) return NO_CLASS;
+        return classByRawId[rawId];
+    }
+
+    public int getClassesCount() {
+        return members.length;
+    }
+
+    // the returned array is shared, it must not be modified
+    public int[] getMembers(int classId) {
+        return members[classId];
+    }
+
+    public boolean areSimilar(Item first, Item second) {
+        if(first == second) return false;
+        final var classId = getClassId(first);
+        return classId != NO_CLASS && classId == getClassId(second);
+    }
+
+    static final class Builder {
+
+        private final int[] classByRawId;
+        private final List<int[]> members = new ArrayList<>();
+
+        Builder(int itemsCount) {
+            this.classByRawId = new int[itemsCount];
+            Arrays.fill(classByRawId, NO_CLASS);
+        }
+
+        // items that already belong to another class are skipped, so the earlier classes have priority
+        Builder addClass(Iterable<Item> items) {
+            final var classMembers = new IntArrayList();
+            for (Item item : items) {
+                final var rawId = Item.getRawId(item);
+                if(rawId < 0 || rawId >= classByRawId.length) continue;
+                if(classByRawId[rawId] != NO_CLASS || classMembers.contains(rawId)) continue;
+                classMembers.add(rawId);
+            }
+            // a single item has nothing to be replaced with
+            if(classMembers.size() < 2) return this;
+
+            final var classId = members.size();
+            for (int rawId : classMembers) {
+                classByRawId[rawId] = classId;
+            }
+            members.add(classMembers.toIntArray());
+            return this;
+        }
+
+        SimilarItemsTable build() {
+            return new SimilarItemsTable(classByRawId, members.toArray(int[][]::new));
+        }
+
+    }
+
+}
@@ -0,0 +1,42 @@
+package org.minefortress.fortress.resources;
+
+import net.minecraft.item.Item;
+
+/**
+ * The sum of the amounts of every class of the similar items, the resource managers add every change of their amounts.
+ * The totals become stale once the table is rebuilt after a tag reload, the resource managers refill them on the next read.
+ */
+public final class SimilarItemsTotals {
+
+    private SimilarItemsTable table;
+    private int[] totals;
+
+    public boolean isStale() {
+        return table == null || table != SimilarItemsHelper.getTable();
+    }
+
+    public void invalidate() {
+        this.table = null;
+        this.totals = null;
+    }
+
+    public void reset() {
+        this.table = SimilarItemsHelper.getTable();
+        this.totals = new int[table.getClassesCount()];
+    }
+
+    public void add(Item item, int delta) {
+        if(delta == 0 || isStale()) return;
+        final var classId = table.getClassId(item);
+        if(classId != SimilarItemsTable.NO_CLASS) {
+            totals[classId] += delta;
+        }
+    }
+
+    public int get(Item item) {
+        if(isStale()) throw new IllegalStateException("Similar items totals are stale");
+        final var classId = table.getClassId(item);
+        return classId == SimilarItemsTable.NO_CLASS ? 0 : totals[classId];
+    }
+
+}
@@ -2,9 +2,9 @@ package org.minefortress.fortress.resources.client;
 
 import net.minecraft.item.Item;
 import net.minecraft.item.ItemStack;
-import org.minefortress.fortress.resources.SimilarItemsHelper;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -17,13 +17,8 @@ class ClientItemStacksManager {
         return stacks.computeIfAbsent(item, i -> new FortressItemStack(i, 0));
     }
 
-    public List<FortressItemStack> getNonEmptySimilarStacks(Item item) {
-        return SimilarItemsHelper.getSimilarItems(item)
-                .stream()
-                .filter(stacks::containsKey)
-                .map(stacks::get)
-                .filter(it -> !it.isEmpty())
-                .toList();
+    Collection<FortressItemStack> getAllStacks() {
+        return stacks.values();
     }
 
     boolean isEmpty() {
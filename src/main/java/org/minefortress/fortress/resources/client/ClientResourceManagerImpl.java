@@ -7,15 +7,18 @@ import net.remmintan.mods.minefortress.core.interfaces.resources.IClientResource
 import net.remmintan.mods.minefortress.core.interfaces.resources.IItemInfo;
 import org.minefortress.fortress.resources.ItemInfo;
 import org.minefortress.fortress.resources.SimilarItemsHelper;
+import org.minefortress.fortress.resources.SimilarItemsTable;
+import org.minefortress.fortress.resources.SimilarItemsTotals;
 import org.minefortress.utils.ModUtils;
 
-import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 
 public class ClientResourceManagerImpl implements IClientResourceManager {
 
     private final StackGroupsManager groupManager = new StackGroupsManager();
+    private final SimilarItemsTotals similarTotals = new SimilarItemsTotals();
+    private int syncVersion = 0;
 
     @Override
     public Set<ItemGroup> getGroups() {
@@ -58,21 +61,33 @@ public class ClientResourceManagerImpl implements IClientResourceManager {
         if (stack == null) return false;
         final var availableAmount = stack.getCount();
         if(availableAmount >= amount) return true;
-        final var amountOfNonEmptySimilarElements = groupManager
-                .getNonEmptySimilarStacks(item)
-                .stream()
-                .map(ItemStack::getCount)
-                .reduce(0, Integer::sum);
 
-        final var similarItemsSet = new HashSet<>(SimilarItemsHelper.getSimilarItems(item));
-        final var requiredSimilarItems = items.stream()
-                .filter(it -> similarItemsSet.contains(it.item()))
-                .mapToInt(IItemInfo::amount)
-                .sum();
+        final var table = SimilarItemsHelper.getTable();
+        final var classId = table.getClassId(item);
+        if(classId == SimilarItemsTable.NO_CLASS) return false;
+
+        final var amountOfNonEmptySimilarElements = getSimilarItemsTotal(item) - availableAmount;
+        var requiredSimilarItems = 0;
+        for (IItemInfo info : items) {
+            final var infoItem = info.item();
+            if(infoItem != item && table.getClassId(infoItem) == classId) {
+                requiredSimilarItems += info.amount();
+            }
+        }
 
         return (amountOfNonEmptySimilarElements - requiredSimilarItems + availableAmount) >= amount;
     }
 
+    private int getSimilarItemsTotal(Item item) {
+        if(similarTotals.isStale()) {
+            similarTotals.reset();
+            for (FortressItemStack stack : groupManager.getAllStacks()) {
+                similarTotals.add(stack.getItem(), stack.getCount());
+            }
+        }
+        return similarTotals.get(item);
+    }
+
     @Override
     public List<ItemStack> getStacks(ItemGroup group) {
         return groupManager.getStacksFromGroup(group);
@@ -82,7 +97,10 @@ public class ClientResourceManagerImpl implements IClientResourceManager {
     public void setItemAmount(Item item, int amount) {
         final var group = groupManager.getGroup(item);
         final var manager = groupManager.getStacksManager(group);
-        manager.getStack(item).setCount(amount);
+        final var stack = manager.getStack(item);
+        final var oldAmount = stack.getCount();
+        stack.setCount(amount);
+        similarTotals.add(item, stack.getCount() - oldAmount);
     }
 
     @Override
@@ -98,6 +116,18 @@ public class ClientResourceManagerImpl implements IClientResourceManager {
     @Override
     public void reset() {
         groupManager.clear();
+        similarTotals.invalidate();
+        syncVersion = 0;
+    }
+
+    @Override
+    public int getSyncVersion() {
+        return syncVersion;
+    }
+
+    @Override
+    public void setSyncVersion(int version) {
+        this.syncVersion = version;
     }
 
 }
@@ -67,10 +67,10 @@ class StackGroupsManager {
         return !nativeGroups.isEmpty() && !nativeGroups.get(0).getSearchTabStacks().isEmpty();
     }
 
-    List<FortressItemStack> getNonEmptySimilarStacks(Item item) {
+    List<FortressItemStack> getAllStacks() {
         return groups.values()
                 .stream()
-                .flatMap(it -> it.getNonEmptySimilarStacks(item).stream())
+                .flatMap(it -> it.getAllStacks().stream())
                 .toList();
     }
 
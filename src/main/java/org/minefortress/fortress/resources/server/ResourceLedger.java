@@ -0,0 +1,177 @@
+package org.minefortress.fortress.resources.server;
+
+import it.unimi.dsi.fastutil.ints.Int2IntMap;
+import it.unimi.dsi.fastutil.ints.Int2IntMaps;
+import it.unimi.dsi.fastutil.ints.Int2IntOpenHashMap;
+import net.minecraft.item.Item;
+import net.remmintan.mods.minefortress.core.interfaces.resources.IItemInfo;
+import org.minefortress.fortress.resources.SimilarItemsHelper;
+import org.minefortress.fortress.resources.SimilarItemsTable;
+import org.minefortress.fortress.resources.SimilarItemsTotals;
+
+import java.util.*;
+import java.util.function.IntConsumer;
+
+/**
+ * The available items of the fortress and the items reserved by the tasks, keyed by the item raw id.
+ * A reservation works as a transaction: it's planned against the available items and applied as a whole,
+ * the used items are committed from it in batches and whatever is left is rolled back on cancel.
+ */
+final class ResourceLedger {
+
+    private final Int2IntOpenHashMap available = new Int2IntOpenHashMap();
+    private final Map<UUID, Int2IntOpenHashMap> reservations = new HashMap<>();
+    private final SimilarItemsTotals similarTotals = new SimilarItemsTotals();
+    private final IntConsumer changesListener;
+
+    ResourceLedger(IntConsumer changesListener) {
+        this.changesListener = changesListener;
+    }
+
+    void clear() {
+        available.clear();
+        reservations.clear();
+        similarTotals.invalidate();
+    }
+
+    void clearReservations() {
+        reservations.clear();
+    }
+
+    int getAmount(int rawId) {
+        return available.get(rawId);
+    }
+
+    void setAmount(int rawId, int amount) {
+        final var oldAmount = amount == 0 ? available.remove(rawId) : available.put(rawId, amount);
+        if(oldAmount == amount) return;
+        similarTotals.add(Item.byRawId(rawId), Math.max(0, amount) - Math.max(0, oldAmount));
+        changesListener.accept(rawId);
+    }
+
+    void add(int rawId, int amount) {
+        if(amount == 0) return;
+        setAmount(rawId, available.get(rawId) + amount);
+    }
+
+    void remove(int rawId, int amount) {
+        final var current = available.get(rawId);
+        if(current < amount) throw new IllegalStateException("Tried to remove more items than available");
+        setAmount(rawId, current - amount);
+    }
+
+    // the amount of the item together with all the items similar to it, 0 if the item has no similar items
+    int getSimilarItemsTotal(Item item) {
+        if(similarTotals.isStale()) {
+            similarTotals.reset();
+            for (Int2IntMap.Entry entry : Int2IntMaps.fastIterable(available)) {
+                similarTotals.add(Item.byRawId(entry.getIntKey()), Math.max(0, entry.getIntValue()));
+            }
+        }
+        return similarTotals.get(item);
+    }
+
+    Int2IntMap getAvailable() {
+        return Int2IntMaps.unmodifiable(available);
+    }
+
+    Set<UUID> getReservationIds() {
+        return Collections.unmodifiableSet(reservations.keySet());
+    }
+
+    Int2IntMap getReserved(UUID taskId) {
+        final var reservation = reservations.get(taskId);
+        return reservation == null ? Int2IntMaps.EMPTY_MAP : Int2IntMaps.unmodifiable(reservation);
+    }
+
+    void reserve(UUID taskId, List<IItemInfo> infos) {
+        final var plan = planReservation(infos);
+        final var reservation = reservations.computeIfAbsent(taskId, it -> new Int2IntOpenHashMap());
+        for (Int2IntMap.Entry entry : Int2IntMaps.fastIterable(plan)) {
+            final var rawId = entry.getIntKey();
+            final var amount = entry.getIntValue();
+            setAmount(rawId, available.get(rawId) - amount);
+            reservation.addTo(rawId, amount);
+        }
+    }
+
+    // restores the saved reservation, the items are not taken from the available ones again
+    void restoreReservation(UUID taskId, int[] ids, int[] amounts) {
+        final var reservation = reservations.computeIfAbsent(taskId, it -> new Int2IntOpenHashMap());
+        for (int i = 0; i < Math.min(ids.length, amounts.length); i++) {
+            if(ids[i] < 0) continue;
+            reservation.addTo(ids[i], amounts[i]);
+        }
+    }
+
+    // commits the used items of the reservation, returns how many of them were not reserved
+    int commit(UUID taskId, Item item, int amount) {
+        final var reservation = reservations.get(taskId);
+        if(reservation == null) return amount;
+
+        final var rawId = Item.getRawId(item);
+        var left = amount - takeReserved(reservation, rawId, amount);
+        if(left > 0) {
+            final var table = SimilarItemsHelper.getTable();
+            final var classId = table.getClassId(item);
+            if(classId == SimilarItemsTable.NO_CLASS) return left;
+            for (int memberId : table.getMembers(classId)) {
+                if(memberId == rawId) continue;
+                left -= takeReserved(reservation, memberId, left);
+                if(left == 0) break;
+            }
+        }
+        return left;
+    }
+
+    // returns the items that were not used to the available ones
+    boolean rollback(UUID taskId) {
+        final var reservation = reservations.remove(taskId);
+        if(reservation == null) return false;
+        for (Int2IntMap.Entry entry : Int2IntMaps.fastIterable(reservation)) {
+            add(entry.getIntKey(), entry.getIntValue());
+        }
+        return true;
+    }
+
+    // nothing is changed until the whole reservation is planned
+    private Int2IntOpenHashMap planReservation(List<IItemInfo> infos) {
+        final var table = SimilarItemsHelper.getTable();
+        final var plan = new Int2IntOpenHashMap();
+        for (IItemInfo info : infos) {
+            final var item = info.item();
+            final var rawId = Item.getRawId(item);
+            var yetToFulfill = info.amount() - planTake(plan, rawId, info.amount());
+            if(yetToFulfill <= 0) continue;
+
+            final var classId = table.getClassId(item);
+            if(classId == SimilarItemsTable.NO_CLASS) continue;
+            for (int memberId : table.getMembers(classId)) {
+                if(memberId == rawId) continue;
+                yetToFulfill -= planTake(plan, memberId, yetToFulfill);
+                if(yetToFulfill == 0) break;
+            }
+        }
+        return plan;
+    }
+
+    private int planTake(Int2IntOpenHashMap plan, int rawId, int amount) {
+        final var left = available.get(rawId) - plan.get(rawId);
+        final var taken = Math.max(0, Math.min(left, amount));
+        if(taken > 0) plan.addTo(rawId, taken);
+        return taken;
+    }
+
+    private static int takeReserved(Int2IntOpenHashMap reservation, int rawId, int amount) {
+        final var reserved = reservation.get(rawId);
+        final var taken = Math.min(reserved, amount);
+        if(taken <= 0) return 0;
+        if(taken == reserved) {
+            reservation.remove(rawId);
+        } else {
+            reservation.put(rawId, reserved - taken);
+        }
+        return taken;
+    }
+
+}
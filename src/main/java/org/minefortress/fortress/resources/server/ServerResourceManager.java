@@ -1,13 +1,23 @@
 package org.minefortress.fortress.resources.server;
 
+import it.unimi.dsi.fastutil.ints.Int2IntMap;
+import it.unimi.dsi.fastutil.ints.Int2IntMaps;
+import it.unimi.dsi.fastutil.ints.Int2IntOpenHashMap;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.ints.IntLinkedOpenHashSet;
+import it.unimi.dsi.fastutil.ints.IntSet;
 import net.minecraft.item.BlockItem;
 import net.minecraft.item.Item;
 import net.minecraft.item.ItemStack;
 import net.minecraft.item.Items;
 import net.minecraft.nbt.NbtCompound;
+import net.minecraft.nbt.NbtElement;
 import net.minecraft.nbt.NbtList;
+import net.minecraft.nbt.NbtString;
+import net.minecraft.registry.Registries;
 import net.minecraft.server.MinecraftServer;
 import net.minecraft.server.network.ServerPlayerEntity;
+import net.minecraft.util.Identifier;
 import net.remmintan.mods.minefortress.core.interfaces.resources.IItemInfo;
 import net.remmintan.mods.minefortress.core.interfaces.resources.IServerResourceManager;
 import net.remmintan.mods.minefortress.core.interfaces.server.ITickableManager;
@@ -18,6 +28,7 @@ import net.remmintan.mods.minefortress.networking.s2c.ClientboundSyncItemsPacket
 import org.apache.logging.log4j.LogManager;
 import org.minefortress.fortress.resources.ItemInfo;
 import org.minefortress.fortress.resources.SimilarItemsHelper;
+import org.minefortress.fortress.resources.SimilarItemsTable;
 import org.minefortress.fortress.resources.client.FortressItemStack;
 
 import java.util.*;
@@ -26,14 +37,14 @@ public class ServerResourceManager implements IServerResourceManager, ITickableM
 
     private final Synchronizer synchronizer = new Synchronizer();
 
-    private final ItemStacksManager resources = new ItemStacksManager();
-    private final Map<UUID, ItemStacksManager> reservedResources = new HashMap<>();
+    private final ResourceLedger ledger = new ResourceLedger(synchronizer::syncItem);
+    private boolean dirty = false;
 
     public ServerResourceManager(MinecraftServer server) {
         final var reader = new ServerStartingInventoryReader(server);
         final var inventoryStartingSlots = reader.readStartingSlots();
         for(var slot : inventoryStartingSlots) {
-            resources.getStack(slot.item()).increaseBy(slot.amount());
+            ledger.add(Item.getRawId(slot.item()), slot.amount());
         }
     }
 
@@ -43,235 +54,262 @@ public class ServerResourceManager implements IServerResourceManager, ITickableM
 
     @Override
     public void setItemAmount(Item item, int amount) {
-        final var stack = resources.getStack(item);
-        stack.setAmount(amount);
-
-        synchronizer.syncItem(item, stack.getAmount());
+        ledger.setAmount(Item.getRawId(item), amount);
+        dirty = true;
     }
 
     @Override
     public void increaseItemAmount(Item item, int amount) {
-        final var stack = resources.getStack(item);
-        stack.increaseBy(amount);
-
-        synchronizer.syncItem(item, stack.getAmount());
+        ledger.add(Item.getRawId(item), amount);
+        dirty = true;
     }
 
     @Override
     public void reserveItems(UUID taskId, List<IItemInfo> infos) {
         if(!hasItems(infos)) throw new IllegalStateException("Not enough resources");
 
-        final var reservedItemsManager = this.getManagerFromTaskId(taskId);
-        final var infosToSync = new ArrayList<ItemInfo>();
-        for(IItemInfo info : infos) {
-            final var item = info.item();
-            final var requiredAmount = info.amount();
-            final var stack = resources.getStack(item);
-            final var reservedStack = reservedItemsManager.getStack(item);
-
-            var yetToFulfill = requiredAmount - stack.getAmount();
-
-            if(yetToFulfill>0) {
-                final var existingAmount = stack.getAmount();
-                stack.decreaseBy(existingAmount);
-                reservedStack.increaseBy(existingAmount);
-            } else {
-                stack.decreaseBy(requiredAmount);
-                reservedStack.increaseBy(requiredAmount);
-            }
-            infosToSync.add(new ItemInfo(item, stack.getAmount()));
-
-            if(yetToFulfill>0) {
-                final var similarItems = resources.getNonEmptySimilarStacks(item);
-                for(var similarStack : similarItems) {
-                    var newReservedStack = reservedItemsManager.getStack(similarStack.getItem());
-                    final var similarStackAmount = similarStack.getAmount();
-                    if(similarStackAmount >=yetToFulfill) {
-                        similarStack.decreaseBy(yetToFulfill);
-                        newReservedStack.increaseBy(yetToFulfill);
-                        yetToFulfill = 0;
-                    } else {
-                        yetToFulfill -= similarStackAmount;
-                        similarStack.decreaseBy(similarStackAmount);
-                        newReservedStack.increaseBy(similarStackAmount);
-                    }
-                    infosToSync.add(new ItemInfo(similarStack.getItem(), similarStack.getAmount()));
-                    if(yetToFulfill==0) break;
-                }
-            }
-        }
-
-        synchronizer.syncAll(infosToSync);
+        ledger.reserve(taskId, infos);
+        dirty = true;
     }
 
     @Override
     public void removeReservedItem(UUID taskId, Item item) {
-        boolean ignoreWhenNotEnough = false;
+        removeReservedItems(taskId, item, 1, false);
+    }
 
-        removeReservedItem(taskId, item, ignoreWhenNotEnough);
+    @Override
+    public void removeReservedItems(UUID taskId, List<IItemInfo> items) {
+        for(IItemInfo info : items) {
+            removeReservedItems(taskId, info.item(), info.amount(), false);
+        }
     }
 
-    private void removeReservedItem(UUID taskId, Item item, boolean ignoreWhenNotEnough) {
-        if(!(item instanceof BlockItem)) return;
-
-        final var reservedItemsManager = this.getManagerFromTaskId(taskId);
-        final var reservedStack = reservedItemsManager.getStack(item);
-        if(reservedStack.getAmount() >= 1) {
-            reservedStack.decrease();
-        } else {
-            final var nonEmptySimilarStacks = reservedItemsManager.getNonEmptySimilarStacks(item);
-            if(!nonEmptySimilarStacks.isEmpty()) {
-                final var similarStack = nonEmptySimilarStacks.get(0);
-                similarStack.decrease();
-            } else{
-                if(!ignoreWhenNotEnough) {
-                    LogManager.getLogger().warn("Tried to remove reserved item, but not enough items: " + item.getName().getContent());
-                }
-            }
+    private void removeReservedItems(UUID taskId, Item item, int amount, boolean ignoreWhenNotEnough) {
+        if(!(item instanceof BlockItem) || amount <= 0) return;
+
+        dirty = true;
+        final var notReserved = ledger.commit(taskId, item, amount);
+        if(notReserved > 0 && !ignoreWhenNotEnough) {
+            LogManager.getLogger().warn("Tried to remove reserved item, but not enough items: " + item.getName().getContent());
         }
     }
 
     @Override
     public void removeItemIfExists(UUID taskId, Item item) {
-        removeReservedItem(taskId, item, true);
+        removeReservedItems(taskId, item, 1, true);
+    }
+
+    @Override
+    public void removeItemsIfExist(UUID taskId, List<IItemInfo> items) {
+        for(IItemInfo info : items) {
+            removeReservedItems(taskId, info.item(), info.amount(), true);
+        }
     }
 
     public void removeItems(List<IItemInfo> items) {
         for(IItemInfo itemInfo:items) {
-            final var stack = resources.getStack(itemInfo.item());
-            if(stack.getAmount()<=0)return;
-            stack.decreaseBy(itemInfo.amount());
-            synchronizer.syncItem(itemInfo.item(), stack.getAmount());
+            final var rawId = Item.getRawId(itemInfo.item());
+            if(ledger.getAmount(rawId)<=0) continue;
+            ledger.remove(rawId, itemInfo.amount());
+            dirty = true;
         }
     }
 
     @Override
     public void returnReservedItems(UUID taskId) {
-        if(!reservedResources.containsKey(taskId)) return;
-        final var manager = this.getManagerFromTaskId(taskId);
-
-        final var infosToSync = new ArrayList<ItemInfo>();
-        for(ItemInfo info: manager.getAll()) {
-            final var item = info.item();
-            final var stack = this.resources.getStack(item);
-            final var amount = info.amount();
-            stack.increaseBy(amount);
-
-            final var infoToSync = new ItemInfo(item, stack.getAmount());
-            infosToSync.add(infoToSync);
+        if(ledger.rollback(taskId)) {
+            dirty = true;
         }
+    }
 
-        synchronizer.syncAll(infosToSync);
-        this.reservedResources.remove(taskId);
+    @Override
+    public Set<UUID> getTasksWithReservedItems() {
+        return ledger.getReservationIds();
     }
 
     @Override
     public void write(NbtCompound tag) {
         final var stacks = new NbtList();
-        for(ItemInfo info : resources.getAll()) {
-            final var item = info.item();
-            final var amount = info.amount();
-
+        for(Int2IntMap.Entry entry : Int2IntMaps.fastIterable(ledger.getAvailable())) {
             final var stack = new NbtCompound();
-            final var rawId = Item.getRawId(item);
-            stack.putInt("id", rawId);
-            stack.putInt("amount", amount);
+            // the raw ids could change after the restart
+            stack.putString("item", getItemId(entry.getIntKey()));
+            stack.putInt("amount", entry.getIntValue());
 
             stacks.add(stack);
         }
 
         tag.put("resources", stacks);
-//        this.resources.clear();
+
+        final var reserved = new NbtList();
+        for(UUID taskId : ledger.getReservationIds()) {
+            final var items = new NbtList();
+            final var amounts = new IntArrayList();
+            for(Int2IntMap.Entry entry : Int2IntMaps.fastIterable(ledger.getReserved(taskId))) {
+                if(entry.getIntValue() <= 0) continue;
+                items.add(NbtString.of(getItemId(entry.getIntKey())));
+                amounts.add(entry.getIntValue());
+            }
+            if(items.isEmpty()) continue;
+
+            final var reservedTag = new NbtCompound();
+            reservedTag.putUuid("taskId", taskId);
+            reservedTag.put("items", items);
+            reservedTag.putIntArray("amounts", amounts.toIntArray());
+            reserved.add(reservedTag);
+        }
+        tag.put("reservedResources", reserved);
     }
 
     @Override
     public void read(NbtCompound tag) {
         if(tag.contains("resources")) {
-            this.resources.clear();
+            this.ledger.clear();
             final var resourcesTags = tag.getList("resources", NbtList.COMPOUND_TYPE);
             final var size = resourcesTags.size();
             for(int i = 0; i < size; i++) {
                 final var resourceTag = resourcesTags.getCompound(i);
-                final var id = resourceTag.getInt("id");
+                // saves made before the items were written by their registry ids keep the raw ids
+                final var id = resourceTag.contains("item", NbtElement.STRING_TYPE) ?
+                        getRawId(resourceTag.getString("item"))
+                        :
+                        resourceTag.getInt("id");
+                if(id < 0) continue;
                 final var amount = resourceTag.getInt("amount");
-                final var item = Item.byRawId(id);
 
-                this.resources.getStack(item).increaseBy(amount);
+                this.ledger.add(id, amount);
+            }
+        }
+
+        this.ledger.clearReservations();
+        if(tag.contains("reservedResources")) {
+            final var reservedTags = tag.getList("reservedResources", NbtList.COMPOUND_TYPE);
+            for(int i = 0; i < reservedTags.size(); i++) {
+                final var reservedTag = reservedTags.getCompound(i);
+                final var items = reservedTag.getList("items", NbtElement.STRING_TYPE);
+                final var ids = new int[items.size()];
+                for (int j = 0; j < ids.length; j++) {
+                    ids[j] = getRawId(items.getString(j));
+                }
+                ledger.restoreReservation(
+                        reservedTag.getUuid("taskId"),
+                        ids,
+                        reservedTag.getIntArray("amounts")
+                );
             }
         }
     }
 
+    private static String getItemId(int rawId) {
+        return Registries.ITEM.getId(Item.byRawId(rawId)).toString();
+    }
+
+    // -1 for the items removed from the game since the save, they are dropped
+    private static int getRawId(String itemId) {
+        return Registries.ITEM
+                .getOrEmpty(Identifier.tryParse(itemId))
+                .map(Item::getRawId)
+                .orElse(-1);
+    }
+
     @Override
     public void tick(ServerPlayerEntity player) {
         synchronizer.sync(player);
     }
 
+    @Override
+    public boolean isDirty() {
+        return dirty;
+    }
+
+    @Override
+    public void markClean() {
+        dirty = false;
+    }
+
     @Override
     public List<ItemStack> getAllItems() {
-        return resources.getAll().stream()
-                .filter(info -> info.amount() > 0)
-                .map(it -> (ItemStack)new FortressItemStack(it.item(), it.amount()))
-                .toList();
+        final var items = new ArrayList<ItemStack>();
+        for(Int2IntMap.Entry entry : Int2IntMaps.fastIterable(ledger.getAvailable())) {
+            if(entry.getIntValue() <= 0) continue;
+            items.add(new FortressItemStack(Item.byRawId(entry.getIntKey()), entry.getIntValue()));
+        }
+        return items;
     }
 
     @Override
     public boolean hasItems(List<IItemInfo> infos) {
+        final var table = SimilarItemsHelper.getTable();
+        // the amounts required by every class and by every item, so each check below is O(1)
+        final var requiredByClass = new Int2IntOpenHashMap();
+        final var requiredByItem = new Int2IntOpenHashMap();
+        for(IItemInfo info : infos) {
+            final var classId = table.getClassId(info.item());
+            if(classId == SimilarItemsTable.NO_CLASS) continue;
+            requiredByClass.addTo(classId, info.amount());
+            requiredByItem.addTo(Item.getRawId(info.item()), info.amount());
+        }
+
         for(IItemInfo info : infos) {
             final var item = info.item();
             if(item == Items.FLINT_AND_STEEL || item == Items.WATER_BUCKET || item == Items.LAVA_BUCKET) continue;
             final var amount = info.amount();
-            final var stack = resources.getStack(item);
-            if(!stack.hasEnough(amount)) {
-                final var sumAmountOfSimilarItems = resources.getNonEmptySimilarStacks(item)
-                        .stream()
-                        .map(EasyItemStack::getAmount)
-                        .reduce(0, Integer::sum);
-
-                final var similarItemsSet = new HashSet<>(SimilarItemsHelper.getSimilarItems(item));
-                final var requiredSimilarItems = infos.stream()
-                        .filter(it -> similarItemsSet.contains(it.item()))
-                        .mapToInt(IItemInfo::amount)
-                        .sum();
-
-                if(sumAmountOfSimilarItems - requiredSimilarItems + stack.getAmount() < amount) return false;
+            final var stackAmount = ledger.getAmount(Item.getRawId(item));
+            if(stackAmount < amount) {
+                final var classId = table.getClassId(item);
+                if(classId == SimilarItemsTable.NO_CLASS) return false;
+
+                final var sumAmountOfSimilarItems = ledger.getSimilarItemsTotal(item) - Math.max(0, stackAmount);
+                final var requiredSimilarItems = requiredByClass.get(classId) - requiredByItem.get(Item.getRawId(item));
+
+                if(sumAmountOfSimilarItems - requiredSimilarItems + stackAmount < amount) return false;
             }
         }
         return true;
     }
     
-    private ItemStacksManager getManagerFromTaskId(UUID taskId) {
-        return reservedResources.computeIfAbsent(taskId, k -> new ItemStacksManager());
-    }
-
     public void syncAll() {
         this.synchronizer.reset();
-        this.synchronizer.syncAll(resources.getAll());
     }
 
-    private static class Synchronizer {
+    /**
+     * Collects the items changed during the tick and sends their final amounts once, so the packet
+     * grows with the number of distinct items changed and not with the number of changes.
+     * Every packet has the next version, the client asks for the snapshot once it notices a gap.
+     */
+    private class Synchronizer {
 
-        private final List<IItemInfo> infosToSync = new ArrayList<>();
+        private final IntSet changedItems = new IntLinkedOpenHashSet();
         private boolean needReset = false;
+        private int version = 0;
 
         void reset() {
-            this.infosToSync.clear();
+            this.changedItems.clear();
             this.needReset = true;
         }
 
         void sync(ServerPlayerEntity player) {
-            if(player == null || (infosToSync.isEmpty() && !needReset)) return;
-            final var packet = new ClientboundSyncItemsPacket(infosToSync, needReset);
+            if(player == null || (changedItems.isEmpty() && !needReset)) return;
+
+            final var infosToSync = new ArrayList<IItemInfo>();
+            if(needReset) {
+                for (Int2IntMap.Entry entry : Int2IntMaps.fastIterable(ledger.getAvailable())) {
+                    if(entry.getIntValue() != 0) infosToSync.add(new ItemInfo(Item.byRawId(entry.getIntKey()), entry.getIntValue()));
+                }
+            } else {
+                for (int rawId : changedItems) {
+                    infosToSync.add(new ItemInfo(Item.byRawId(rawId), ledger.getAmount(rawId)));
+                }
+            }
+
+            final var packet = new ClientboundSyncItemsPacket(++version, needReset, infosToSync);
             FortressServerNetworkHelper.send(player, FortressChannelNames.FORTRESS_RESOURCES_SYNC, packet);
-            infosToSync.clear();
+            changedItems.clear();
             this.needReset = false;
         }
 
-        void syncItem(Item item, int amount) {
-            infosToSync.add(new ItemInfo(item, amount));
-        }
-
-        void syncAll(List<ItemInfo> items) {
-            infosToSync.addAll(items);
+        void syncItem(int rawId) {
+            if(!needReset) changedItems.add(rawId);
         }
 
     }
@@ -0,0 +1,107 @@
+package org.minefortress.fortress.server;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import it.unimi.dsi.fastutil.longs.LongList;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import it.unimi.dsi.fastutil.objects.Object2IntMap;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.util.math.ChunkSectionPos;
+import net.minecraft.util.math.MathHelper;
+import org.minefortress.fortress.ServerFortressManager;
+
+import java.util.*;
+
+/**
+ * Chunk -> fortresses whose reach areas cover it, so the fortresses around a position are found with a few lookups.
+ * A fortress is re-indexed only when the version of its reach areas changes.
+ */
+final class FortressChunksIndex {
+
+    private final Long2ObjectOpenHashMap<List<UUID>> fortressesByChunk = new Long2ObjectOpenHashMap<>();
+    private final Map<UUID, LongList> chunksByFortress = new HashMap<>();
+    private final Object2IntMap<UUID> indexedVersions = new Object2IntOpenHashMap<>();
+
+    void refresh(Map<UUID, ServerFortressManager> managers) {
+        if(chunksByFortress.size() > managers.size() || !managers.keySet().containsAll(chunksByFortress.keySet())) {
+            for (UUID id : new ArrayList<>(chunksByFortress.keySet())) {
+                if(!managers.containsKey(id)) remove(id);
+            }
+        }
+
+        for (Map.Entry<UUID, ServerFortressManager> entry : managers.entrySet()) {
+            final var id = entry.getKey();
+            final var manager = entry.getValue();
+            final var version = manager.getReachAreasVersion();
+            if(chunksByFortress.containsKey(id) && indexedVersions.getInt(id) == version) continue;
+
+            remove(id);
+            add(id, manager);
+            indexedVersions.put(id, version);
+        }
+    }
+
+    // the fortresses whose reach areas cover the chunk of the position
+    List<UUID> getCandidates(BlockPos pos) {
+        final var key = ChunkPos.toLong(ChunkSectionPos.getSectionCoord(pos.getX()), ChunkSectionPos.getSectionCoord(pos.getZ()));
+        final var candidates = fortressesByChunk.get(key);
+        return candidates == null ? Collections.emptyList() : candidates;
+    }
+
+    // the fortresses whose reach areas are within the reach range of the position, or a bit further
+    List<UUID> getCandidates(BlockPos pos, double reachRange) {
+        final var minChunkX = ChunkSectionPos.getSectionCoord(MathHelper.floor(pos.getX() - reachRange));
+        final var minChunkZ = ChunkSectionPos.getSectionCoord(MathHelper.floor(pos.getZ() - reachRange));
+        final var maxChunkX = ChunkSectionPos.getSectionCoord(MathHelper.ceil(pos.getX() + reachRange));
+        final var maxChunkZ = ChunkSectionPos.getSectionCoord(MathHelper.ceil(pos.getZ() + reachRange));
+        if(minChunkX == maxChunkX && minChunkZ == maxChunkZ) return getCandidates(pos);
+
+        final var candidates = new ArrayList<UUID>();
+        for (int chunkX = minChunkX; chunkX <= maxChunkX; chunkX++) {
+            for (int chunkZ = minChunkZ; chunkZ <= maxChunkZ; chunkZ++) {
+                final var bucket = fortressesByChunk.get(ChunkPos.toLong(chunkX, chunkZ));
+                if(bucket == null) continue;
+                for (UUID id : bucket) {
+                    if(!candidates.contains(id)) candidates.add(id);
+                }
+            }
+        }
+        return candidates;
+    }
+
+    private void add(UUID id, ServerFortressManager manager) {
+        final var chunks = new LongOpenHashSet();
+        manager.forEachReachArea(area -> {
+            final var minChunkX = ChunkSectionPos.getSectionCoord(area.getMinX());
+            final var minChunkZ = ChunkSectionPos.getSectionCoord(area.getMinZ());
+            final var maxChunkX = ChunkSectionPos.getSectionCoord(area.getMaxX());
+            final var maxChunkZ = ChunkSectionPos.getSectionCoord(area.getMaxZ());
+            for (int chunkX = minChunkX; chunkX <= maxChunkX; chunkX++) {
+                for (int chunkZ = minChunkZ; chunkZ <= maxChunkZ; chunkZ++) {
+                    chunks.add(ChunkPos.toLong(chunkX, chunkZ));
+                }
+            }
+        });
+
+        final var chunksList = new LongArrayList(chunks);
+        for (long chunk : chunksList) {
+            fortressesByChunk.computeIfAbsent(chunk, it -> new ArrayList<>(1)).add(id);
+        }
+        chunksByFortress.put(id, chunksList);
+    }
+
+    private void remove(UUID id) {
+        indexedVersions.removeInt(id);
+        final var chunks = chunksByFortress.remove(id);
+        if(chunks == null) return;
+        for (long chunk : chunks) {
+            final var bucket = fortressesByChunk.get(chunk);
+            if(bucket == null) continue;
+            bucket.remove(id);
+            if(bucket.isEmpty()) fortressesByChunk.remove(chunk);
+        }
+    }
+
+}
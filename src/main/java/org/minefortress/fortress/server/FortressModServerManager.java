@@ -1,5 +1,6 @@
 package org.minefortress.fortress.server;
 
+import net.minecraft.block.BlockState;
 import net.minecraft.nbt.NbtCompound;
 import net.minecraft.server.MinecraftServer;
 import net.minecraft.server.PlayerManager;
@@ -19,14 +20,25 @@ import java.util.UUID;
 public class FortressModServerManager implements IFortressModServerManager {
 
     private static final String MANAGERS_FILE_NAME = "server-managers.nbt";
+    private static final int AUTOSAVE_INTERVAL_TICKS = 6000;
+    private static final int MAX_HOSTILE_EVALUATIONS_PER_TICK = 16;
     private final MinecraftServer server;
     private final Map<UUID, ServerFortressManager> serverManagers = new HashMap<>();
+    private final FortressTickScheduler tickScheduler = new FortressTickScheduler();
+    private final FortressChunksIndex chunksIndex = new FortressChunksIndex();
+    private final FortressesStorage storage;
+
+    private int ticksSinceAutosave = 0;
+    private int hostileEvaluationsThisTick = 0;
 
     private boolean campfireEnabled;
     private boolean borderEnabled;
+    // fortresses from the managers file, kept in it until they are written to their own files
+    private NbtCompound legacyFortresses = new NbtCompound();
 
     public FortressModServerManager(MinecraftServer server) {
         this.server = server;
+        this.storage = new FortressesStorage(server.session);
     }
 
     public IServerManagersProvider getManagersProvider(ServerPlayerEntity player) {
@@ -61,27 +73,35 @@ public class FortressModServerManager implements IFortressModServerManager {
     }
 
     public void tick(PlayerManager playerManager) {
-        for (Map.Entry<UUID, ServerFortressManager> entry : serverManagers.entrySet()) {
-            final var playerId = entry.getKey();
-            final var manager = entry.getValue();
-            final var player = playerManager.getPlayer(playerId);
-            manager.tick(player);
+        tickScheduler.tick(serverManagers, playerManager, server.getOverworld());
+        // the mobs tick before the next call, so they see the areas of this tick
+        chunksIndex.refresh(serverManagers);
+        hostileEvaluationsThisTick = 0;
+
+        if(++ticksSinceAutosave >= AUTOSAVE_INTERVAL_TICKS) {
+            ticksSinceAutosave = 0;
+            storage.saveDirty(serverManagers);
+        }
+    }
+
+    // only the fortresses covering the chunk can have buildings or special blocks there
+    public void onBlockChanged(BlockPos pos, BlockState state) {
+        for (UUID id : chunksIndex.getCandidates(pos)) {
+            final var manager = serverManagers.get(id);
+            if(manager != null) manager.onBlockChanged(pos, state);
         }
     }
 
     public void save() {
-        final var nbt = new NbtCompound();
-        for (Map.Entry<UUID, ServerFortressManager> entry : serverManagers.entrySet()) {
-            final var fortressNbt = new NbtCompound();
-            final var id = entry.getKey();
-            final var manager = entry.getValue();
-            manager.writeToNbt(fortressNbt);
-            nbt.put(id.toString(), fortressNbt);
+        storage.saveDirty(serverManagers);
+        if(storage.awaitPendingWrites()) {
+            legacyFortresses = new NbtCompound();
         }
 
+        // fortresses live in their own files, this one keeps only the global settings
+        final var nbt = legacyFortresses.copy();
         nbt.putBoolean("campfireEnabled", campfireEnabled);
         nbt.putBoolean("borderEnabled", borderEnabled);
-
         ModPathUtils.saveNbt(nbt, MANAGERS_FILE_NAME, server.session);
     }
 
@@ -91,6 +111,7 @@ public class FortressModServerManager implements IFortressModServerManager {
 
     public void load(boolean campfireEnabled, boolean borderEnabled) {
         final var nbtCompound = ModPathUtils.readNbt(MANAGERS_FILE_NAME, server.session);
+        legacyFortresses = new NbtCompound();
 
         boolean campfireEnabledSet = false;
         boolean borderEnabledSet = false;
@@ -108,14 +129,24 @@ public class FortressModServerManager implements IFortressModServerManager {
                 continue;
             }
 
+            // fortresses saved before the per-fortress files were introduced, they stay dirty to be moved to their own files
             final var managerNbt = nbtCompound.getCompound(key);
             final var masterPlayerId = UUID.fromString(key);
+            legacyFortresses.put(key, managerNbt);
             final var manager = new ServerFortressManager(server);
             manager.readFromNbt(managerNbt);
 
-            serverManagers.put(masterPlayerId, manager);
+            putManager(masterPlayerId, manager);
         }
 
+        storage.loadAll().forEach((masterPlayerId, managerNbt) -> {
+            final var manager = new ServerFortressManager(server);
+            manager.readFromNbt(managerNbt);
+            manager.markClean();
+
+            putManager(masterPlayerId, manager);
+        });
+
         if(!campfireEnabledSet) {
             this.campfireEnabled = campfireEnabled;
         }
@@ -124,19 +155,30 @@ public class FortressModServerManager implements IFortressModServerManager {
         }
     }
 
-    public Optional<IServerManagersProvider> findReachableFortress(BlockPos pos, double reachRange) {
-        for (ServerFortressManager manager : serverManagers.values()) {
-            final var fortressCenter = manager.getFortressCenter();
-            if(fortressCenter == null) continue;
-            final var villageRadius = manager.getVillageRadius();
+    private void putManager(UUID masterPlayerId, ServerFortressManager manager) {
+        final var previous = serverManagers.put(masterPlayerId, manager);
+        if(previous != null && previous != manager)
+            previous.markRemoved();
+    }
 
-            if(fortressCenter.isWithinDistance(pos, villageRadius + reachRange)) {
+    public Optional<IServerManagersProvider> findReachableFortress(BlockPos pos, double reachRange) {
+        for (UUID id : chunksIndex.getCandidates(pos, reachRange)) {
+            final var manager = serverManagers.get(id);
+            if(manager != null && manager.isReachableFrom(pos, reachRange)) {
                 return Optional.of(manager);
             }
         }
         return Optional.empty();
     }
 
+    // spreads the re-evaluations of the hostile mobs over the ticks
+    @Override
+    public boolean tryStartHostileEvaluation() {
+        if(hostileEvaluationsThisTick >= MAX_HOSTILE_EVALUATIONS_PER_TICK) return false;
+        hostileEvaluationsThisTick++;
+        return true;
+    }
+
     public boolean isCampfireEnabled() {
         return campfireEnabled;
     }
@@ -0,0 +1,64 @@
+package org.minefortress.fortress.server;
+
+import net.minecraft.server.PlayerManager;
+import net.minecraft.server.world.ServerWorld;
+import net.remmintan.mods.minefortress.core.ModLogger;
+import org.jetbrains.annotations.Nullable;
+import org.minefortress.fortress.HostilesSnapshot;
+import org.minefortress.fortress.ServerFortressManager;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class FortressTickScheduler {
+
+    private static final int THREATS_REFRESH_INTERVAL_TICKS = 10;
+
+    private static final ExecutorService workers;
+
+    static {
+        final var incrementer = new AtomicInteger(0);
+        final var threadsCount = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+        workers = Executors.newFixedThreadPool(threadsCount, r -> {
+            final var thread = new Thread(r, "MineFortress Tick Worker " + incrementer.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    private int ticks = 0;
+
+    public void tick(Map<UUID, ServerFortressManager> managers, PlayerManager playerManager, @Nullable ServerWorld world) {
+        if(world != null && !managers.isEmpty() && ticks++ % THREATS_REFRESH_INTERVAL_TICKS == 0) {
+            // one world query for all the fortresses, each of them picks its threats from it in parallel
+            prepare(managers.values(), HostilesSnapshot.take(world));
+        }
+
+        for (Map.Entry<UUID, ServerFortressManager> entry : managers.entrySet()) {
+            final var player = playerManager.getPlayer(entry.getKey());
+            entry.getValue().tick(player);
+        }
+    }
+
+    private static void prepare(Collection<ServerFortressManager> managers, HostilesSnapshot hostiles) {
+        if(managers.size() == 1) {
+            managers.iterator().next().prepareTick(hostiles);
+            return;
+        }
+
+        final var futures = new ArrayList<CompletableFuture<?>>(managers.size());
+        for (ServerFortressManager manager : managers) {
+            futures.add(CompletableFuture
+                    .runAsync(() -> manager.prepareTick(hostiles), workers)
+                    .exceptionally(e -> {
+                        ModLogger.LOGGER.error("Error while preparing fortress tick", e);
+                        return null;
+                    }));
+        }
+        CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).join();
+    }
+
+}
@@ -0,0 +1,83 @@
+package org.minefortress.fortress.server;
+
+import net.minecraft.nbt.NbtCompound;
+import net.minecraft.world.level.storage.LevelStorage;
+import net.remmintan.mods.minefortress.core.ModLogger;
+import net.remmintan.mods.minefortress.core.utils.ModPathUtils;
+import org.minefortress.fortress.ServerFortressManager;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+class FortressesStorage {
+
+    private static final String FORTRESSES_FOLDER = "fortresses";
+
+    // single thread keeps the writes of the same file in order
+    private static final ExecutorService saver = Executors.newSingleThreadExecutor(r -> {
+        final var thread = new Thread(r, "MineFortress Saver");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final LevelStorage.Session session;
+    private final List<CompletableFuture<Void>> pendingWrites = new ArrayList<>();
+    private final Queue<UUID> failedWrites = new ConcurrentLinkedQueue<>();
+
+    FortressesStorage(LevelStorage.Session session) {
+        this.session = session;
+    }
+
+    Map<UUID, NbtCompound> loadAll() {
+        final var fortresses = new HashMap<UUID, NbtCompound>();
+        ModPathUtils.readAllTagsByName(FORTRESSES_FOLDER, session).forEach((name, tag) -> {
+            try {
+                fortresses.put(UUID.fromString(name), tag);
+            } catch (IllegalArgumentException e) {
+                ModLogger.LOGGER.warn("Skipping unknown fortress file {}", name);
+            }
+        });
+        return fortresses;
+    }
+
+    void saveDirty(Map<UUID, ServerFortressManager> managers) {
+        pendingWrites.removeIf(CompletableFuture::isDone);
+        final var forced = new HashSet<UUID>();
+        for (UUID failed = failedWrites.poll(); failed != null; failed = failedWrites.poll()) {
+            forced.add(failed);
+        }
+
+        ModPathUtils.createFolder(FORTRESSES_FOLDER, session);
+        for (Map.Entry<UUID, ServerFortressManager> entry : managers.entrySet()) {
+            final var id = entry.getKey();
+            final var manager = entry.getValue();
+            if(!manager.isDirty() && !forced.contains(id)) continue;
+
+            // the snapshot is taken on the server thread, encoding and compression happen on the saver thread
+            final var tag = new NbtCompound();
+            manager.writeToNbt(tag);
+            manager.markClean();
+
+            final var file = ModPathUtils.getFile(FORTRESSES_FOLDER + "/" + id + ".nbt", session);
+            final var write = CompletableFuture
+                    .runAsync(() -> ModPathUtils.saveNbtAtomically(tag, file), saver)
+                    .exceptionally(e -> {
+                        ModLogger.LOGGER.error("Error while saving fortress " + id, e);
+                        failedWrites.add(id);
+                        return null;
+                    });
+            pendingWrites.add(write);
+        }
+    }
+
+    // returns false if some of the writes failed, those fortresses are saved again on the next save
+    boolean awaitPendingWrites() {
+        CompletableFuture.allOf(pendingWrites.toArray(CompletableFuture[]::new)).join();
+        pendingWrites.clear();
+        return failedWrites.isEmpty();
+    }
+
+}
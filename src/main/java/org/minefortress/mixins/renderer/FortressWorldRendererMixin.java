@@ -86,6 +86,7 @@ public abstract class FortressWorldRendererMixin  {
         final var selectionManager = provider.get_SelectionManager();
         final var immediate = this.bufferBuilders.getEntityVertexConsumers();
         final var vertexConsumer = immediate.getBuffer(RenderLayer.getLines());
+        fortressClient.get_BlueprintRenderer().renderPlaceholder(matrices, vertexConsumer, cameraPos.x, cameraPos.y, cameraPos.z);
         final var fcm = provider.get_ClientFortressManager();
         if (!selectionManager.isSelecting() && (fcm.getState() == FortressState.BUILD_EDITING || fcm.getState() == FortressState.BUILD_SELECTION)){
             final var target = client.crosshairTarget;
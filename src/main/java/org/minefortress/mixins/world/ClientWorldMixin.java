@@ -1,5 +1,6 @@
 package org.minefortress.mixins.world;
 
+import net.minecraft.block.BlockState;
 import net.minecraft.client.MinecraftClient;
 import net.minecraft.client.network.ClientPlayNetworkHandler;
 import net.minecraft.client.render.WorldRenderer;
@@ -7,6 +8,7 @@ import net.minecraft.client.world.ClientWorld;
 import net.minecraft.registry.DynamicRegistryManager;
 import net.minecraft.registry.RegistryKey;
 import net.minecraft.registry.entry.RegistryEntry;
+import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.profiler.Profiler;
 import net.minecraft.world.MutableWorldProperties;
 import net.minecraft.world.World;
@@ -14,6 +16,7 @@ import net.minecraft.world.dimension.DimensionType;
 import net.remmintan.mods.minefortress.core.interfaces.client.IClientManagersProvider;
 import net.remmintan.mods.minefortress.core.interfaces.tasks.IClientTasksHolder;
 import net.remmintan.mods.minefortress.core.interfaces.tasks.ITasksInformationHolder;
+import org.minefortress.interfaces.IFortressMinecraftClient;
 import org.minefortress.tasks.ClientTasksHolder;
 import org.spongepowered.asm.mixin.Final;
 import org.spongepowered.asm.mixin.Mixin;
@@ -45,6 +48,14 @@ public abstract class ClientWorldMixin extends World implements ITasksInformatio
         return tasksHolder;
     }
 
+    @Inject(method = "updateListeners", at = @At("HEAD"))
+    public void updateListeners(BlockPos pos, BlockState oldState, BlockState newState, int flags, CallbackInfo ci) {
+        if(client instanceof IFortressMinecraftClient fortressClient) {
+            final var tasksRenderer = fortressClient.get_TasksRenderer();
+            if(tasksRenderer != null) tasksRenderer.markBlockChanged(pos);
+        }
+    }
+
     @Inject(method = "tick", at = @At("TAIL"))
     public void tick(BooleanSupplier shouldKeepTicking, CallbackInfo ci) {
         if(shouldKeepTicking.getAsBoolean()) {
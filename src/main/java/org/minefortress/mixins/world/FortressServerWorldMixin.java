@@ -0,0 +1,25 @@
+package org.minefortress.mixins.world;
+
+import net.minecraft.block.BlockState;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.World;
+import net.remmintan.mods.minefortress.core.interfaces.server.IFortressServer;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+
+@Mixin(ServerWorld.class)
+public abstract class FortressServerWorldMixin {
+
+    @Inject(method = "onBlockChanged", at = @At("HEAD"))
+    public void onBlockChanged(BlockPos pos, BlockState oldBlock, BlockState newBlock, CallbackInfo ci) {
+        final var world = (ServerWorld)(Object)this;
+        if(world.getRegistryKey() != World.OVERWORLD) return;
+        if(world.getServer() instanceof IFortressServer fortressServer) {
+            fortressServer.get_FortressModServerManager().onBlockChanged(pos, newBlock);
+        }
+    }
+
+}
@@ -41,6 +41,7 @@ public final class ServerProfessionManager extends ProfessionManager implements
     private List<ProfessionFullInfo> professionsInfos;
     private String professionsTree;
     private boolean needsUpdate = false;
+    private boolean dirty = false;
 
     private final Map<ProfessionsHireTypes, ServerHireHandler> hireHandlers = new HashMap<>();
     private ServerHireHandler currentHireHandler;
@@ -178,11 +179,10 @@ public final class ServerProfessionManager extends ProfessionManager implements
             final String professionId = entry.getKey();
             final IProfession profession = entry.getValue();
             if(profession.cantVoluntaryRemoveFromThisProfession()) continue;
-            final List<IProfessional> pawnsWithProf = this.getPawnsWithProfession(professionId);
-            final int redundantProfCount = pawnsWithProf.size() - profession.getAmount();
+            final long redundantProfCount = this.countPawnsWithProfession(professionId) - profession.getAmount();
             if(redundantProfCount <= 0) continue;
 
-            pawnsWithProf
+            this.getPawnsWithProfession(professionId)
                     .stream()
                     .limit(redundantProfCount)
                     .forEach(IProfessional::resetProfession);
@@ -191,6 +191,7 @@ public final class ServerProfessionManager extends ProfessionManager implements
 
     public void scheduleSync() {
         needsUpdate = true;
+        dirty = true;
     }
 
     @Override
@@ -215,6 +216,16 @@ public final class ServerProfessionManager extends ProfessionManager implements
 
     }
 
+    @Override
+    public boolean isDirty() {
+        return dirty;
+    }
+
+    @Override
+    public void markClean() {
+        dirty = false;
+    }
+
     public Optional<String> getProfessionsWithAvailablePlaces(boolean professionRequiresReservation) {
         for(Map.Entry<String, IProfession> entry : getProfessions().entrySet()) {
             final String professionId = entry.getKey();
@@ -235,20 +246,13 @@ public final class ServerProfessionManager extends ProfessionManager implements
 
     private long countPawnsWithProfession(String professionId) {
         final var fortressServerManager = (ServerFortressManager) super.fortressManagerSupplier.get();
-        return fortressServerManager
-                .getProfessionals()
-                .stream()
-                .filter(colonist -> colonist.getProfessionId().equals(professionId))
-                .count();
+        return fortressServerManager.countPawnsWithProfession(professionId);
     }
 
     private List<IProfessional> getPawnsWithProfession(String professionId) {
         final ServerFortressManager serverFortressManager = (ServerFortressManager) super.fortressManagerSupplier.get();
-        return serverFortressManager
-                .getProfessionals()
-                .stream()
-                .filter(colonist -> colonist.getProfessionId().equals(professionId))
-                .collect(Collectors.toList());
+        // a copy, resetting the profession changes the index
+        return serverFortressManager.getPawnsWithProfession(professionId);
     }
 
 }
@@ -1,6 +1,7 @@
 package org.minefortress.registries.events;
 
 
+import net.fabricmc.fabric.api.client.event.lifecycle.v1.ClientChunkEvents;
 import net.fabricmc.fabric.api.client.event.lifecycle.v1.ClientTickEvents;
 import net.fabricmc.fabric.api.client.networking.v1.ClientPlayConnectionEvents;
 import net.fabricmc.fabric.api.event.player.AttackEntityCallback;
@@ -30,6 +31,10 @@ public class FortressClientEvents {
         ClientPlayConnectionEvents.DISCONNECT.register((handler, client) -> ModUtils.getFortressClientManager().reset());
         ClientTickEvents.START_CLIENT_TICK.register(FortressClientEvents::startClientTick);
         ClientTickEvents.END_CLIENT_TICK.register(FortressClientEvents::endClientTick);
+        ClientChunkEvents.CHUNK_LOAD.register((world, chunk) -> {
+            final var tasksRenderer = ((IFortressMinecraftClient) MinecraftClient.getInstance()).get_TasksRenderer();
+            if(tasksRenderer != null) tasksRenderer.markChunkChanged(chunk.getPos());
+        });
         ClientPlayConnectionEvents.JOIN.register(((handler, sender, client) -> {
             ItemGroups.updateDisplayContext(handler.getEnabledFeatures(), false, client.world.getRegistryManager());
             final var packet = new C2SRequestResourcesRefresh();
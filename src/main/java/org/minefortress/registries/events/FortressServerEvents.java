@@ -2,6 +2,7 @@ package org.minefortress.registries.events;
 
 
 import net.fabricmc.fabric.api.entity.event.v1.EntitySleepEvents;
+import net.fabricmc.fabric.api.event.lifecycle.v1.CommonLifecycleEvents;
 import net.fabricmc.fabric.api.event.lifecycle.v1.ServerLifecycleEvents;
 import net.fabricmc.fabric.api.event.lifecycle.v1.ServerTickEvents;
 import net.fabricmc.fabric.api.networking.v1.ServerPlayConnectionEvents;
@@ -10,6 +11,7 @@ import net.minecraft.util.math.Direction;
 import net.remmintan.mods.minefortress.core.interfaces.entities.player.FortressServerPlayerEntity;
 import net.remmintan.mods.minefortress.core.interfaces.server.IFortressServer;
 import org.minefortress.blueprints.world.BlueprintsWorld;
+import org.minefortress.fortress.resources.SimilarItemsHelper;
 import org.minefortress.interfaces.FortressWorldCreator;
 import org.minefortress.utils.ModUtils;
 
@@ -83,6 +85,9 @@ public class FortressServerEvents {
             }
         });
 
+        // fires on both sides, the similar items are defined by the tags
+        CommonLifecycleEvents.TAGS_LOADED.register((registries, client) -> SimilarItemsHelper.invalidate());
+
         ServerTickEvents.END_SERVER_TICK.register(server -> {
             if(server instanceof IFortressServer IFortressServer) {
                 IFortressServer.get_FortressModServerManager().tick(server.getPlayerManager());
@@ -3,23 +3,23 @@ package org.minefortress.renderer;
 import com.mojang.blaze3d.systems.RenderSystem;
 import net.minecraft.client.MinecraftClient;
 import net.minecraft.client.render.GameRenderer;
-import net.minecraft.util.math.Vec2f;
 import net.minecraft.util.math.Vec3d;
 import net.remmintan.mods.minefortress.core.utils.GlobalProjectionCache;
 import org.jetbrains.annotations.NotNull;
 import org.joml.Matrix4f;
 import org.joml.Vector3f;
-import org.lwjgl.system.MemoryUtil;
+import org.joml.Vector4f;
 import org.minefortress.interfaces.FortressGameRenderer;
 
-import java.nio.FloatBuffer;
-import java.nio.IntBuffer;
-import java.util.HashMap;
-import java.util.Map;
-import java.util.Set;
-
 public class CameraTools {
 
+    // used only from the render thread, reused to avoid allocating on every mouse move
+    private static final Matrix4f modelViewMatrix = new Matrix4f();
+    private static final Matrix4f viewProjectionMatrix = new Matrix4f();
+    private static final Vector4f clipPos = new Vector4f();
+    private static final Vector3f unprojectedPos = new Vector3f();
+    private static final int[] viewport = new int[4];
+
     private static Vec3d mouseBasedViewVector;
 
     public static Vec3d getMouseBasedViewVector(MinecraftClient minecraft, double xpos, double ypos) {
@@ -30,90 +30,55 @@ public class CameraTools {
         return mouseBasedViewVector;
     }
 
-    public static Map<Vec2f, Vec3d> projectToScreenSpace(Set<Vec3d> positions, MinecraftClient minecraft) {
-        final var winWidth = minecraft.getWindow().getWidth();
-        final var winHeight = minecraft.getWindow().getHeight();
-        final var modelViewBuffer = getModelViewMatrix(minecraft, true);
-        final var projectionBuffer = getProjectionMatrix(minecraft);
-        final var viewport = getViewport(winWidth, winHeight);
-        final var resultingViewBuffer = MemoryUtil.memAllocFloat(3);
-
-        Map<Vec2f, Vec3d> screenPositions = new HashMap<>();
-
-        for (Vec3d position : positions) {
-            resultingViewBuffer.position(0);
-            GLU.gluProject((float) position.x, (float) position.y, (float) position.z, modelViewBuffer, projectionBuffer, viewport, resultingViewBuffer);
-            screenPositions.put(new Vec2f(resultingViewBuffer.get(0) , winHeight-resultingViewBuffer.get(1)), position);
-        }
+    /**
+     * Prepares the matrices for {@link #projectToScreenSpace(double, double, double, float[], int)}.
+     * Must be called again once the camera has moved.
+     */
+    public static void prepareScreenProjection(MinecraftClient minecraft) {
+        updateViewProjectionMatrix(minecraft, true);
+    }
 
-        return screenPositions;
+    /**
+     * Writes the window coordinates (from the top left corner) of the position to the array.
+     * Returns false and writes nothing if the position is behind the camera.
+     */
+    public static boolean projectToScreenSpace(double x, double y, double z, float[] screenPositions, int offset) {
+        clipPos.set((float) x, (float) y, (float) z, 1f);
+        viewProjectionMatrix.transform(clipPos);
+        if(clipPos.w <= 0) return false;
+
+        final var ndcX = clipPos.x / clipPos.w;
+        final var ndcY = clipPos.y / clipPos.w;
+        screenPositions[offset] = (ndcX * 0.5f + 0.5f) * viewport[2];
+        screenPositions[offset + 1] = viewport[3] - (ndcY * 0.5f + 0.5f) * viewport[3];
+        return true;
     }
 
     private static Vec3d getMouseBasedViewVector(double xpos, double ypos, MinecraftClient minecraft) {
-        int winWidth = minecraft.getWindow().getWidth();
-        int winHeight = minecraft.getWindow().getHeight();
-
-        FloatBuffer resultingViewBuffer = MemoryUtil.memAllocFloat(3);
-        resultingViewBuffer.position(0);
-        FloatBuffer modelViewBuffer = getModelViewMatrix(minecraft, false);
-        FloatBuffer projectionBuffer = getProjectionMatrix(minecraft);
-        IntBuffer viewport = getViewport(winWidth, winHeight);
+        updateViewProjectionMatrix(minecraft, false);
+        final int winHeight = viewport[3];
 
-        GLU.gluUnProject((float) xpos, (float)(winHeight - ypos) , 1.0f, modelViewBuffer, projectionBuffer, viewport, resultingViewBuffer);
-
-        return calculateResultingVector(resultingViewBuffer);
-    }
-
-    private static IntBuffer getViewport(int winWidth, int winHeight) {
-        IntBuffer viewport = MemoryUtil.memAllocInt(4);
-        viewport.position(0);
-        viewport.put(0);
-        viewport.put(0);
-        viewport.put(winWidth);
-        viewport.put(winHeight);
-        viewport.rewind();
-        return viewport;
+        viewProjectionMatrix.unproject((float) xpos, (float)(winHeight - ypos), 1.0f, viewport, unprojectedPos);
+        unprojectedPos.normalize();
+        return new Vec3d(unprojectedPos);
     }
 
-    private static Vec3d calculateResultingVector(FloatBuffer resultingViewBuffer) {
-        Vector3f resultingViewVector = new Vector3f(resultingViewBuffer.get(0), resultingViewBuffer.get(1), resultingViewBuffer.get(2));
-        resultingViewVector.normalize();
-        return new Vec3d(resultingViewVector);
-    }
+    private static void updateViewProjectionMatrix(MinecraftClient minecraft, boolean translateToPlayer) {
+        viewport[2] = minecraft.getWindow().getWidth();
+        viewport[3] = minecraft.getWindow().getHeight();
 
-    private static FloatBuffer getModelViewMatrix(MinecraftClient minecraft, boolean translateToPlayer) {
-        final var modelViewMatrix = new Matrix4f(RenderSystem.getModelViewMatrix());
+        modelViewMatrix.set(RenderSystem.getModelViewMatrix());
         final var player = minecraft.player;
         if(player != null) {
-            final var xRads = (float) Math.toRadians(player.getPitch());
-            modelViewMatrix.rotate(xRads, new Vector3f(1, 0,0));
-            final float yRads = (float) Math.toRadians(player.getYaw() + 180f);
-            modelViewMatrix.rotate(yRads, new Vector3f(0, 1,0));
+            modelViewMatrix.rotateX((float) Math.toRadians(player.getPitch()));
+            modelViewMatrix.rotateY((float) Math.toRadians(player.getYaw() + 180f));
 
             if(translateToPlayer) {
-                final var offset = new Vector3f(
-                        (float) -player.getX(),
-                        (float) -player.getY(),
-                        (float) -player.getZ()
-                );
-                modelViewMatrix.translate(offset);
+                modelViewMatrix.translate((float) -player.getX(), (float) -player.getY(), (float) -player.getZ());
             }
         }
-        FloatBuffer modelViewBuffer = MemoryUtil.memAllocFloat(16);
-        modelViewBuffer.position(0);
-        modelViewMatrix.get(modelViewBuffer);
-
-        modelViewBuffer.rewind();
-        return modelViewBuffer;
-    }
 
-    private  static FloatBuffer getProjectionMatrix(MinecraftClient minecraft) {
-        Matrix4f projectionMatrix = getProjectionMatrix4f(minecraft);
-        FloatBuffer projectionBuffer = MemoryUtil.memAllocFloat(16);
-        projectionBuffer.position(0);
-        projectionMatrix.get(projectionBuffer);
-        projectionBuffer.rewind();
-        return projectionBuffer;
+        getProjectionMatrix4f(minecraft).mul(modelViewMatrix, viewProjectionMatrix);
     }
 
     @NotNull
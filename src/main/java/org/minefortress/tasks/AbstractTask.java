@@ -4,21 +4,23 @@ import com.mojang.datafixers.util.Pair;
 import net.minecraft.block.Block;
 import net.minecraft.block.BlockState;
 import net.minecraft.item.Item;
+import net.minecraft.nbt.NbtCompound;
 import net.minecraft.server.network.ServerPlayerEntity;
 import net.minecraft.util.math.BlockPos;
-import net.minecraft.util.math.Vec3i;
 import net.remmintan.mods.minefortress.core.TaskType;
 import net.remmintan.mods.minefortress.core.dtos.tasks.TaskInformationDto;
+import net.remmintan.mods.minefortress.core.dtos.tasks.TaskShape;
 import net.remmintan.mods.minefortress.core.interfaces.entities.pawns.IWorkerPawn;
 import net.remmintan.mods.minefortress.core.interfaces.tasks.ITask;
 import net.remmintan.mods.minefortress.core.interfaces.tasks.ITaskPart;
-import net.remmintan.mods.minefortress.core.utils.PathUtils;
 import net.remmintan.mods.minefortress.networking.helpers.FortressChannelNames;
 import net.remmintan.mods.minefortress.networking.helpers.FortressServerNetworkHelper;
 import net.remmintan.mods.minefortress.networking.s2c.ClientboundTaskExecutedPacket;
 
 import java.util.*;
 
+import static net.remmintan.mods.minefortress.core.ModLogger.LOGGER;
+
 public abstract class AbstractTask implements ITask {
 
     protected static final int PART_SIZE = 3;
@@ -29,12 +31,18 @@ public abstract class AbstractTask implements ITask {
     protected BlockPos startingBlock;
     protected BlockPos endingBlock;
 
-    protected final Queue<Pair<BlockPos, BlockPos>> parts = new ArrayDeque<>();
+    protected final TaskPartsQueue parts = new TaskPartsQueue();
 
     protected int totalParts;
     private int completedParts;
 
+    // the last part of every worker, the next one is searched around it so the workers stay in their own areas
+    private final Map<IWorkerPawn, BlockPos> workerAnchors = new HashMap<>();
+    private double dispatchedWalkDistance;
+    private int dispatchedParts;
+
     private final List<Runnable> taskFinishListeners = new ArrayList<>();
+    private final List<Runnable> progressListeners = new ArrayList<>();
 
     protected boolean canceled = false;
 
@@ -72,40 +80,48 @@ public abstract class AbstractTask implements ITask {
     @Override
     public void returnPart(Pair<BlockPos, BlockPos> part) {
         parts.add(part);
+        progressListeners.forEach(Runnable::run);
+    }
+
+    /**
+     * Takes the free part closest to the worker's previous part, or to the worker itself for the first one.
+     * Once the worker's area is done it gets the closest part left anywhere, including the parts returned by the others.
+     */
+    protected Pair<BlockPos, BlockPos> takeNearestPart(IWorkerPawn worker) {
+        final var workerPos = worker.getBlockPos();
+        final var part = parts.pollNearest(workerAnchors.getOrDefault(worker, workerPos));
+        if(part != null) {
+            workerAnchors.put(worker, part.getFirst());
+            dispatchedWalkDistance += Math.sqrt(TaskPartsQueue.squaredHorizontalDistance(part, workerPos));
+            dispatchedParts++;
+            progressListeners.forEach(Runnable::run);
+        }
+        return part;
+    }
+
+    public double getAverageWalkDistance() {
+        return dispatchedParts == 0 ? 0 : dispatchedWalkDistance / dispatchedParts;
     }
 
     @Override
     public void prepareTask() {
-        BlockPos.Mutable cursor = this.startingBlock.mutableCopy();
-        final Vec3i direction = PathUtils.getDirection(startingBlock, endingBlock);
-        do {
-            BlockPos start = cursor.toImmutable();
-            BlockPos end = createPartEnd(start, direction);
-            parts.add(Pair.of(start, end));
-
-            if(end.getX() * direction.getX() >= endingBlock.getX() * direction.getX()) {
-                if (end.getZ() * direction.getZ() >= endingBlock.getZ() * direction.getZ()) {
-                    break;
-                } else {
-                    cursor.setX(startingBlock.getX());
-                    cursor.move(0, 0, PART_SIZE * direction.getZ());
-                }
-            } else {
-                cursor.move(direction.getX() * PART_SIZE, 0, 0);
-            }
-        } while (true);
-
+        // the parts are produced lazily while the workers are taking them
+        parts.setArea(startingBlock, endingBlock, PART_SIZE);
         this.totalParts = parts.size();
     }
 
     @Override
     public void finishPart(ITaskPart part, IWorkerPawn worker) {
+        parts.finish(part.getStartAndEnd());
         completedParts++;
+        progressListeners.forEach(Runnable::run);
         if(completedParts > totalParts) {
             throw new IllegalStateException("Completed parts cannot be greater than total parts");
         }
 
         if(parts.isEmpty() && totalParts <= completedParts) {
+            LOGGER.debug("Task {} finished, {} parts dispatched, average walk distance {}", id, dispatchedParts, getAverageWalkDistance());
+            workerAnchors.clear();
             worker.getMasterPlayer().ifPresent(this::sendFinishTaskNotificationToPlayer);
             taskFinishListeners.forEach(Runnable::run);
         }
@@ -119,6 +135,7 @@ public abstract class AbstractTask implements ITask {
     @Override
     public void cancel() {
         canceled = true;
+        workerAnchors.clear();
     }
 
     @Override
@@ -128,9 +145,23 @@ public abstract class AbstractTask implements ITask {
 
     @Override
     public List<TaskInformationDto> toTaskInformationDto() {
-        final var blocks = new ArrayList<BlockPos>();
-        BlockPos.iterate(startingBlock, endingBlock).forEach(it -> blocks.add(it.toImmutable()));
-        return Collections.singletonList(new TaskInformationDto(id, blocks, taskType));
+        final var shape = new TaskShape.Box(startingBlock, endingBlock);
+        return Collections.singletonList(new TaskInformationDto(id, shape, taskType));
+    }
+
+    public void writeToNbt(NbtCompound tag) {
+        tag.putUuid("id", id);
+        tag.putString("taskType", taskType.name());
+        tag.putLong("start", startingBlock.asLong());
+        tag.putLong("end", endingBlock.asLong());
+        tag.putInt("totalParts", totalParts);
+        tag.put("parts", parts.toNbt());
+    }
+
+    protected void readParts(NbtCompound tag) {
+        parts.readNbt(tag.getCompound("parts"));
+        this.totalParts = tag.getInt("totalParts");
+        this.completedParts = Math.max(0, totalParts - parts.size());
     }
 
     protected void sendFinishTaskNotificationToPlayer(ServerPlayerEntity randomPlayer) {
@@ -141,6 +172,11 @@ public abstract class AbstractTask implements ITask {
         taskFinishListeners.add(listener);
     }
 
+    @Override
+    public void addProgressListener(Runnable listener) {
+        progressListeners.add(listener);
+    }
+
     protected int getCompletedParts() {
         return completedParts;
     }
@@ -150,17 +186,4 @@ public abstract class AbstractTask implements ITask {
         return block.asItem();
     }
 
-    private BlockPos createPartEnd(BlockPos start, Vec3i direction) {
-        BlockPos.Mutable cursor = start.mutableCopy();
-        cursor.setY(endingBlock.getY());
-        cursor.move((PART_SIZE-1) * direction.getX(), 0, (PART_SIZE-1)*direction.getZ());
-        if(cursor.getX() * direction.getX() > endingBlock.getX() * direction.getX()) {
-            cursor.setX(endingBlock.getX());
-        }
-        if(cursor.getZ() * direction.getZ() > endingBlock.getZ() * direction.getZ()) {
-            cursor.setZ(endingBlock.getZ());
-        }
-        return cursor.toImmutable();
-    }
-
 }
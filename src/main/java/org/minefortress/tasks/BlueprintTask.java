@@ -1,6 +1,9 @@
 package org.minefortress.tasks;
 
 import com.mojang.datafixers.util.Pair;
+import it.unimi.dsi.fastutil.objects.Object2IntMap;
+import it.unimi.dsi.fastutil.objects.Object2IntMaps;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
 import net.minecraft.block.BedBlock;
 import net.minecraft.block.Block;
 import net.minecraft.block.BlockState;
@@ -8,12 +11,18 @@ import net.minecraft.block.Blocks;
 import net.minecraft.block.enums.BedPart;
 import net.minecraft.item.Item;
 import net.minecraft.registry.tag.BlockTags;
+import net.minecraft.nbt.NbtCompound;
 import net.minecraft.server.world.ServerWorld;
+import net.minecraft.util.BlockRotation;
 import net.minecraft.util.math.BlockPos;
 import net.remmintan.mods.minefortress.core.TaskType;
 import net.remmintan.mods.minefortress.core.dtos.tasks.TaskInformationDto;
+import net.remmintan.mods.minefortress.core.interfaces.blueprints.BlueprintDataLayer;
+import net.remmintan.mods.minefortress.core.interfaces.blueprints.IStructureBlockData;
+import net.remmintan.mods.minefortress.core.interfaces.blueprints.IStructureLayer;
 import net.remmintan.mods.minefortress.core.interfaces.entities.pawns.IFortressAwareEntity;
 import net.remmintan.mods.minefortress.core.interfaces.entities.pawns.IWorkerPawn;
+import net.remmintan.mods.minefortress.core.interfaces.resources.IItemInfo;
 import net.remmintan.mods.minefortress.core.interfaces.tasks.ITaskBlockInfo;
 import net.remmintan.mods.minefortress.core.interfaces.tasks.ITaskPart;
 import org.jetbrains.annotations.NotNull;
@@ -25,9 +34,10 @@ import java.util.*;
 
 public class BlueprintTask extends AbstractTask {
 
-    private final Map<BlockPos, BlockState> blueprintData;
-    private final Map<BlockPos, BlockState> blueprintEntityData;
-    private final Map<BlockPos, BlockState> blueprintAutomaticData;
+    private IStructureLayer blueprintData;
+    private IStructureLayer blueprintEntityData;
+    private IStructureLayer blueprintAutomaticData;
+    private final BlockRotation rotation;
     private final int floorLevel;
     private final String requirementId;
     private final String blueprintId;
@@ -36,9 +46,10 @@ public class BlueprintTask extends AbstractTask {
             UUID id,
             BlockPos startingPos,
             BlockPos endingPos,
-            Map<BlockPos, BlockState> blueprintData,
-            Map<BlockPos, BlockState> blueprintEntityData,
-            Map<BlockPos, BlockState> blueprintAutomaticData,
+            IStructureLayer blueprintData,
+            IStructureLayer blueprintEntityData,
+            IStructureLayer blueprintAutomaticData,
+            BlockRotation rotation,
             int floorLevel,
             String requirementId,
             @NotNull String blueprintId
@@ -47,30 +58,91 @@ public class BlueprintTask extends AbstractTask {
         this.blueprintData = blueprintData;
         this.blueprintEntityData = blueprintEntityData;
         this.blueprintAutomaticData = blueprintAutomaticData;
+        this.rotation = rotation;
         this.floorLevel = floorLevel;
         this.requirementId = requirementId;
         this.blueprintId = blueprintId;
     }
 
+    // the layers are not saved, they are set again from the blueprint once the task is resumed
+    public static BlueprintTask fromNbt(NbtCompound tag) {
+        final var task = new BlueprintTask(
+                tag.getUuid("id"),
+                BlockPos.fromLong(tag.getLong("start")),
+                BlockPos.fromLong(tag.getLong("end")),
+                null,
+                null,
+                null,
+                BlockRotation.valueOf(tag.getString("rotation")),
+                tag.getInt("floorLevel"),
+                tag.getString("requirementId"),
+                tag.getString("blueprintId")
+        );
+        task.readParts(tag);
+        return task;
+    }
+
+    @Override
+    public void writeToNbt(NbtCompound tag) {
+        super.writeToNbt(tag);
+        tag.putString("blueprintId", blueprintId);
+        tag.putString("requirementId", requirementId);
+        tag.putString("rotation", rotation.name());
+        tag.putInt("floorLevel", floorLevel);
+    }
+
+    public boolean hasBlockData() {
+        return blueprintData != null;
+    }
+
+    public void setBlockData(IStructureBlockData blockData) {
+        this.blueprintData = blockData.getStructureLayer(BlueprintDataLayer.MANUAL);
+        this.blueprintEntityData = blockData.getStructureLayer(BlueprintDataLayer.AUTOMATIC);
+        this.blueprintAutomaticData = blockData.getStructureLayer(BlueprintDataLayer.ENTITY);
+    }
+
+    public String getBlueprintId() {
+        return blueprintId;
+    }
+
+    public BlockRotation getRotation() {
+        return rotation;
+    }
+
+    public int getFloorLevel() {
+        return floorLevel;
+    }
+
+    @Override
+    public boolean hasAvailableParts() {
+        return hasBlockData() && super.hasAvailableParts();
+    }
+
     @Override
     public ITaskPart getNextPart(IWorkerPawn colonist) {
-        final Pair<BlockPos, BlockPos> partStartAndEnd = parts.poll();
+        final Pair<BlockPos, BlockPos> partStartAndEnd = takeNearestPart(colonist);
         List<ITaskBlockInfo> blockInfos = getTaskBlockInfos(partStartAndEnd);
         return new TaskPart(partStartAndEnd, blockInfos, this);
     }
 
     @NotNull
-    private List<ITaskBlockInfo> getTaskBlockInfos(Pair<BlockPos, BlockPos> partStartAndEnd) {
+    List<ITaskBlockInfo> getTaskBlockInfos(Pair<BlockPos, BlockPos> partStartAndEnd) {
         final BlockPos start = partStartAndEnd.getFirst();
-        final BlockPos delta = start.subtract(startingBlock);
-        final Iterable<BlockPos> allPositionsInPart = BlockPos.iterate(start, partStartAndEnd.getSecond());
+        final BlockPos end = partStartAndEnd.getSecond();
 
         List<ITaskBlockInfo> blockInfos = new ArrayList<>();
-        for (BlockPos pos : allPositionsInPart) {
-            final BlockState state = blueprintData.getOrDefault(pos.subtract(start).add(delta), pos.subtract(start).add(delta).getY()<floorLevel?Blocks.DIRT.getDefaultState():Blocks.AIR.getDefaultState());
-            if(state.isAir()) continue;
-            final BlockStateTaskBlockInfo blockStateTaskBlockInfo = new BlockStateTaskBlockInfo(getItemFromState(state), pos.toImmutable(), state);
-            blockInfos.add(blockStateTaskBlockInfo);
+        for (int z = start.getZ(); z <= end.getZ(); z++) {
+            for (int y = start.getY(); y <= end.getY(); y++) {
+                for (int x = start.getX(); x <= end.getX(); x++) {
+                    final int relativeY = y - startingBlock.getY();
+                    BlockState state = blueprintData.getBlockState(x - startingBlock.getX(), relativeY, z - startingBlock.getZ());
+                    if(state == null)
+                        state = relativeY < floorLevel ? Blocks.DIRT.getDefaultState() : Blocks.AIR.getDefaultState();
+                    if(state.isAir()) continue;
+                    final BlockStateTaskBlockInfo blockStateTaskBlockInfo = new BlockStateTaskBlockInfo(getItemFromState(state), new BlockPos(x, y, z), state);
+                    blockInfos.add(blockStateTaskBlockInfo);
+                }
+            }
         }
         return blockInfos;
     }
@@ -79,32 +151,34 @@ public class BlueprintTask extends AbstractTask {
     public void finishPart(ITaskPart part, IWorkerPawn worker) {
         final ServerWorld world = worker.getServerWorld();
         if(parts.isEmpty() && getCompletedParts()+1 >= totalParts) {
+            // the placed items are committed once per item instead of once per block
+            final var usedItems = new Object2IntOpenHashMap<Item>();
             if(blueprintEntityData != null) {
-                blueprintEntityData.forEach((pos, state) -> {
-                    final var realPos = pos.add(startingBlock);
+                blueprintEntityData.forEach((x, y, z, state) -> {
+                    final var realPos = startingBlock.add(x, y, z);
                     world.setBlockState(realPos, state, 3);
-                    final var item = state.getBlock().asItem();
-                    removeReservedItem(worker, item);
+                    usedItems.addTo(state.getBlock().asItem(), 1);
                     addSpecialBlueprintBlock(worker, state.getBlock(), realPos);
                 });
             }
 
             if(blueprintAutomaticData != null) {
                 blueprintAutomaticData
-                    .forEach((pos, state) -> {
-                        final var realpos = pos.add(startingBlock);
+                    .forEach((x, y, z, state) -> {
+                        final var realpos = startingBlock.add(x, y, z);
                         world.setBlockState(realpos, state, 3);
 
                         addSpecialBlueprintBlock(worker, state.getBlock(), realpos);
                         if(!state.isIn(BlockTags.BEDS) || state.get(BedBlock.PART) != BedPart.FOOT) {
-                            removeReservedItem(worker, state.getBlock().asItem());
+                            usedItems.addTo(state.getBlock().asItem(), 1);
                         }
                     });
             }
+            removeReservedItems(worker, usedItems);
 
-            final var mergeBlockData = new HashMap<>(blueprintData);
-            if(blueprintEntityData != null) mergeBlockData.putAll(blueprintEntityData);
-            if(blueprintAutomaticData != null) mergeBlockData.putAll(blueprintAutomaticData);
+            final var mergeBlockData = new HashMap<>(blueprintData.asMap());
+            if(blueprintEntityData != null) mergeBlockData.putAll(blueprintEntityData.asMap());
+            if(blueprintAutomaticData != null) mergeBlockData.putAll(blueprintAutomaticData.asMap());
 
             final FortressBuilding fortressBuilding = new FortressBuilding(
                     UUID.randomUUID(),
@@ -130,28 +204,44 @@ public class BlueprintTask extends AbstractTask {
         colonist.getServerFortressManager().orElseThrow().addSpecialBlocks(block, pos, true);
     }
 
-    private void removeReservedItem(IFortressAwareEntity colonist, Item item) {
+    private void removeReservedItems(IFortressAwareEntity colonist, Object2IntMap<Item> items) {
+        if(items.isEmpty()) return;
         final var provider = colonist.getManagersProvider().orElseThrow();
         final var manager = colonist.getServerFortressManager().orElseThrow();
         if(manager.isSurvival()) {
-            final var resourceManager = provider
-                    .getResourceManager();
-            if (SimilarItemsHelper.isIgnorable(item)) {
-                resourceManager
-                        .removeItemIfExists(this.getId(), item);
-            } else {
-                resourceManager
-                        .removeReservedItem(this.getId(), item);
+            final var resourceManager = provider.getResourceManager();
+            final var reserved = new ArrayList<IItemInfo>();
+            final var ignorable = new ArrayList<IItemInfo>();
+            for (Object2IntMap.Entry<Item> entry : Object2IntMaps.fastIterable(items)) {
+                final var item = entry.getKey();
+                final var info = resourceManager.createItemInfo(item, entry.getIntValue());
+                if (SimilarItemsHelper.isIgnorable(item)) {
+                    ignorable.add(info);
+                } else {
+                    reserved.add(info);
+                }
             }
+            resourceManager.removeItemsIfExist(this.getId(), ignorable);
+            resourceManager.removeReservedItems(this.getId(), reserved);
         }
     }
 
     @Override
     public List<TaskInformationDto> toTaskInformationDto() {
-        Set<BlockPos> allBlocks = new HashSet<>(blueprintData.keySet());
-        if(blueprintEntityData != null) allBlocks.addAll(blueprintEntityData.keySet());
-        if(blueprintAutomaticData != null) allBlocks.addAll(blueprintAutomaticData.keySet());
-        final var positions = allBlocks.stream().map(it -> it.add(startingBlock)).toList();
+        if(!hasBlockData()) return super.toTaskInformationDto();
+        // the layers share the blueprint size, the manual layer repeats the positions of the entity blocks
+        final var size = blueprintData.getSize();
+        final var added = new BitSet(size.getX() * size.getY() * size.getZ());
+        final var positions = new ArrayList<BlockPos>(blueprintData.size());
+        final IStructureLayer.BlockConsumer collector = (x, y, z, state) -> {
+            final var index = x + (z + y * size.getZ()) * size.getX();
+            if(added.get(index)) return;
+            added.set(index);
+            positions.add(startingBlock.add(x, y, z));
+        };
+        blueprintData.forEach(collector);
+        if(blueprintEntityData != null) blueprintEntityData.forEach(collector);
+        if(blueprintAutomaticData != null) blueprintAutomaticData.forEach(collector);
         return List.of(new TaskInformationDto(id, positions, taskType));
     }
 }
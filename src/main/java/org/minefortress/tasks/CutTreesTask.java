@@ -1,6 +1,7 @@
 package org.minefortress.tasks;
 
 import com.mojang.datafixers.util.Pair;
+import net.minecraft.nbt.NbtCompound;
 import net.minecraft.server.world.ServerWorld;
 import net.minecraft.util.math.BlockPos;
 import net.remmintan.gobi.helpers.TreeBlocks;
@@ -22,11 +23,13 @@ public class CutTreesTask implements ITask {
 
     private final UUID uuid;
     private final Queue<BlockPos> treeRoots;
+    private final Set<BlockPos> rootsInProgress = new HashSet<>();
     private final int totalRootCount;
 
     private int removedRoots = 0;
     private boolean canceled = false;
     private final List<BlockPos> positions;
+    private final List<Runnable> progressListeners = new ArrayList<>();
 
     public CutTreesTask(UUID uuid, List<BlockPos> treeRoots, List<BlockPos> positions) {
         this.uuid = uuid;
@@ -35,6 +38,27 @@ public class CutTreesTask implements ITask {
         this.positions = positions;
     }
 
+    public CutTreesTask(NbtCompound tag) {
+        this.uuid = tag.getUuid("id");
+        this.treeRoots = new ArrayDeque<>();
+        for (long root : tag.getLongArray("remainingRoots")) {
+            treeRoots.add(BlockPos.fromLong(root));
+        }
+        this.totalRootCount = tag.getInt("totalRootCount");
+        this.removedRoots = Math.max(0, totalRootCount - treeRoots.size());
+        this.positions = Arrays.stream(tag.getLongArray("positions")).mapToObj(BlockPos::fromLong).toList();
+    }
+
+    public void writeToNbt(NbtCompound tag) {
+        tag.putUuid("id", uuid);
+        final var remainingRoots = new ArrayList<Long>();
+        treeRoots.forEach(it -> remainingRoots.add(it.asLong()));
+        rootsInProgress.forEach(it -> remainingRoots.add(it.asLong()));
+        tag.putLongArray("remainingRoots", remainingRoots);
+        tag.putInt("totalRootCount", totalRootCount);
+        tag.putLongArray("positions", positions.stream().map(BlockPos::asLong).toList());
+    }
+
     @Override
     public UUID getId() {
         return uuid;
@@ -54,6 +78,8 @@ public class CutTreesTask implements ITask {
     public ITaskPart getNextPart(IWorkerPawn colonist) {
         if(!treeRoots.isEmpty()) {
             final BlockPos root = treeRoots.remove();
+            rootsInProgress.add(root);
+            progressListeners.forEach(Runnable::run);
             final ITaskBlockInfo rootBlockInfo = new DigTaskBlockInfo( root);
             return new TaskPart(Pair.of(root, root), Collections.singletonList(rootBlockInfo), this);
         } else {
@@ -64,7 +90,14 @@ public class CutTreesTask implements ITask {
     @Override
     public void returnPart(Pair<BlockPos, BlockPos> partStartAndEnd) {
         final BlockPos root = partStartAndEnd.getFirst();
+        rootsInProgress.remove(root);
         treeRoots.add(root);
+        progressListeners.forEach(Runnable::run);
+    }
+
+    @Override
+    public void addProgressListener(Runnable listener) {
+        progressListeners.add(listener);
     }
 
     @Override
@@ -81,6 +114,7 @@ public class CutTreesTask implements ITask {
     public void finishPart(ITaskPart part, IWorkerPawn colonist) {
         final ServerWorld world = colonist.getServerWorld();
         final BlockPos root = part.getStartAndEnd().getFirst();
+        rootsInProgress.remove(root);
         final Optional<TreeBlocks> treeOpt = TreeHelper.getTreeBlocks(root.up(), world);
         if(treeOpt.isPresent()) {
             final TreeBlocks tree = treeOpt.get();
@@ -91,6 +125,7 @@ public class CutTreesTask implements ITask {
         if(removedRoots > totalRootCount) {
             throw new IllegalStateException("Removed more roots than total roots");
         }
+        progressListeners.forEach(Runnable::run);
 
         if(treeRoots.isEmpty() && removedRoots == totalRootCount) {
             world.getPlayers().stream().findAny().ifPresent(player -> FortressServerNetworkHelper.send(player, FortressChannelNames.FINISH_TASK, new ClientboundTaskExecutedPacket(this.getId())));
@@ -26,7 +26,7 @@ public class RepairBuildingTask extends AbstractTask {
 
     @Override
     public ITaskPart getNextPart(IWorkerPawn colonist) {
-        final var part = parts.remove();
+        final var part = takeNearestPart(colonist);
         final var taskBlocks = BlockPos.stream(part.getFirst(), part.getSecond())
                 .map(BlockPos::toImmutable)
                 .filter(blocksToRepair::containsKey)
@@ -2,7 +2,10 @@ package org.minefortress.tasks;
 
 import com.mojang.datafixers.util.Pair;
 import net.minecraft.item.Item;
+import net.minecraft.nbt.NbtCompound;
+import net.minecraft.registry.Registries;
 import net.minecraft.server.world.ServerWorld;
+import net.minecraft.util.Identifier;
 import net.minecraft.util.math.BlockPos;
 import net.remmintan.mods.minefortress.core.TaskType;
 import net.remmintan.mods.minefortress.core.dtos.tasks.TaskInformationDto;
@@ -28,11 +31,13 @@ public class RoadsTask implements ITask {
 
     private final List<BlockPos> blocks;
     private final Queue<ITaskPart> taskParts = new ArrayDeque<>();
+    private final Set<BlockPos> partsInProgress = new HashSet<>();
     private final int totalParts;
     private int finishedParts = 0;
 
     private boolean canceled = false;
     private final List<Runnable> taskFinishListeners = new ArrayList<>();
+    private final List<Runnable> progressListeners = new ArrayList<>();
 
     public RoadsTask(UUID id, List<BlockPos> blocks, Item item) {
         this.id = id;
@@ -41,6 +46,35 @@ public class RoadsTask implements ITask {
         this.totalParts = prepareParts();
     }
 
+    public RoadsTask(NbtCompound tag) {
+        this.id = tag.getUuid("id");
+        this.item = tag.contains("item") ? readItem(tag.getString("item")) : null;
+        this.blocks = Arrays.stream(tag.getLongArray("blocks")).mapToObj(BlockPos::fromLong).toList();
+        this.totalParts = tag.getInt("totalParts");
+        for (long partStart : tag.getLongArray("remainingParts")) {
+            addPartStartingFrom(BlockPos.fromLong(partStart));
+        }
+        this.finishedParts = Math.max(0, totalParts - taskParts.size());
+    }
+
+    public void writeToNbt(NbtCompound tag) {
+        tag.putUuid("id", id);
+        if(item != null)
+            tag.putString("item", Registries.ITEM.getId(item).toString());
+        tag.putLongArray("blocks", blocks.stream().map(BlockPos::asLong).toList());
+        tag.putInt("totalParts", totalParts);
+        final var remainingParts = new ArrayList<Long>();
+        taskParts.forEach(it -> remainingParts.add(it.getStartAndEnd().getFirst().asLong()));
+        partsInProgress.forEach(it -> remainingParts.add(it.asLong()));
+        tag.putLongArray("remainingParts", remainingParts);
+    }
+
+    private static Item readItem(String id) {
+        return Registries.ITEM
+                .getOrEmpty(new Identifier(id))
+                .orElseThrow(() -> new IllegalStateException("Unknown item " + id));
+    }
+
     private int prepareParts() {
         final List<BlockPos> partBlocks = new ArrayList<>();
         int partCounter = 0;
@@ -96,12 +130,23 @@ public class RoadsTask implements ITask {
 
     @Override
     public ITaskPart getNextPart(IWorkerPawn colonist) {
-        return taskParts.poll();
+        final var part = taskParts.poll();
+        if(part != null) {
+            partsInProgress.add(part.getStartAndEnd().getFirst());
+            progressListeners.forEach(Runnable::run);
+        }
+        return part;
     }
 
     @Override
     public void returnPart(Pair<BlockPos, BlockPos> partStartAndEnd) {
         final BlockPos partStart = partStartAndEnd.getFirst();
+        partsInProgress.remove(partStart);
+        addPartStartingFrom(partStart);
+        progressListeners.forEach(Runnable::run);
+    }
+
+    private void addPartStartingFrom(BlockPos partStart) {
         final int i = blocks.indexOf(partStart);
         if(i != -1){
             final ArrayList<BlockPos> partBlocks = new ArrayList<>();
@@ -117,9 +162,11 @@ public class RoadsTask implements ITask {
     @Override
     public void finishPart(ITaskPart part, IWorkerPawn colonist) {
         final ServerWorld world = colonist.getServerWorld();
+        partsInProgress.remove(part.getStartAndEnd().getFirst());
         finishedParts++;
         if(finishedParts > totalParts)
             throw new IllegalStateException("Finished more parts than total parts");
+        progressListeners.forEach(Runnable::run);
 
         if(taskParts.isEmpty() && totalParts == finishedParts){
             world.getPlayers().stream().findAny().ifPresent(player -> FortressServerNetworkHelper.send(player, FortressChannelNames.FINISH_TASK, new ClientboundTaskExecutedPacket(this.getId())));
@@ -142,6 +189,11 @@ public class RoadsTask implements ITask {
         taskFinishListeners.add(listener);
     }
 
+    @Override
+    public void addProgressListener(Runnable listener) {
+        progressListeners.add(listener);
+    }
+
     @Override
     public List<TaskInformationDto> toTaskInformationDto() {
         return List.of(new TaskInformationDto(id, blocks, getTaskType()));
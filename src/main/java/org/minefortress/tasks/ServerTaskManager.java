@@ -1,14 +1,20 @@
 package org.minefortress.tasks;
 
 
-import com.mojang.datafixers.util.Pair;
+import net.minecraft.entity.Entity;
 import net.minecraft.nbt.NbtCompound;
+import net.minecraft.nbt.NbtElement;
+import net.minecraft.nbt.NbtHelper;
+import net.minecraft.nbt.NbtList;
 import net.minecraft.server.network.ServerPlayerEntity;
 import net.minecraft.text.Text;
+import net.remmintan.mods.minefortress.core.ModLogger;
 import net.remmintan.mods.minefortress.core.TaskType;
 import net.remmintan.mods.minefortress.core.interfaces.entities.pawns.IWorkerPawn;
+import net.remmintan.mods.minefortress.core.interfaces.entities.player.FortressServerPlayerEntity;
 import net.remmintan.mods.minefortress.core.interfaces.server.IServerFortressManager;
 import net.remmintan.mods.minefortress.core.interfaces.server.IServerManagersProvider;
+import net.remmintan.mods.minefortress.core.interfaces.server.ITickableManager;
 import net.remmintan.mods.minefortress.core.interfaces.server.IWritableManager;
 import net.remmintan.mods.minefortress.core.interfaces.tasks.IServerTaskManager;
 import net.remmintan.mods.minefortress.core.interfaces.tasks.ITask;
@@ -17,10 +23,34 @@ import net.remmintan.mods.minefortress.networking.s2c.S2CAddClientTasksPacket;
 import org.minefortress.fortress.resources.ItemInfo;
 
 import java.util.*;
-import java.util.stream.StreamSupport;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+public class ServerTaskManager implements IServerTaskManager, ITickableManager, IWritableManager {
+
+    private static final int RESUME_INTERVAL_TICKS = 20;
 
-public class ServerTaskManager implements IServerTaskManager, IWritableManager {
     private final Map<UUID, ITask> nonFinishedTasks = new HashMap<>();
+    // the workers the player selected for every task, a resumed task is given only to them
+    private final Map<UUID, Set<UUID>> taskWorkers = new HashMap<>();
+    // tasks loaded from the save which are waiting for the workers
+    private final List<ITask> resumedTasks = new ArrayList<>();
+    // the selected workers of the resumed tasks which didn't get their task back yet
+    private final Map<UUID, Set<UUID>> workersToResume = new HashMap<>();
+    private final Set<UUID> announcedResumedTasks = new HashSet<>();
+
+    private final Supplier<IServerManagersProvider> providerSupplier;
+    private final Supplier<Stream<IWorkerPawn>> workersSupplier;
+
+    private boolean dirty = false;
+    private boolean reservationsChecked = true;
+    private int resumeCooldown = 0;
+
+    public ServerTaskManager(Supplier<IServerManagersProvider> providerSupplier, Supplier<Stream<IWorkerPawn>> workersSupplier) {
+        this.providerSupplier = providerSupplier;
+        this.workersSupplier = workersSupplier;
+    }
 
     @Override
     public boolean addTask(ITask task, IServerManagersProvider provider, IServerFortressManager manager, List<Integer> selectedPawns, ServerPlayerEntity player) {
@@ -29,11 +59,7 @@ public class ServerTaskManager implements IServerTaskManager, IWritableManager {
         if(task.hasAvailableParts()) {
             if(task instanceof SimpleSelectionTask simpleSelectionTask) {
                 if(manager.isSurvival() && task.getTaskType() == TaskType.BUILD) {
-                    final var spliterator = simpleSelectionTask
-                            .getBlocksForPart(Pair.of(simpleSelectionTask.getStartingBlock(), simpleSelectionTask.getEndingBlock()))
-                            .spliterator();
-
-                    final var blocksCount = (int)StreamSupport.stream(spliterator, false).count();
+                    final var blocksCount = simpleSelectionTask.getBlocksCount();
                     final var placingItem = simpleSelectionTask.getPlacingItem();
 
                     final var info = new ItemInfo(placingItem, blocksCount);
@@ -57,6 +83,9 @@ public class ServerTaskManager implements IServerTaskManager, IWritableManager {
             final var packet = new S2CAddClientTasksPacket(task.toTaskInformationDto());
             FortressServerNetworkHelper.send(player, S2CAddClientTasksPacket.CHANNEL, packet);
             nonFinishedTasks.put(task.getId(), task);
+            taskWorkers.put(task.getId(), getUuids(selectedWorkers));
+            task.addProgressListener(this::markDirty);
+            dirty = true;
         }
 
         return assignmentResult;
@@ -66,17 +95,130 @@ public class ServerTaskManager implements IServerTaskManager, IWritableManager {
     public void cancelTask(UUID id, IServerManagersProvider provider, IServerFortressManager manager) {
         removeAllFinishedTasks();
         final var removedTask = nonFinishedTasks.remove(id);
-        if(removedTask != null)
+        if(removedTask != null) {
             removedTask.cancel();
+            resumedTasks.remove(removedTask);
+            dirty = true;
+        }
+        taskWorkers.remove(id);
+        workersToResume.remove(id);
         provider.getResourceManager().returnReservedItems(id);
     }
 
+    @Override
+    public void tick(ServerPlayerEntity player) {
+        if(!reservationsChecked) {
+            returnReservationsOfLostTasks();
+            reservationsChecked = true;
+        }
+
+        if(player == null || resumedTasks.isEmpty()) return;
+        if(resumeCooldown-- > 0) return;
+        resumeCooldown = RESUME_INTERVAL_TICKS;
+
+        resumeTasks(player);
+    }
+
+    private void resumeTasks(ServerPlayerEntity player) {
+        resumedTasks.removeIf(it -> it.isCanceled() || it.taskFullyFinished());
+        workersToResume.keySet().retainAll(resumedTasks.stream().map(ITask::getId).toList());
+
+        final var readyTasks = new ArrayList<ITask>();
+        for (ITask task : resumedTasks) {
+            if(task instanceof BlueprintTask blueprintTask && !blueprintTask.hasBlockData()) {
+                if(!(player instanceof FortressServerPlayerEntity fortressPlayer)) continue;
+                final var blockData = fortressPlayer
+                        .get_ServerBlueprintManager()
+                        .getBlockDataManager()
+                        .getBlockDataAsync(blueprintTask.getBlueprintId(), blueprintTask.getRotation(), blueprintTask.getFloorLevel());
+                if(!blockData.isDone()) continue;
+                if(blockData.isCompletedExceptionally()) {
+                    ModLogger.LOGGER.warn("Can't resume the task {}, blueprint {} is missing", task.getId(), blueprintTask.getBlueprintId());
+                    task.cancel();
+                    nonFinishedTasks.remove(task.getId());
+                    taskWorkers.remove(task.getId());
+                    providerSupplier.get().getResourceManager().returnReservedItems(task.getId());
+                    dirty = true;
+                    continue;
+                }
+                blueprintTask.setBlockData(blockData.join());
+            }
+
+            if(announcedResumedTasks.add(task.getId())) {
+                final var packet = new S2CAddClientTasksPacket(task.toTaskInformationDto());
+                FortressServerNetworkHelper.send(player, S2CAddClientTasksPacket.CHANNEL, packet);
+            }
+            if(task.hasAvailableParts())
+                readyTasks.add(task);
+        }
+
+        if(readyTasks.isEmpty()) return;
+        final var freeWorkers = workersSupplier.get()
+                .filter(it -> !it.getTaskControl().hasTask() && !it.getTaskControl().isDoingEverydayTasks())
+                .collect(Collectors.toCollection(ArrayList::new));
+
+        final var tasksWithoutWorkers = new ArrayList<ITask>();
+        for (ITask task : readyTasks) {
+            final var workers = workersToResume.get(task.getId());
+            if(workers == null) {
+                tasksWithoutWorkers.add(task);
+                continue;
+            }
+
+            // the selected workers could be not loaded yet or busy, the rest of them is tried again later
+            final var iterator = freeWorkers.iterator();
+            while (iterator.hasNext() && task.hasAvailableParts()) {
+                final var worker = iterator.next();
+                if(!workers.remove(getUuid(worker))) continue;
+                worker.getTaskControl().setTask(task);
+                iterator.remove();
+            }
+            if(workers.isEmpty()) {
+                workersToResume.remove(task.getId());
+                resumedTasks.remove(task);
+            }
+        }
+
+        // saved before the selected workers were kept, the free workers are assigned once
+        int taskIndex = 0;
+        for (IWorkerPawn worker : freeWorkers) {
+            tasksWithoutWorkers.removeIf(it -> !it.hasAvailableParts());
+            if(tasksWithoutWorkers.isEmpty()) break;
+            worker.getTaskControl().setTask(tasksWithoutWorkers.get(taskIndex++ % tasksWithoutWorkers.size()));
+        }
+        resumedTasks.removeAll(tasksWithoutWorkers);
+    }
+
+    private static Set<UUID> getUuids(List<IWorkerPawn> workers) {
+        final var uuids = new HashSet<UUID>();
+        for (IWorkerPawn worker : workers) {
+            final var uuid = getUuid(worker);
+            if(uuid != null) uuids.add(uuid);
+        }
+        return uuids;
+    }
+
+    private static UUID getUuid(IWorkerPawn worker) {
+        return worker instanceof Entity entity ? entity.getUuid() : null;
+    }
+
+    private void returnReservationsOfLostTasks() {
+        final var resourceManager = providerSupplier.get().getResourceManager();
+        for (UUID taskId : new ArrayList<>(resourceManager.getTasksWithReservedItems())) {
+            if(!nonFinishedTasks.containsKey(taskId))
+                resourceManager.returnReservedItems(taskId);
+        }
+    }
+
     private void removeAllFinishedTasks() {
         final var finishedTasks = nonFinishedTasks.entrySet()
                 .stream()
                 .filter(e -> e.getValue().taskFullyFinished())
                 .toList();
-        finishedTasks.forEach(e -> nonFinishedTasks.remove(e.getKey()));
+        finishedTasks.forEach(e -> {
+            nonFinishedTasks.remove(e.getKey());
+            taskWorkers.remove(e.getKey());
+        });
     }
 
     private boolean assignPawnsToTask(ServerPlayerEntity player, ITask task, List<IWorkerPawn> workers) {
@@ -99,11 +241,87 @@ public class ServerTaskManager implements IServerTaskManager, IWritableManager {
 
     @Override
     public void write(NbtCompound tag) {
-
+        removeAllFinishedTasks();
+        final var tasks = new NbtList();
+        for (ITask task : nonFinishedTasks.values()) {
+            if(task.isCanceled()) continue;
+            final var taskTag = new NbtCompound();
+            if(task instanceof BlueprintTask blueprintTask) {
+                taskTag.putString("type", "blueprint");
+                blueprintTask.writeToNbt(taskTag);
+            } else if(task instanceof SimpleSelectionTask selectionTask) {
+                taskTag.putString("type", "selection");
+                selectionTask.writeToNbt(taskTag);
+            } else if(task instanceof RoadsTask roadsTask) {
+                taskTag.putString("type", "roads");
+                roadsTask.writeToNbt(taskTag);
+            } else if(task instanceof CutTreesTask cutTreesTask) {
+                taskTag.putString("type", "trees");
+                cutTreesTask.writeToNbt(taskTag);
+            } else {
+                // not resumable, its reserved items are returned after the load
+                continue;
+            }
+            final var workers = new NbtList();
+            for (UUID workerId : taskWorkers.getOrDefault(task.getId(), Collections.emptySet())) {
+                workers.add(NbtHelper.fromUuid(workerId));
+            }
+            taskTag.put("workers", workers);
+            tasks.add(taskTag);
+        }
+        tag.put("tasks", tasks);
     }
 
     @Override
     public void read(NbtCompound tag) {
+        nonFinishedTasks.clear();
+        taskWorkers.clear();
+        resumedTasks.clear();
+        workersToResume.clear();
+        announcedResumedTasks.clear();
+
+        final var tasks = tag.getList("tasks", NbtList.COMPOUND_TYPE);
+        for (int i = 0; i < tasks.size(); i++) {
+            final var taskTag = tasks.getCompound(i);
+            try {
+                final ITask task = switch (taskTag.getString("type")) {
+                    case "blueprint" -> BlueprintTask.fromNbt(taskTag);
+                    case "selection" -> SimpleSelectionTask.fromNbt(taskTag);
+                    case "roads" -> new RoadsTask(taskTag);
+                    case "trees" -> new CutTreesTask(taskTag);
+                    default -> null;
+                };
+                if(task == null || task.taskFullyFinished()) continue;
+                nonFinishedTasks.put(task.getId(), task);
+                task.addProgressListener(this::markDirty);
+                resumedTasks.add(task);
+                if(taskTag.contains("workers", NbtElement.LIST_TYPE)) {
+                    final var workers = new HashSet<UUID>();
+                    for (NbtElement workerTag : taskTag.getList("workers", NbtElement.INT_ARRAY_TYPE)) {
+                        workers.add(NbtHelper.toUuid(workerTag));
+                    }
+                    taskWorkers.put(task.getId(), workers);
+                    workersToResume.put(task.getId(), new HashSet<>(workers));
+                }
+            } catch (RuntimeException e) {
+                ModLogger.LOGGER.error("Can't read the saved task", e);
+            }
+        }
+
+        reservationsChecked = false;
+    }
+
+    @Override
+    public boolean isDirty() {
+        return dirty;
+    }
 
+    private void markDirty() {
+        dirty = true;
+    }
+
+    @Override
+    public void markClean() {
+        dirty = false;
     }
 }
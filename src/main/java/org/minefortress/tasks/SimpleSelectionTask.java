@@ -4,12 +4,17 @@ import com.mojang.datafixers.util.Pair;
 import net.minecraft.block.BlockState;
 import net.minecraft.item.Item;
 import net.minecraft.item.ItemUsageContext;
+import net.minecraft.nbt.NbtCompound;
+import net.minecraft.registry.Registries;
+import net.minecraft.util.Identifier;
 import net.minecraft.util.hit.BlockHitResult;
 import net.minecraft.util.hit.HitResult;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.math.Direction;
+import net.minecraft.util.math.Vec3d;
 import net.remmintan.mods.minefortress.core.TaskType;
 import net.remmintan.mods.minefortress.core.dtos.tasks.TaskInformationDto;
+import net.remmintan.mods.minefortress.core.dtos.tasks.TaskShape;
 import net.remmintan.mods.minefortress.core.interfaces.entities.pawns.IWorkerPawn;
 import net.remmintan.mods.minefortress.core.interfaces.selections.ServerSelectionType;
 import net.remmintan.mods.minefortress.core.interfaces.tasks.ITaskBlockInfo;
@@ -22,6 +27,7 @@ import org.minefortress.tasks.block.info.ItemTaskBlockInfo;
 import org.minefortress.utils.BlockInfoUtils;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.UUID;
 
@@ -78,6 +84,63 @@ public class SimpleSelectionTask extends AbstractTask {
         }
     }
 
+    public static SimpleSelectionTask fromNbt(NbtCompound tag) {
+        final var selectionType = ServerSelectionType.valueOf(tag.getString("selectionType"));
+        HitResult hitResult = null;
+        if(tag.contains("hitBlock")) {
+            final var hitPos = new Vec3d(tag.getDouble("hitX"), tag.getDouble("hitY"), tag.getDouble("hitZ"));
+            final var side = Direction.byName(tag.getString("hitSide"));
+            hitResult = new BlockHitResult(hitPos, side, BlockPos.fromLong(tag.getLong("hitBlock")), tag.getBoolean("insideBlock"));
+        }
+        final List<BlockPos> positions = Arrays.stream(tag.getLongArray("positions")).mapToObj(BlockPos::fromLong).toList();
+
+        final var task = new SimpleSelectionTask(
+                tag.getUuid("id"),
+                TaskType.valueOf(tag.getString("taskType")),
+                BlockPos.fromLong(tag.getLong("start")),
+                BlockPos.fromLong(tag.getLong("end")),
+                hitResult,
+                selectionType,
+                positions
+        );
+        if(tag.contains("placingItem"))
+            task.setPlacingItem(readItem(tag.getString("placingItem")));
+        task.readParts(tag);
+        return task;
+    }
+
+    @Override
+    public void writeToNbt(NbtCompound tag) {
+        super.writeToNbt(tag);
+        tag.putString("selectionType", selectionType.name());
+        if(hitResult instanceof BlockHitResult blockHitResult) {
+            final var hitPos = blockHitResult.getPos();
+            tag.putDouble("hitX", hitPos.x);
+            tag.putDouble("hitY", hitPos.y);
+            tag.putDouble("hitZ", hitPos.z);
+            tag.putString("hitSide", blockHitResult.getSide().getName());
+            tag.putLong("hitBlock", blockHitResult.getBlockPos().asLong());
+            tag.putBoolean("insideBlock", blockHitResult.isInsideBlock());
+        }
+        if(placingItem != null)
+            tag.putString("placingItem", Registries.ITEM.getId(placingItem).toString());
+        // boxes are described by their corners, the positions are needed only for the other shapes
+        if(!isBoxShaped())
+            tag.putLongArray("positions", positions.stream().map(BlockPos::asLong).toList());
+    }
+
+    // the raw ids depend on the mods and the registry order, so the items are saved by their ids
+    private static Item readItem(String id) {
+        return Registries.ITEM
+                .getOrEmpty(new Identifier(id))
+                .orElseThrow(() -> new IllegalStateException("Unknown item " + id));
+    }
+
+    private boolean isBoxShaped() {
+        // a wall segment is a box one block thick
+        return selectionType == ServerSelectionType.SQUARES || selectionType == ServerSelectionType.WALLS;
+    }
+
     public void setPlacingItem(Item placingItem) {
         this.placingItem = placingItem;
     }
@@ -88,7 +151,7 @@ public class SimpleSelectionTask extends AbstractTask {
 
     @Override
     public ITaskPart getNextPart(IWorkerPawn colonist) {
-        Pair<BlockPos, BlockPos> startAndEnd = parts.poll();
+        Pair<BlockPos, BlockPos> startAndEnd = takeNearestPart(colonist);
         if(startAndEnd == null) throw new IllegalStateException("Null part for task!");
         final List<ITaskBlockInfo> blocks = getPartBlocksInfo(startAndEnd, colonist);
         return new TaskPart(startAndEnd, blocks, this);
@@ -125,8 +188,33 @@ public class SimpleSelectionTask extends AbstractTask {
         }
     }
 
+    public int getBlocksCount() {
+        final int sizeX = Math.abs(endingBlock.getX() - startingBlock.getX()) + 1;
+        final int sizeY = Math.abs(endingBlock.getY() - startingBlock.getY()) + 1;
+        final int sizeZ = Math.abs(endingBlock.getZ() - startingBlock.getZ()) + 1;
+        return switch (selectionType) {
+            case LADDER -> getLadderBlocksCount(sizeX, sizeY, sizeZ);
+            case LADDER_Z_DIRECTION -> getLadderBlocksCount(sizeZ, sizeY, sizeX);
+            case WALLS_EVERY_SECOND -> (sizeX * sizeY * sizeZ + 1) / 2;
+            default -> sizeX * sizeY * sizeZ;
+        };
+    }
+
+    // the ladder keeps the blocks which are not higher above the start than they are away from it along the axis
+    private static int getLadderBlocksCount(int axisSize, int sizeY, int width) {
+        int count = 0;
+        for (int deltaY = 0; deltaY < Math.min(sizeY, axisSize); deltaY++) {
+            count += axisSize - deltaY;
+        }
+        return count * width;
+    }
+
     @Override
     public List<TaskInformationDto> toTaskInformationDto() {
+        if(isBoxShaped()) {
+            final var shape = new TaskShape.Box(startingBlock, endingBlock);
+            return List.of(new TaskInformationDto(id, shape, taskType));
+        }
         return List.of(new TaskInformationDto(id, positions, taskType));
     }
 }
@@ -0,0 +1,238 @@
+package org.minefortress.tasks;
+
+import com.mojang.datafixers.util.Pair;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import net.minecraft.nbt.NbtCompound;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.MathHelper;
+import net.minecraft.util.math.Vec3i;
+import net.remmintan.mods.minefortress.core.utils.PathUtils;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+
+/**
+ * Produces the columns of the task area one by one instead of creating all of them up front.
+ * Parts which were added explicitly (returned by the workers) are served after the columns
+ * by {@link #poll()}, while {@link #pollNearest(BlockPos)} picks whatever is closest.
+ */
+final class TaskPartsQueue extends AbstractQueue<Pair<BlockPos, BlockPos>> {
+
+    private final List<Pair<BlockPos, BlockPos>> addedParts = new ArrayList<>();
+    // parts which were given to the workers and are not finished yet
+    private final Set<Pair<BlockPos, BlockPos>> takenParts = new HashSet<>();
+    private final BitSet claimedColumns = new BitSet();
+
+    private BlockPos start;
+    private BlockPos end;
+    private Vec3i direction;
+    private int partSize;
+    private int columnsX;
+    private int columnsZ;
+    private int columnsCount;
+    private int claimedColumnsCount;
+
+    void setArea(BlockPos start, BlockPos end, int partSize) {
+        this.start = start;
+        this.end = end;
+        this.direction = PathUtils.getDirection(start, end);
+        this.partSize = partSize;
+        this.columnsX = columns(start.getX(), end.getX(), partSize);
+        this.columnsZ = columns(start.getZ(), end.getZ(), partSize);
+        this.columnsCount = columnsX * columnsZ;
+        this.claimedColumns.clear();
+        this.claimedColumnsCount = 0;
+    }
+
+    @Override
+    public boolean offer(Pair<BlockPos, BlockPos> part) {
+        takenParts.remove(part);
+        return addedParts.add(part);
+    }
+
+    @Override
+    public Pair<BlockPos, BlockPos> poll() {
+        final Pair<BlockPos, BlockPos> part;
+        if(claimedColumnsCount < columnsCount) {
+            part = claimColumn(claimedColumns.nextClearBit(0));
+        } else {
+            part = addedParts.isEmpty() ? null : addedParts.remove(0);
+        }
+        if(part != null) takenParts.add(part);
+        return part;
+    }
+
+    /**
+     * Takes the part closest to the given position. The columns are searched in rings around
+     * the column of the position, so a worker finishing a column usually gets the neighbouring one.
+     */
+    @Nullable
+    Pair<BlockPos, BlockPos> pollNearest(BlockPos pos) {
+        Pair<BlockPos, BlockPos> nearest = null;
+        int nearestColumn = -1;
+        int nearestAdded = -1;
+        double nearestDistance = Double.MAX_VALUE;
+
+        if(claimedColumnsCount < columnsCount) {
+            final int columnX = MathHelper.clamp((pos.getX() - start.getX()) * direction.getX() / partSize, 0, columnsX - 1);
+            final int columnZ = MathHelper.clamp((pos.getZ() - start.getZ()) * direction.getZ() / partSize, 0, columnsZ - 1);
+            final int maxRing = Math.max(Math.max(columnX, columnsX - 1 - columnX), Math.max(columnZ, columnsZ - 1 - columnZ));
+
+            for (int ring = 0; ring <= maxRing; ring++) {
+                // no column of this ring can be closer than the one already found
+                final double ringDistance = Math.max(0, ring - 1) * partSize;
+                if(nearest != null && ringDistance * ringDistance > nearestDistance) break;
+
+                for (int dx = -ring; dx <= ring; dx++) {
+                    final int x = columnX + dx;
+                    if(x < 0 || x >= columnsX) continue;
+                    for (int dz = -ring; dz <= ring; dz++) {
+                        if(Math.abs(dx) != ring && Math.abs(dz) != ring) continue;
+                        final int z = columnZ + dz;
+                        if(z < 0 || z >= columnsZ) continue;
+                        final int column = x + z * columnsX;
+                        if(claimedColumns.get(column)) continue;
+                        final var part = getColumn(column);
+                        final var distance = squaredHorizontalDistance(part, pos);
+                        if(distance < nearestDistance) {
+                            nearestDistance = distance;
+                            nearest = part;
+                            nearestColumn = column;
+                        }
+                    }
+                }
+            }
+        }
+
+        for (int i = 0; i < addedParts.size(); i++) {
+            final var part = addedParts.get(i);
+            final var distance = squaredHorizontalDistance(part, pos);
+            if(distance < nearestDistance) {
+                nearestDistance = distance;
+                nearest = part;
+                nearestAdded = i;
+                nearestColumn = -1;
+            }
+        }
+
+        if(nearest == null) return null;
+        if(nearestColumn >= 0) {
+            claimColumn(nearestColumn);
+        } else {
+            addedParts.remove(nearestAdded);
+        }
+        takenParts.add(nearest);
+        return nearest;
+    }
+
+    void finish(Pair<BlockPos, BlockPos> part) {
+        takenParts.remove(part);
+    }
+
+    // the parts in progress are saved as not started, so they are redone after the restart
+    NbtCompound toNbt() {
+        final var tag = new NbtCompound();
+        if(start != null) {
+            tag.putLong("start", start.asLong());
+            tag.putLong("end", end.asLong());
+            tag.putInt("partSize", partSize);
+            tag.putLongArray("claimedColumns", claimedColumns.toLongArray());
+        }
+        final var explicitParts = new LongArrayList();
+        for (Pair<BlockPos, BlockPos> part : addedParts) {
+            explicitParts.add(part.getFirst().asLong());
+            explicitParts.add(part.getSecond().asLong());
+        }
+        for (Pair<BlockPos, BlockPos> part : takenParts) {
+            explicitParts.add(part.getFirst().asLong());
+            explicitParts.add(part.getSecond().asLong());
+        }
+        tag.putLongArray("parts", explicitParts.toLongArray());
+        return tag;
+    }
+
+    void readNbt(NbtCompound tag) {
+        if(tag.contains("start")) {
+            setArea(BlockPos.fromLong(tag.getLong("start")), BlockPos.fromLong(tag.getLong("end")), tag.getInt("partSize"));
+            if(tag.contains("claimedColumns")) {
+                claimedColumns.or(BitSet.valueOf(tag.getLongArray("claimedColumns")));
+            } else {
+                claimedColumns.set(0, Math.min(tag.getInt("nextColumn"), columnsCount));
+            }
+            claimedColumnsCount = claimedColumns.cardinality();
+        }
+        final var explicitParts = tag.getLongArray("parts");
+        for (int i = 0; i + 1 < explicitParts.length; i += 2) {
+            addedParts.add(Pair.of(BlockPos.fromLong(explicitParts[i]), BlockPos.fromLong(explicitParts[i + 1])));
+        }
+    }
+
+    @Override
+    public Pair<BlockPos, BlockPos> peek() {
+        if(claimedColumnsCount < columnsCount) return getColumn(claimedColumns.nextClearBit(0));
+        return addedParts.isEmpty() ? null : addedParts.get(0);
+    }
+
+    @Override
+    public int size() {
+        return columnsCount - claimedColumnsCount + addedParts.size();
+    }
+
+    @NotNull
+    @Override
+    public Iterator<Pair<BlockPos, BlockPos>> iterator() {
+        final var addedIterator = addedParts.iterator();
+        return new Iterator<>() {
+            private int column = claimedColumns.nextClearBit(0);
+
+            @Override
+            public boolean hasNext() {
+                return column < columnsCount || addedIterator.hasNext();
+            }
+
+            @Override
+            public Pair<BlockPos, BlockPos> next() {
+                if(column < columnsCount) {
+                    final var part = getColumn(column);
+                    column = claimedColumns.nextClearBit(column + 1);
+                    return part;
+                }
+                return addedIterator.next();
+            }
+        };
+    }
+
+    private Pair<BlockPos, BlockPos> claimColumn(int column) {
+        claimedColumns.set(column);
+        claimedColumnsCount++;
+        return getColumn(column);
+    }
+
+    private Pair<BlockPos, BlockPos> getColumn(int column) {
+        final int offsetX = (column % columnsX) * partSize;
+        final int offsetZ = (column / columnsX) * partSize;
+        final var columnStart = start.add(offsetX * direction.getX(), 0, offsetZ * direction.getZ());
+
+        int endX = columnStart.getX() + (partSize - 1) * direction.getX();
+        int endZ = columnStart.getZ() + (partSize - 1) * direction.getZ();
+        if(endX * direction.getX() > end.getX() * direction.getX()) endX = end.getX();
+        if(endZ * direction.getZ() > end.getZ() * direction.getZ()) endZ = end.getZ();
+
+        return Pair.of(columnStart, new BlockPos(endX, end.getY(), endZ));
+    }
+
+    static double squaredHorizontalDistance(Pair<BlockPos, BlockPos> part, BlockPos pos) {
+        final var first = part.getFirst();
+        final var second = part.getSecond();
+        final double dx = (first.getX() + second.getX()) / 2.0 - pos.getX();
+        final double dz = (first.getZ() + second.getZ()) / 2.0 - pos.getZ();
+        return dx * dx + dz * dz;
+    }
+
+    private static int columns(int from, int to, int partSize) {
+        final int length = Math.abs(to - from) + 1;
+        return (length + partSize - 1) / partSize;
+    }
+
+}
@@ -70,7 +70,7 @@ public class ServerboundBlueprintTaskPacket implements FortressC2SPacket {
                 final var serverResourceManager = provider.getResourceManager();
 
                 if(manager.isSurvival()) {
-                    final var stacks = blueprintManager.getBlockDataManager().getBlockData(blueprintId, rotation).getStacks();
+                    final var stacks = blueprintManager.getBlockDataManager().getBlockData(blueprintId, rotation, floorLevel).getStacks();
                     try {
                         serverResourceManager.reserveItems(taskId, stacks);
                     }catch (IllegalStateException e) {
@@ -84,13 +84,22 @@ public class ServerboundBlueprintTaskPacket implements FortressC2SPacket {
                     serverResourceManager.returnReservedItems(taskId);
                 }
             };
-            if (floorLevel > 0) {
-                final var digTask = blueprintManager.createDigTask(UUID.randomUUID(), startPos, floorLevel, blueprintId, rotation);
-                digTask.addFinishListener(executeBuildTask);
-                provider.getTaskManager().addTask(digTask, provider, manager, selectedPawns, player);
-            } else {
-                executeBuildTask.run();
-            }
+            // the structure is compiled off the server thread, the tasks are created once it's ready
+            blueprintManager.getBlockDataManager()
+                    .getBlockDataAsync(blueprintId, rotation, floorLevel)
+                    .thenRunAsync(() -> {
+                        if (floorLevel > 0) {
+                            final var digTask = blueprintManager.createDigTask(UUID.randomUUID(), startPos, floorLevel, blueprintId, rotation);
+                            digTask.addFinishListener(executeBuildTask);
+                            provider.getTaskManager().addTask(digTask, provider, manager, selectedPawns, player);
+                        } else {
+                            executeBuildTask.run();
+                        }
+                    }, server)
+                    .exceptionally(e -> {
+                        ModLogger.LOGGER.error("Failed to create blueprint task for " + blueprintId, e);
+                        return null;
+                    });
         }
     }
 }
@@ -6,7 +6,8 @@ import net.minecraft.item.Items;
 import net.minecraft.network.PacketByteBuf;
 import net.remmintan.mods.minefortress.core.interfaces.networking.FortressS2CPacket;
 import net.remmintan.mods.minefortress.core.interfaces.resources.IItemInfo;
-import net.remmintan.mods.minefortress.networking.registries.NetworkingReadersRegistry;
+import net.remmintan.mods.minefortress.networking.c2s.C2SRequestResourcesRefresh;
+import net.remmintan.mods.minefortress.networking.helpers.FortressClientNetworkHelper;
 import org.apache.logging.log4j.LogManager;
 
 import java.util.ArrayList;
@@ -15,31 +16,42 @@ import java.util.List;
 
 public class ClientboundSyncItemsPacket implements FortressS2CPacket {
 
-    private final List<IItemInfo> itemInfo;
+    private final int version;
     private final boolean needReset;
+    private final List<IItemInfo> itemInfo;
 
-    public ClientboundSyncItemsPacket(List<IItemInfo> itemInfo, boolean needReset) {
-        this.itemInfo = Collections.unmodifiableList(itemInfo);
+    public ClientboundSyncItemsPacket(int version, boolean needReset, List<IItemInfo> itemInfo) {
+        this.version = version;
         this.needReset = needReset;
+        this.itemInfo = Collections.unmodifiableList(itemInfo);
     }
 
     public ClientboundSyncItemsPacket(PacketByteBuf buf) {
-        final int size = buf.readInt();
-        final var tempList = new ArrayList<IItemInfo>();
-        final var reader = NetworkingReadersRegistry.findReader(IItemInfo.class);
+        this.version = buf.readVarInt();
+        this.needReset = buf.readBoolean();
+        final int size = buf.readVarInt();
+        final var tempList = new ArrayList<IItemInfo>(size);
         for(int i = 0; i < size; i++) {
-            tempList.add(reader.readBuffer(buf));
+            final var item = Item.byRawId(buf.readVarInt());
+            final var amount = buf.readVarInt();
+            tempList.add(new SyncedItemInfo(item, amount));
         }
 
         this.itemInfo = Collections.unmodifiableList(tempList);
-        this.needReset = buf.readBoolean();
     }
 
     @Override
     public void handle(MinecraftClient client) {
         final var provider = getManagersProvider();
         final var resourceManager = provider.get_ClientFortressManager().getResourceManager();
-        if(needReset) resourceManager.reset();
+        if(needReset) {
+            resourceManager.reset();
+        } else if(version != resourceManager.getSyncVersion() + 1) {
+            // some update was missed, the amounts are applied anyway until the snapshot arrives
+            FortressClientNetworkHelper.send(C2SRequestResourcesRefresh.CHANNEL, new C2SRequestResourcesRefresh());
+        }
+        resourceManager.setSyncVersion(version);
+
         for (IItemInfo info : itemInfo) {
             final var item = info.item();
             if(item == Items.STRUCTURE_VOID) continue;
@@ -54,15 +66,14 @@ public class ClientboundSyncItemsPacket implements FortressS2CPacket {
 
     @Override
     public void write(PacketByteBuf buf) {
-        buf.writeInt(itemInfo.size());
+        buf.writeVarInt(version);
+        buf.writeBoolean(needReset);
+        buf.writeVarInt(itemInfo.size());
         for(IItemInfo itemInfo : itemInfo) {
-            final var item = itemInfo.item();
-            final var amount = itemInfo.amount();
-
-            buf.writeInt(Item.getRawId(item));
-            buf.writeInt(amount);
+            buf.writeVarInt(Item.getRawId(itemInfo.item()));
+            buf.writeVarInt(itemInfo.amount());
         }
-
-        buf.writeBoolean(needReset);
     }
+
+    private record SyncedItemInfo(Item item, int amount) implements IItemInfo {}
 }
@@ -14,31 +14,50 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+/**
+ * Sends the special blocks added and removed since the previous sync. When {@code reset} is set
+ * the client drops what it had and the added blocks are all the special blocks of the fortress.
+ */
 public class ClientboundSyncSpecialBlocksPacket implements FortressS2CPacket {
 
-    private final Map<Block, List<BlockPos>> basicSpecialBlocks;
-    private final Map<Block, List<BlockPos>> blueprintSpecialBlocks;
+    private final boolean reset;
+    private final Map<Block, List<BlockPos>> basicAdded;
+    private final Map<Block, List<BlockPos>> basicRemoved;
+    private final Map<Block, List<BlockPos>> blueprintAdded;
+    private final Map<Block, List<BlockPos>> blueprintRemoved;
 
-    public ClientboundSyncSpecialBlocksPacket(Map<Block, List<BlockPos>> basicSpecialBlocks, Map<Block, List<BlockPos>> blueprintSpecialBlocks) {
-        this.basicSpecialBlocks = basicSpecialBlocks;
-        this.blueprintSpecialBlocks = blueprintSpecialBlocks;
+    public ClientboundSyncSpecialBlocksPacket(
+            boolean reset,
+            Map<Block, List<BlockPos>> basicAdded,
+            Map<Block, List<BlockPos>> basicRemoved,
+            Map<Block, List<BlockPos>> blueprintAdded,
+            Map<Block, List<BlockPos>> blueprintRemoved
+    ) {
+        this.reset = reset;
+        this.basicAdded = basicAdded;
+        this.basicRemoved = basicRemoved;
+        this.blueprintAdded = blueprintAdded;
+        this.blueprintRemoved = blueprintRemoved;
     }
 
     public ClientboundSyncSpecialBlocksPacket(PacketByteBuf buf) {
-        this.basicSpecialBlocks = getSpecialBLocks(buf);
-        this.blueprintSpecialBlocks = getSpecialBLocks(buf);
+        this.reset = buf.readBoolean();
+        this.basicAdded = getSpecialBLocks(buf);
+        this.basicRemoved = getSpecialBLocks(buf);
+        this.blueprintAdded = getSpecialBLocks(buf);
+        this.blueprintRemoved = getSpecialBLocks(buf);
     }
 
     @NotNull
     private HashMap<Block, List<BlockPos>> getSpecialBLocks(PacketByteBuf buf) {
         final var specialBlocks = new HashMap<Block, List<BlockPos>>();
-        int size = buf.readInt();
+        int size = buf.readVarInt();
         for (int i = 0; i < size; i++) {
             Block block = Registries.BLOCK.get(new Identifier(buf.readString()));
-            int blocksAmount = buf.readInt();
+            int blocksAmount = buf.readVarInt();
             List<BlockPos> set = specialBlocks.computeIfAbsent(block, k -> new ArrayList<>());
             for (int j = 0; j < blocksAmount; j++) {
-                set.add(buf.readBlockPos());
+                set.add(BlockPos.fromLong(buf.readLong()));
             }
         }
         return specialBlocks;
@@ -48,22 +67,26 @@ public class ClientboundSyncSpecialBlocksPacket implements FortressS2CPacket {
     public void handle(MinecraftClient client) {
         final var provider = getManagersProvider();
         final var manager = provider.get_ClientFortressManager();
-        manager.setSpecialBlocks(basicSpecialBlocks, blueprintSpecialBlocks);
+        manager.updateSpecialBlocks(reset, basicAdded, basicRemoved, false);
+        manager.updateSpecialBlocks(reset, blueprintAdded, blueprintRemoved, true);
     }
 
     @Override
     public void write(PacketByteBuf buf) {
-        writeSpecialBlocks(buf, this.basicSpecialBlocks);
-        writeSpecialBlocks(buf, this.blueprintSpecialBlocks);
+        buf.writeBoolean(reset);
+        writeSpecialBlocks(buf, this.basicAdded);
+        writeSpecialBlocks(buf, this.basicRemoved);
+        writeSpecialBlocks(buf, this.blueprintAdded);
+        writeSpecialBlocks(buf, this.blueprintRemoved);
     }
 
-    private void writeSpecialBlocks(PacketByteBuf buf, Map<Block, List<BlockPos>> basicSpecialBlocks) {
-        buf.writeInt(basicSpecialBlocks.size());
-        for (Map.Entry<Block, List<BlockPos>> entry : basicSpecialBlocks.entrySet()) {
+    private void writeSpecialBlocks(PacketByteBuf buf, Map<Block, List<BlockPos>> specialBlocks) {
+        buf.writeVarInt(specialBlocks.size());
+        for (Map.Entry<Block, List<BlockPos>> entry : specialBlocks.entrySet()) {
             buf.writeString(Registries.BLOCK.getId(entry.getKey()).toString());
-            buf.writeInt(entry.getValue().size());
+            buf.writeVarInt(entry.getValue().size());
             for (BlockPos pos : entry.getValue()) {
-                buf.writeBlockPos(pos);
+                buf.writeLong(pos.asLong());
             }
         }
     }
@@ -1,20 +1,34 @@
 package net.remmintan.mods.minefortress.networking.s2c;
 
+import io.netty.buffer.Unpooled;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
 import net.minecraft.client.MinecraftClient;
 import net.minecraft.network.PacketByteBuf;
 import net.minecraft.util.math.BlockPos;
 import net.remmintan.mods.minefortress.core.TaskType;
 import net.remmintan.mods.minefortress.core.dtos.tasks.TaskInformationDto;
+import net.remmintan.mods.minefortress.core.dtos.tasks.TaskShape;
 import net.remmintan.mods.minefortress.core.interfaces.networking.FortressS2CPacket;
 import net.remmintan.mods.minefortress.core.utils.CoreModUtils;
+import net.remmintan.mods.minefortress.networking.helpers.NetworkUtils;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.*;
 
 public class S2CAddClientTasksPacket implements FortressS2CPacket {
 
     public static final String CHANNEL = "minefortress_client_task_state";
 
+    // smaller payloads are not worth the compression time
+    private static final int COMPRESSION_THRESHOLD = 8 * 1024;
+
+    private static final byte BOX_SHAPE = 0;
+    private static final byte RUNS_SHAPE = 1;
+
+    private static final Comparator<BlockPos> RUNS_ORDER = Comparator
+            .comparingInt(BlockPos::getY)
+            .thenComparingInt(BlockPos::getZ)
+            .thenComparingInt(BlockPos::getX);
+
     private final List<TaskInformationDto> tasks;
 
     public S2CAddClientTasksPacket(List<TaskInformationDto> tasks) {
@@ -22,31 +36,40 @@ public class S2CAddClientTasksPacket implements FortressS2CPacket {
     }
 
     public S2CAddClientTasksPacket(PacketByteBuf buf) {
-        final int size = buf.readVarInt();
+        final var compressed = buf.readBoolean();
+        final var payload = compressed ?
+                new PacketByteBuf(Unpooled.wrappedBuffer(NetworkUtils.getDecompressedBytes(buf.readByteArray()))) :
+                buf;
+
+        final int size = payload.readVarInt();
         this.tasks = new ArrayList<>(size);
         for(int i = 0; i < size; i++) {
-            final var id = buf.readUuid();
-            final var positions = new ArrayList<BlockPos>();
-            final int positionsSize = buf.readInt();
-            for(int j = 0; j < positionsSize; j++) {
-                positions.add(buf.readBlockPos());
-            }
-            final var type = buf.readEnumConstant(TaskType.class);
-            this.tasks.add(new TaskInformationDto(id, positions, type));
+            final var id = payload.readUuid();
+            final var shape = readShape(payload);
+            final var type = payload.readEnumConstant(TaskType.class);
+            this.tasks.add(new TaskInformationDto(id, shape, type));
         }
     }
 
     @Override
     public void write(PacketByteBuf buf) {
-        buf.writeVarInt(tasks.size());
+        final var payload = new PacketByteBuf(Unpooled.buffer());
+        payload.writeVarInt(tasks.size());
         for(TaskInformationDto task: tasks) {
-            buf.writeUuid(task.id());
-            final var blockPositions = task.positions();
-            buf.writeInt(blockPositions.size());
-            for(BlockPos pos: blockPositions) {
-                buf.writeBlockPos(pos);
-            }
-            buf.writeEnumConstant(task.type());
+            payload.writeUuid(task.id());
+            writeShape(payload, task.shape());
+            payload.writeEnumConstant(task.type());
+        }
+
+        final var bytes = new byte[payload.readableBytes()];
+        payload.readBytes(bytes);
+        payload.release();
+        if(bytes.length > COMPRESSION_THRESHOLD) {
+            buf.writeBoolean(true);
+            buf.writeByteArray(NetworkUtils.getCompressedBytes(bytes));
+        } else {
+            buf.writeBoolean(false);
+            buf.writeBytes(bytes);
         }
     }
 
@@ -54,4 +77,91 @@ public class S2CAddClientTasksPacket implements FortressS2CPacket {
     public void handle(MinecraftClient client) {
         CoreModUtils.getClientTasksHolder().orElseThrow().addTasks(tasks);
     }
+
+    private static void writeShape(PacketByteBuf buf, TaskShape shape) {
+        if(shape instanceof TaskShape.Box box) {
+            buf.writeByte(BOX_SHAPE);
+            buf.writeBlockPos(box.start());
+            buf.writeBlockPos(box.end());
+        } else if(shape instanceof TaskShape.Runs runs) {
+            writeRuns(buf, runs.runs());
+        } else {
+            writeRuns(buf, toRuns(shape.positions()));
+        }
+    }
+
+    private static TaskShape readShape(PacketByteBuf buf) {
+        final var shapeType = buf.readByte();
+        if(shapeType == BOX_SHAPE) {
+            return new TaskShape.Box(buf.readBlockPos(), buf.readBlockPos());
+        } else if(shapeType == RUNS_SHAPE) {
+            final var runsCount = buf.readVarInt();
+            final var runs = new int[runsCount * 4];
+            int x = 0, y = 0, z = 0;
+            for (int i = 0; i < runs.length; i += 4) {
+                x += fromZigZag(buf.readVarInt());
+                y += fromZigZag(buf.readVarInt());
+                z += fromZigZag(buf.readVarInt());
+                runs[i] = x;
+                runs[i + 1] = y;
+                runs[i + 2] = z;
+                runs[i + 3] = buf.readVarInt() + 1;
+            }
+            return new TaskShape.Runs(runs);
+        }
+        throw new IllegalStateException("Unknown task shape " + shapeType);
+    }
+
+    // every run start is written as a delta from the previous one
+    private static void writeRuns(PacketByteBuf buf, int[] runs) {
+        buf.writeByte(RUNS_SHAPE);
+        buf.writeVarInt(runs.length / 4);
+        int x = 0, y = 0, z = 0;
+        for (int i = 0; i < runs.length; i += 4) {
+            buf.writeVarInt(toZigZag(runs[i] - x));
+            buf.writeVarInt(toZigZag(runs[i + 1] - y));
+            buf.writeVarInt(toZigZag(runs[i + 2] - z));
+            buf.writeVarInt(runs[i + 3] - 1);
+            x = runs[i];
+            y = runs[i + 1];
+            z = runs[i + 2];
+        }
+    }
+
+    private static int[] toRuns(Iterable<BlockPos> positions) {
+        final var sorted = new ArrayList<BlockPos>();
+        for (BlockPos pos : positions) {
+            sorted.add(pos.toImmutable());
+        }
+        sorted.sort(RUNS_ORDER);
+
+        final var runs = new IntArrayList();
+        BlockPos previous = null;
+        for (BlockPos pos : sorted) {
+            if(pos.equals(previous)) continue;
+            final var last = runs.size() - 4;
+            final var continuesRun = previous != null &&
+                    pos.getY() == previous.getY() &&
+                    pos.getZ() == previous.getZ() &&
+                    pos.getX() == previous.getX() + 1;
+            if(continuesRun) {
+                runs.set(last + 3, runs.getInt(last + 3) + 1);
+            } else {
+                runs.add(pos.getX());
+                runs.add(pos.getY());
+                runs.add(pos.getZ());
+                runs.add(1);
+            }
+            previous = pos;
+        }
+        return runs.toIntArray();
+    }
+
+    private static int toZigZag(int value) {
+        return (value << 1) ^ (value >> 31);
+    }
+
+    private static int fromZigZag(int value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
 }
@@ -0,0 +1,148 @@
+package net.remmintan.panama;
+
+import net.minecraft.client.render.BufferBuilder;
+import net.minecraft.client.render.RenderLayer;
+import net.minecraft.client.render.chunk.BlockBufferBuilderStorage;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Queue;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Builds the meshes off the render thread. Every mesh holds one of the pooled buffer builders
+ * until its buffer is uploaded, so the amount of the native memory used by the workers is bounded.
+ * A build waiting for a builder is queued, the workers are never blocked waiting for the render thread.
+ */
+public final class MeshWorkers {
+
+    private static final ExecutorService workers;
+    private static final BuildersPool<BufferBuilder> lineBuilders;
+    // a storage holds a builder for every block layer, they are big so they are created only when needed
+    private static final BuildersPool<BlockBufferBuilderStorage> blockBuilders;
+
+    static {
+        final var incrementer = new AtomicInteger(0);
+        final var threadsCount = Math.max(1, Math.min(2, Runtime.getRuntime().availableProcessors() / 2));
+        workers = Executors.newFixedThreadPool(threadsCount, r -> {
+            final var thread = new Thread(r, "MineFortress Mesh Worker " + incrementer.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        lineBuilders = new BuildersPool<>(threadsCount * 2, () -> new BufferBuilder(256), MeshWorkers::discard);
+        blockBuilders = new BuildersPool<>(threadsCount, BlockBufferBuilderStorage::new, MeshWorkers::discard);
+    }
+
+    private MeshWorkers() {}
+
+    public static Executor getExecutor() {
+        return workers;
+    }
+
+    // the builder is given back once the future returned by the build is done
+    public static <T> CompletableFuture<T> buildWithLines(Function<BufferBuilder, CompletableFuture<T>> build) {
+        return lineBuilders.build(build);
+    }
+
+    public static <T> CompletableFuture<T> buildWithBlocks(Function<BlockBufferBuilderStorage, CompletableFuture<T>> build) {
+        return blockBuilders.build(build);
+    }
+
+    // a builder which failed in the middle of building is ended and cleared, so it can be used again
+    private static void discard(BufferBuilder builder) {
+        if(builder.isBuilding()) {
+            final var builtBuffer = builder.endNullable();
+            if(builtBuffer != null) builtBuffer.release();
+        }
+        builder.reset();
+    }
+
+    private static void discard(BlockBufferBuilderStorage builders) {
+        for (RenderLayer layer : RenderLayer.getBlockLayers()) {
+            discard(builders.get(layer));
+        }
+    }
+
+    private static final class BuildersPool<B> {
+
+        private final Queue<B> free = new ConcurrentLinkedQueue<>();
+        private final Queue<Runnable> waiting = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger left;
+        private final Supplier<B> factory;
+        private final Consumer<B> discard;
+
+        private BuildersPool(int size, Supplier<B> factory, Consumer<B> discard) {
+            this.left = new AtomicInteger(size);
+            this.factory = factory;
+            this.discard = discard;
+        }
+
+        <T> CompletableFuture<T> build(Function<B, CompletableFuture<T>> build) {
+            final var result = new CompletableFuture<T>();
+            workers.execute(new Runnable() {
+                @Override
+                public void run() {
+                    final var builder = tryTake();
+                    if(builder == null) {
+                        waitForReturn(this);
+                        return;
+                    }
+                    runWith(builder, build, result);
+                }
+            });
+            return result;
+        }
+
+        private <T> void runWith(B builder, Function<B, CompletableFuture<T>> build, CompletableFuture<T> result) {
+            final CompletableFuture<T> built;
+            try {
+                built = build.apply(builder);
+            } catch (RuntimeException e) {
+                // the builder may be left in the middle of building
+                discard.accept(builder);
+                giveBack(builder);
+                result.completeExceptionally(e);
+                return;
+            }
+
+            built.whenComplete((it, e) -> {
+                giveBack(builder);
+                if(e != null) {
+                    result.completeExceptionally(e);
+                } else {
+                    result.complete(it);
+                }
+            });
+        }
+
+        @Nullable
+        private B tryTake() {
+            final var builder = free.poll();
+            if(builder != null) return builder;
+            if(left.getAndUpdate(it -> Math.max(0, it - 1)) > 0) return factory.get();
+            return null;
+        }
+
+        private void waitForReturn(Runnable build) {
+            waiting.add(build);
+            // the builder could be returned before the build was queued
+            if(!free.isEmpty()) resumeWaiting();
+        }
+
+        private void giveBack(B builder) {
+            free.add(builder);
+            resumeWaiting();
+        }
+
+        private void resumeWaiting() {
+            final var build = waiting.poll();
+            if(build != null) workers.execute(build);
+        }
+
+    }
+
+}
@@ -12,14 +12,18 @@ public class RenderHelper {
             BufferBuilder.BuiltBuffer builtBuffer,
             VertexBuffer vertexBuffer
     ) {
-        Runnable runnable = () -> {
-            if (!vertexBuffer.isClosed()) {
-                vertexBuffer.bind();
-                vertexBuffer.upload(builtBuffer);
-                VertexBuffer.unbind();
-            }
-        };
-        return CompletableFuture.runAsync(runnable, MinecraftClient.getInstance());
+        return CompletableFuture.runAsync(() -> upload(builtBuffer, vertexBuffer), MinecraftClient.getInstance());
+    }
+
+    // must be called on the render thread
+    public static void upload(BufferBuilder.BuiltBuffer builtBuffer, VertexBuffer vertexBuffer) {
+        if (!vertexBuffer.isClosed()) {
+            vertexBuffer.bind();
+            vertexBuffer.upload(builtBuffer);
+            VertexBuffer.unbind();
+        } else {
+            builtBuffer.release();
+        }
     }
 
 
@@ -1,8 +1,11 @@
 package net.remmintan.panama.model;
 
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
 import net.minecraft.block.BlockRenderType;
 import net.minecraft.block.BlockState;
 import net.minecraft.client.MinecraftClient;
+import net.minecraft.client.gl.GlUniform;
 import net.minecraft.client.gl.VertexBuffer;
 import net.minecraft.client.render.*;
 import net.minecraft.client.render.block.BlockModelRenderer;
@@ -11,144 +14,211 @@ import net.minecraft.client.render.chunk.BlockBufferBuilderStorage;
 import net.minecraft.client.util.math.MatrixStack;
 import net.minecraft.fluid.FluidState;
 import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkSectionPos;
 import net.minecraft.util.math.Vec3i;
+import net.minecraft.util.math.random.Random;
 import net.minecraft.world.BlockRenderView;
 import net.minecraft.world.biome.ColorResolver;
+import net.remmintan.mods.minefortress.core.ModLogger;
 import net.remmintan.mods.minefortress.core.interfaces.blueprints.BlueprintDataLayer;
 import net.remmintan.mods.minefortress.core.interfaces.blueprints.IStructureBlockData;
+import net.remmintan.panama.MeshWorkers;
 import net.remmintan.panama.RenderHelper;
 import net.remmintan.panama.view.BlueprintBlockRenderView;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.joml.Vector3f;
 
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
 import java.util.function.BiFunction;
-import java.util.function.Function;
-import java.util.stream.Collectors;
 
+/**
+ * The blueprint is compiled on the mesh workers in 16x16x16 sections, every section keeps the vertices
+ * relative to its own origin like the vanilla chunk sections do, so the blueprints aren't limited to 16x16x16 anymore.
+ */
 public class BuiltBlueprint implements BuiltModel {
 
-    private final Set<RenderLayer> initializedLayers = new HashSet<>();
-    private final Set<RenderLayer> nonEmptyLayers = new HashSet<>();
-    private final Map<RenderLayer, VertexBuffer> vertexBuffers = RenderLayer
-            .getBlockLayers()
-            .stream()
-            .collect(Collectors.toMap(Function.identity(), it -> new VertexBuffer(VertexBuffer.Usage.STATIC)));
-    private final Map<RenderLayer, BufferBuilder.BuiltBuffer> builtBuffers = new HashMap<>();
+    private final List<SectionMesh> sections = new ArrayList<>();
 
+    private CompletableFuture<Void> compilation;
+    private volatile boolean closed = false;
+    private long vertexBytes = 0;
 
-    private CompletableFuture<Void> uploadsFuture;
+    private final Map<BlockPos, BlockState> blocks;
     private final BlockRenderView blueprintData;
     private final Vec3i size;
 
     public BuiltBlueprint(IStructureBlockData blockData, BiFunction<BlockState, ColorResolver, Integer> colorProvider) {
         if(blockData == null) throw new IllegalArgumentException("Block data cannot be null");
         if(!blockData.hasLayer(BlueprintDataLayer.GENERAL)) throw new IllegalArgumentException("Block data must have a general layer");
-        this.blueprintData = new BlueprintBlockRenderView(blockData.getLayer(BlueprintDataLayer.GENERAL), colorProvider);
+        this.blocks = blockData.getLayer(BlueprintDataLayer.GENERAL);
         this.size = blockData.getSize();
+        this.blueprintData = new BlueprintBlockRenderView(blocks, Math.max(16, size.getY()), colorProvider);
     }
 
-    public void build(BlockBufferBuilderStorage blockBufferBuilders) {
-        render(blockBufferBuilders);
-        uploadBuffers();
+    public void build() {
+        compilation = CompletableFuture
+                .supplyAsync(this::splitBySections, MeshWorkers.getExecutor())
+                .thenCompose(split -> {
+                    final var sectionFutures = new ArrayList<CompletableFuture<Void>>();
+                    for (Long2ObjectMap.Entry<List<BlockPos>> entry : split.long2ObjectEntrySet()) {
+                        final var origin = ChunkSectionPos.from(entry.getLongKey()).getMinPos();
+                        final var positions = entry.getValue();
+                        sectionFutures.add(MeshWorkers.buildWithBlocks(builders -> compileSection(builders, origin, positions)));
+                    }
+                    return CompletableFuture.allOf(sectionFutures.toArray(CompletableFuture[]::new));
+                })
+                .whenComplete((it, e) -> {
+                    if(e != null) ModLogger.LOGGER.error("Failed to compile the blueprint model", e);
+                });
     }
 
     public boolean buffersUploaded() {
-        return uploadsFuture.isDone();
+        return compilation != null && compilation.isDone();
+    }
+
+    // an estimate of the video memory taken by the uploaded sections
+    public long getVertexBytes() {
+        return vertexBytes;
     }
 
     @Override
-    public VertexBuffer getBuffer(RenderLayer layer) {
-        return vertexBuffers.get(layer);
+    public void draw(RenderLayer layer, @Nullable GlUniform chunkOffset, Vector3f origin) {
+        for (SectionMesh section : sections) {
+            final var buffer = section.buffers.get(layer);
+            if(buffer == null) continue;
+            if(chunkOffset != null) {
+                chunkOffset.set(new Vector3f(origin).add(section.origin.getX(), section.origin.getY(), section.origin.getZ()));
+                chunkOffset.upload();
+            }
+            buffer.bind();
+            buffer.draw();
+        }
     }
 
     @Override
     public void close() {
-        this.vertexBuffers.values().forEach(VertexBuffer::close);
+        this.closed = true;
+        this.sections.forEach(it -> it.buffers.values().forEach(VertexBuffer::close));
+        this.sections.clear();
     }
 
     @Override
     public boolean hasLayer(RenderLayer layer) {
-        return this.buffersUploaded() && nonEmptyLayers.contains(layer);
+        for (SectionMesh section : sections) {
+            if(section.buffers.containsKey(layer)) return true;
+        }
+        return false;
     }
 
     public Vec3i getSize() {
         return size;
     }
 
-    private void uploadBuffers() {
-        final var uploadFutures = initializedLayers
-                .stream()
-                .map(layer -> {
-                    final var bufferBuilder = builtBuffers.get(layer);
-                    final var vertexBuffer = vertexBuffers.get(layer);
-
-                    return RenderHelper.scheduleUpload(bufferBuilder, vertexBuffer);
-                })
-                .toArray(CompletableFuture[]::new);
+    private Long2ObjectMap<List<BlockPos>> splitBySections() {
+        final var split = new Long2ObjectOpenHashMap<List<BlockPos>>();
+        for (BlockPos pos : blocks.keySet()) {
+            split.computeIfAbsent(ChunkSectionPos.toLong(pos), it -> new ArrayList<>()).add(pos);
+        }
+        return split;
+    }
 
-        uploadsFuture = CompletableFuture.allOf(uploadFutures);
+    private CompletableFuture<Void> compileSection(BlockBufferBuilderStorage blockBufferBuilders, BlockPos origin, List<BlockPos> positions) {
+        if(closed) return CompletableFuture.completedFuture(null);
+        final var builtBuffers = render(blockBufferBuilders, positions);
+        return CompletableFuture.runAsync(() -> uploadSection(origin, builtBuffers), getClient());
     }
 
+    // runs on the render thread, so the sections are only ever touched there
+    private void uploadSection(BlockPos origin, Map<RenderLayer, BufferBuilder.BuiltBuffer> builtBuffers) {
+        if(closed) {
+            builtBuffers.values().forEach(BufferBuilder.BuiltBuffer::release);
+            return;
+        }
+
+        final var section = new SectionMesh(origin);
+        for (Map.Entry<RenderLayer, BufferBuilder.BuiltBuffer> entry : builtBuffers.entrySet()) {
+            final var builtBuffer = entry.getValue();
+            final var parameters = builtBuffer.getParameters();
+            vertexBytes += (long) parameters.vertexCount() * parameters.format().getVertexSizeByte();
 
-    private void render(BlockBufferBuilderStorage blockBufferBuilders) {
-        BlockPos minPos = BlockPos.ORIGIN;
-        BlockPos maxPos = minPos.add(15, 15,15);
+            final var vertexBuffer = new VertexBuffer(VertexBuffer.Usage.STATIC);
+            RenderHelper.upload(builtBuffer, vertexBuffer);
+            section.buffers.put(entry.getKey(), vertexBuffer);
+        }
+        sections.add(section);
+    }
+
+    private Map<RenderLayer, BufferBuilder.BuiltBuffer> render(BlockBufferBuilderStorage blockBufferBuilders, List<BlockPos> positions) {
+        final Set<RenderLayer> initializedLayers = new HashSet<>();
 
         MatrixStack matrixStack = new MatrixStack();
+        final Random random = Random.create();
 
         BlockModelRenderer.enableBrightnessCache();
         final BlockRenderManager blockRenderManager = getClient().getBlockRenderManager();
 
-        for(BlockPos pos : BlockPos.iterate(minPos, maxPos)) {
-            final BlockState blockState = blueprintData.getBlockState(pos);
-            // TODO: add block entity rendering
-            final FluidState fluidState = blueprintData.getFluidState(pos);
-            if(!fluidState.isEmpty()) {
-                final RenderLayer fluidRenderLayer = RenderLayers.getFluidLayer(fluidState);
-                final BufferBuilder bufferBuilder = blockBufferBuilders.get(fluidRenderLayer);
-                initLayer(fluidRenderLayer, bufferBuilder);
+        try {
+            for(BlockPos pos : positions) {
+                final BlockState blockState = blueprintData.getBlockState(pos);
+                // TODO: add block entity rendering
+                final FluidState fluidState = blueprintData.getFluidState(pos);
+                if(!fluidState.isEmpty()) {
+                    final RenderLayer fluidRenderLayer = RenderLayers.getFluidLayer(fluidState);
+                    final BufferBuilder bufferBuilder = blockBufferBuilders.get(fluidRenderLayer);
+                    initLayer(initializedLayers, fluidRenderLayer, bufferBuilder);
 
-                blockRenderManager.renderFluid(pos, blueprintData, bufferBuilder, blockState, fluidState);
-            }
+                    blockRenderManager.renderFluid(pos, blueprintData, bufferBuilder, blockState, fluidState);
+                }
 
-            if(blockState.getRenderType() == BlockRenderType.INVISIBLE) continue;
+                if(blockState.getRenderType() == BlockRenderType.INVISIBLE) continue;
 
-            final RenderLayer blockLayer = RenderLayers.getBlockLayer(blockState);
-            final BufferBuilder bufferBuilder = blockBufferBuilders.get(blockLayer);
-            initLayer(blockLayer, bufferBuilder);
+                final RenderLayer blockLayer = RenderLayers.getBlockLayer(blockState);
+                final BufferBuilder bufferBuilder = blockBufferBuilders.get(blockLayer);
+                initLayer(initializedLayers, blockLayer, bufferBuilder);
 
-            matrixStack.push();
-            matrixStack.translate(pos.getX() & 0xF, pos.getY() & 0xF, pos.getZ() & 0xF);
+                matrixStack.push();
+                matrixStack.translate(pos.getX() & 0xF, pos.getY() & 0xF, pos.getZ() & 0xF);
 
-            final var clientWorld = getClient().world;
-            if(clientWorld != null) {
-                blockRenderManager.renderBlock(blockState, pos, blueprintData, matrixStack, bufferBuilder,  true, clientWorld.random);
+                blockRenderManager.renderBlock(blockState, pos, blueprintData, matrixStack, bufferBuilder, true, random);
+                matrixStack.pop();
             }
-            nonEmptyLayers.add(blockLayer);
-            matrixStack.pop();
+        } finally {
+            BlockModelRenderer.disableBrightnessCache();
         }
 
+        final Map<RenderLayer, BufferBuilder.BuiltBuffer> builtBuffers = new HashMap<>();
         for (RenderLayer layer : initializedLayers) {
-            builtBuffers.put(layer, blockBufferBuilders.get(layer).end());
+            final var builtBuffer = blockBufferBuilders.get(layer).endNullable();
+            if(builtBuffer != null) builtBuffers.put(layer, builtBuffer);
         }
-
-        BlockModelRenderer.disableBrightnessCache();
+        return builtBuffers;
     }
 
-    private void initLayer(RenderLayer renderLayer, BufferBuilder bufferBuilder) {
+    private static void initLayer(Set<RenderLayer> initializedLayers, RenderLayer renderLayer, BufferBuilder bufferBuilder) {
         if(initializedLayers.add(renderLayer))
             beginBufferBuilding(bufferBuilder);
     }
 
-
     @NotNull
-    private MinecraftClient getClient() {
+    private static MinecraftClient getClient() {
         return MinecraftClient.getInstance();
     }
 
-    private void beginBufferBuilding(BufferBuilder buffer) {
+    private static void beginBufferBuilding(BufferBuilder buffer) {
         buffer.begin(VertexFormat.DrawMode.QUADS, VertexFormats.POSITION_COLOR_TEXTURE_LIGHT_NORMAL);
     }
 
+    private static final class SectionMesh {
+
+        private final BlockPos origin;
+        private final Map<RenderLayer, VertexBuffer> buffers = new HashMap<>();
+
+        private SectionMesh(BlockPos origin) {
+            this.origin = origin;
+        }
+
+    }
+
 }
@@ -2,6 +2,7 @@ package net.remmintan.panama.model;
 
 import net.minecraft.block.BlockState;
 import net.minecraft.client.MinecraftClient;
+import net.minecraft.client.gl.GlUniform;
 import net.minecraft.client.gl.VertexBuffer;
 import net.minecraft.client.render.*;
 import net.minecraft.client.render.block.BlockModelRenderer;
@@ -12,6 +13,8 @@ import net.minecraft.util.math.BlockPos;
 import net.remmintan.panama.RenderHelper;
 import net.remmintan.panama.view.CampfireRenderView;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.joml.Vector3f;
 
 import java.util.HashMap;
 import java.util.HashSet;
@@ -46,8 +49,10 @@ public class BuiltCampfire implements BuiltModel {
     }
 
     @Override
-    public VertexBuffer getBuffer(RenderLayer layer) {
-        return vertexBuffers.get(layer);
+    public void draw(RenderLayer layer, @Nullable GlUniform chunkOffset, Vector3f origin) {
+        final VertexBuffer buffer = vertexBuffers.get(layer);
+        buffer.bind();
+        buffer.draw();
     }
 
     @Override
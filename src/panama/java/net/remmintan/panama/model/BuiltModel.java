@@ -1,12 +1,18 @@
 package net.remmintan.panama.model;
 
-import net.minecraft.client.gl.VertexBuffer;
+import net.minecraft.client.gl.GlUniform;
 import net.minecraft.client.render.RenderLayer;
+import org.jetbrains.annotations.Nullable;
+import org.joml.Vector3f;
 
 public interface BuiltModel {
 
     boolean hasLayer(RenderLayer layer);
-    VertexBuffer getBuffer(RenderLayer layer);
+
+    // expects the shader to be set up already and the chunk offset to be set to the origin,
+    // models made of several parts can move the offset for each of them
+    void draw(RenderLayer layer, @Nullable GlUniform chunkOffset, Vector3f origin);
+
     void close();
 
 }
@@ -5,6 +5,7 @@ import net.minecraft.block.BlockRenderType;
 import net.minecraft.block.BlockState;
 import net.minecraft.block.Blocks;
 import net.minecraft.client.MinecraftClient;
+import net.minecraft.client.gl.GlUniform;
 import net.minecraft.client.gl.VertexBuffer;
 import net.minecraft.client.render.*;
 import net.minecraft.client.render.block.BlockRenderManager;
@@ -24,6 +25,8 @@ import net.remmintan.panama.RenderHelper;
 import net.remmintan.panama.renderer.FortressRenderLayer;
 import net.remmintan.panama.view.SelectionBlockRenderView;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.joml.Vector3f;
 import org.joml.Vector4f;
 
 import java.util.*;
@@ -186,8 +189,10 @@ public class BuiltSelection implements BuiltModel {
     }
 
     @Override
-    public VertexBuffer getBuffer(RenderLayer layer) {
-        return vertexBuffers.get(layer);
+    public void draw(RenderLayer layer, @Nullable GlUniform chunkOffset, Vector3f origin) {
+        final VertexBuffer buffer = vertexBuffers.get(layer);
+        buffer.bind();
+        buffer.draw();
     }
 
     @Override
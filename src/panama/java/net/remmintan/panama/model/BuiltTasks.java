@@ -1,99 +1,268 @@
 package net.remmintan.panama.model;
 
-import net.minecraft.client.MinecraftClient;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import net.minecraft.client.gl.GlUniform;
 import net.minecraft.client.gl.VertexBuffer;
 import net.minecraft.client.render.*;
 import net.minecraft.client.util.math.MatrixStack;
-import net.minecraft.client.world.ClientWorld;
 import net.minecraft.util.math.BlockPos;
-import net.minecraft.util.math.Box;
-import net.minecraft.util.math.Vec3d;
+import net.minecraft.util.math.ChunkSectionPos;
 import net.minecraft.world.World;
+import net.remmintan.mods.minefortress.core.ModLogger;
 import net.remmintan.mods.minefortress.core.interfaces.tasks.IClientTask;
+import net.remmintan.panama.MeshWorkers;
+import org.jetbrains.annotations.Nullable;
+import org.joml.Vector3f;
 import org.joml.Vector4f;
 
-import java.util.HashSet;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
-import java.util.function.BiFunction;
 
 import static net.remmintan.panama.RenderHelper.scheduleUpload;
 
+/**
+ * The outlines of the tasks, split into a separate mesh for every chunk section of every task.
+ * The meshes are built on the mesh workers, only the sections where the blocks have changed are rebuilt.
+ */
 public class BuiltTasks implements BuiltModel {
-    private static final Box BOX = Box.from(new Vec3d(0, 0, 0));
 
-    private final VertexBuffer buffer = new VertexBuffer(VertexBuffer.Usage.STATIC);
-    private final Set<IClientTask> tasks;
-    private BufferBuilder.BuiltBuffer builtBuffer;
+    private final Map<IClientTask, TaskMesh> meshes = new HashMap<>();
 
-    private boolean initialized = false;
-    private boolean notEmpty = false;
+    public void setTasks(Set<IClientTask> tasks) {
+        final var iterator = meshes.entrySet().iterator();
+        while (iterator.hasNext()) {
+            final var entry = iterator.next();
+            if(tasks.contains(entry.getKey())) continue;
+            entry.getValue().close();
+            iterator.remove();
+        }
+
+        for (IClientTask task : tasks) {
+            meshes.computeIfAbsent(task, TaskMesh::new);
+        }
+    }
 
-    private CompletableFuture<Void> upload;
+    public void markBlockChanged(BlockPos pos) {
+        final var sectionKey = ChunkSectionPos.toLong(pos);
+        for (TaskMesh mesh : meshes.values()) {
+            mesh.markDirty(sectionKey);
+        }
+    }
 
-    public BuiltTasks(Set<IClientTask> tasks) {
-        this.tasks = new HashSet<>(tasks);
+    public void markChunkChanged(int chunkX, int chunkZ) {
+        for (TaskMesh mesh : meshes.values()) {
+            mesh.markColumnDirty(chunkX, chunkZ);
+        }
     }
 
-    public void build(BufferBuilder bufferBuilder) {
-        this.render(bufferBuilder);
-        this.upload();
+    public void update(World world) {
+        for (TaskMesh mesh : meshes.values()) {
+            mesh.update(world);
+        }
     }
 
     @Override
     public boolean hasLayer(RenderLayer layer) {
-        return this.upload!=null && this.upload.isDone() && layer == RenderLayer.getLines() && notEmpty;
+        if(layer != RenderLayer.getLines()) return false;
+        for (TaskMesh mesh : meshes.values()) {
+            if(mesh.hasContent()) return true;
+        }
+        return false;
     }
 
     @Override
-    public VertexBuffer getBuffer(RenderLayer layer) {
+    public void draw(RenderLayer layer, @Nullable GlUniform chunkOffset, Vector3f origin) {
         if(layer != RenderLayer.getLines()) throw new IllegalArgumentException("Only lines are supported");
-        return buffer;
+        for (TaskMesh mesh : meshes.values()) {
+            mesh.draw();
+        }
     }
 
     @Override
     public void close() {
-        buffer.close();
+        meshes.values().forEach(TaskMesh::close);
+        meshes.clear();
     }
 
-    private void render(BufferBuilder bufferBuilder) {
-        final MatrixStack matrices = new MatrixStack();
+    // copied on the render thread, the workers never touch the task itself
+    private static long[] copyPositions(IClientTask task) {
+        final var positions = new LongArrayList();
+        for (BlockPos pos : task.getBlockPositions()) {
+            positions.add(pos.asLong());
+        }
+        return positions.toLongArray();
+    }
 
-        for(IClientTask selection: tasks)
-            renderBlock(bufferBuilder, matrices, selection::shouldRenderBlock, selection, selection.getColor());
+    private static Long2ObjectMap<long[]> splitBySections(long[] positions) {
+        final var positionsBySection = new Long2ObjectOpenHashMap<LongArrayList>();
+        for (long position : positions) {
+            final var sectionKey = ChunkSectionPos.asLong(
+                    ChunkSectionPos.getSectionCoord(BlockPos.unpackLongX(position)),
+                    ChunkSectionPos.getSectionCoord(BlockPos.unpackLongY(position)),
+                    ChunkSectionPos.getSectionCoord(BlockPos.unpackLongZ(position))
+            );
+            positionsBySection
+                    .computeIfAbsent(sectionKey, it -> new LongArrayList())
+                    .add(position);
+        }
 
-        if(initialized) {
-            builtBuffer = bufferBuilder.end();
+        final var sections = new Long2ObjectOpenHashMap<long[]>(positionsBySection.size());
+        for (Long2ObjectMap.Entry<LongArrayList> entry : positionsBySection.long2ObjectEntrySet()) {
+            sections.put(entry.getLongKey(), entry.getValue().toLongArray());
         }
+        return sections;
     }
 
-    private void renderBlock(BufferBuilder bufferBuilder, MatrixStack matrices, BiFunction<World, BlockPos, Boolean> shouldRender, IClientTask selection, Vector4f color) {
-        init(bufferBuilder);
-        final var positions = selection.getBlockPositions();
-        for(BlockPos pos: positions) {
-            if(!shouldRender.apply(getWorld(), pos)) continue;
-            matrices.push();
-            matrices.translate(pos.getX(), pos.getY(), pos.getZ());
-            WorldRenderer.drawBox(matrices, bufferBuilder, BOX, color.x(), color.y(), color.z(), color.w());
-            matrices.pop();
-            notEmpty = true;
+    private static final class TaskMesh {
+
+        private final IClientTask task;
+        private final CompletableFuture<Long2ObjectMap<long[]>> split;
+        private final Long2ObjectOpenHashMap<SectionMesh> sections = new Long2ObjectOpenHashMap<>();
+
+        private TaskMesh(IClientTask task) {
+            this.task = task;
+            final var positions = copyPositions(task);
+            this.split = CompletableFuture
+                    .supplyAsync(() -> splitBySections(positions), MeshWorkers.getExecutor())
+                    .whenComplete((it, e) -> {
+                        if(e != null) ModLogger.LOGGER.error("Failed to split the task outline into sections", e);
+                    });
         }
-    }
 
-    private void init(BufferBuilder bufferBuilder) {
-        if(!initialized) {
-            this.initialized = true;
-            bufferBuilder.begin(VertexFormat.DrawMode.LINES, VertexFormats.LINES);
+        void update(World world) {
+            if(sections.isEmpty()) {
+                if(!split.isDone() || split.isCompletedExceptionally()) return;
+                for (Long2ObjectMap.Entry<long[]> entry : split.join().long2ObjectEntrySet()) {
+                    sections.put(entry.getLongKey(), new SectionMesh(entry.getValue()));
+                }
+            }
+
+            for (SectionMesh section : sections.values()) {
+                section.update(task, world);
+            }
+        }
+
+        // the sections are created dirty, so the changes before the split is done don't matter
+        void markDirty(long sectionKey) {
+            final var section = sections.get(sectionKey);
+            if(section != null) section.dirty = true;
         }
-    }
 
-    private void upload(){
-        if(initialized) {
-            this.upload = scheduleUpload(builtBuffer, buffer);
+        void markColumnDirty(int chunkX, int chunkZ) {
+            for (Long2ObjectMap.Entry<SectionMesh> entry : sections.long2ObjectEntrySet()) {
+                final var key = entry.getLongKey();
+                if(ChunkSectionPos.unpackX(key) == chunkX && ChunkSectionPos.unpackZ(key) == chunkZ) {
+                    entry.getValue().dirty = true;
+                }
+            }
         }
+
+        boolean hasContent() {
+            for (SectionMesh section : sections.values()) {
+                if(section.hasContent()) return true;
+            }
+            return false;
+        }
+
+        void draw() {
+            for (SectionMesh section : sections.values()) {
+                if(!section.hasContent()) continue;
+                section.buffer.bind();
+                section.buffer.draw();
+            }
+        }
+
+        void close() {
+            split.cancel(false);
+            sections.values().forEach(it -> it.buffer.close());
+            sections.clear();
+        }
+
     }
 
-    private ClientWorld getWorld() {
-        return MinecraftClient.getInstance().world;
+    private static final class SectionMesh {
+
+        private final long[] positions;
+        private final VertexBuffer buffer = new VertexBuffer(VertexBuffer.Usage.STATIC);
+
+        private CompletableFuture<Boolean> pending;
+        private boolean dirty = true;
+        private boolean uploaded = false;
+        private boolean notEmpty = false;
+
+        private SectionMesh(long[] positions) {
+            this.positions = positions;
+        }
+
+        // the previous mesh is drawn until the new one is uploaded, a section is never built twice at once
+        void update(IClientTask task, World world) {
+            if(pending != null) {
+                if(!pending.isDone()) return;
+                if(!pending.isCompletedExceptionally()) {
+                    notEmpty = pending.join();
+                    uploaded = true;
+                }
+                pending = null;
+            }
+
+            if(!dirty) return;
+            dirty = false;
+            // the world is read here on the render thread, the workers get only the blocks to outline
+            final var visiblePositions = getVisiblePositions(task, world);
+            if(visiblePositions.length == 0) {
+                pending = CompletableFuture.completedFuture(false);
+                return;
+            }
+            final var color = new Vector4f(task.getColor());
+            pending = MeshWorkers
+                    .buildWithLines(bufferBuilder -> build(bufferBuilder, visiblePositions, color))
+                    .whenComplete((it, e) -> {
+                        if(e != null) ModLogger.LOGGER.error("Failed to build the task outline", e);
+                    });
+        }
+
+        private long[] getVisiblePositions(IClientTask task, World world) {
+            final var visiblePositions = new LongArrayList(positions.length);
+            final var pos = new BlockPos.Mutable();
+            for (long position : positions) {
+                if(task.shouldRenderBlock(world, pos.set(position)))
+                    visiblePositions.add(position);
+            }
+            return visiblePositions.toLongArray();
+        }
+
+        boolean hasContent() {
+            return uploaded && notEmpty && !buffer.isClosed();
+        }
+
+        private CompletableFuture<Boolean> build(BufferBuilder bufferBuilder, long[] visiblePositions, Vector4f color) {
+            final var builtBuffer = render(bufferBuilder, visiblePositions, color);
+            if(builtBuffer == null) return CompletableFuture.completedFuture(false);
+            return scheduleUpload(builtBuffer, buffer).thenApply(it -> true);
+        }
+
+        private static BufferBuilder.BuiltBuffer render(BufferBuilder bufferBuilder, long[] visiblePositions, Vector4f color) {
+            final MatrixStack matrices = new MatrixStack();
+            final var pos = new BlockPos.Mutable();
+
+            bufferBuilder.begin(VertexFormat.DrawMode.LINES, VertexFormats.LINES);
+            for (long position : visiblePositions) {
+                pos.set(position);
+                WorldRenderer.drawBox(
+                        matrices,
+                        bufferBuilder,
+                        pos.getX(), pos.getY(), pos.getZ(),
+                        pos.getX() + 1, pos.getY() + 1, pos.getZ() + 1,
+                        color.x(), color.y(), color.z(), color.w()
+                );
+            }
+            return bufferBuilder.endNullable();
+        }
+
     }
+
 }
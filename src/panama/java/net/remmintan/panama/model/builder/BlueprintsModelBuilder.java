@@ -2,7 +2,6 @@ package net.remmintan.panama.model.builder;
 
 import net.minecraft.client.MinecraftClient;
 import net.minecraft.client.network.ClientPlayerEntity;
-import net.minecraft.client.render.chunk.BlockBufferBuilderStorage;
 import net.minecraft.client.world.ClientWorld;
 import net.minecraft.util.BlockRotation;
 import net.minecraft.util.math.BlockPos;
@@ -11,22 +10,24 @@ import net.remmintan.mods.minefortress.core.interfaces.blueprints.IStructureBloc
 import net.remmintan.panama.model.BuiltBlueprint;
 import org.jetbrains.annotations.NotNull;
 
-import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.function.Supplier;
 
 public class BlueprintsModelBuilder {
 
-    private final BlockBufferBuilderStorage blockBufferBuilders;
+    private static final int MAX_BUILT_BLUEPRINTS = 64;
+    // rough video memory budget, counted in the vertex bytes of the uploaded sections
+    private static final long MAX_VERTEX_BYTES = 256L * 1024 * 1024;
+
     private final Supplier<IBlockDataProvider> blockDataManagerSupplier;
 
-    private final Map<String, BuiltBlueprint> builtBlueprints = new HashMap<>();
+    // access ordered, so the iteration starts from the least recently used blueprint
+    private final LinkedHashMap<String, BuiltBlueprint> builtBlueprints = new LinkedHashMap<>(16, 0.75f, true);
     private final HashSet<BuiltBlueprint> blueprintsToClose = new HashSet<>();
 
-    public BlueprintsModelBuilder(BlockBufferBuilderStorage blockBufferBuilders,
-                                  Supplier<IBlockDataProvider> blockDataProviderSupplier) {
-        this.blockBufferBuilders = blockBufferBuilders;
+    public BlueprintsModelBuilder(Supplier<IBlockDataProvider> blockDataProviderSupplier) {
         this.blockDataManagerSupplier = blockDataProviderSupplier;
     }
 
@@ -45,10 +46,31 @@ public class BlueprintsModelBuilder {
         String key = getKey(fileName, rotation);
         if(!this.builtBlueprints.containsKey(key)) {
             final IStructureBlockData blockData = this.blockDataManagerSupplier.get().getBlockData(fileName, rotation);
-            final BuiltBlueprint builtBlueprint = new BuiltBlueprint(blockData, (p, c) -> getWorld().getColor(getBlockPos(), c));
-            builtBlueprint.build(this.blockBufferBuilders);
+            // the colors are resolved on the mesh workers, they must not look up the current world or player
+            final ClientWorld world = getWorld();
+            final BlockPos colorPos = getBlockPos();
+            final BuiltBlueprint builtBlueprint = new BuiltBlueprint(blockData, (p, c) -> world.getColor(colorPos, c));
+            builtBlueprint.build();
             this.builtBlueprints.put(key, builtBlueprint);
         }
+        evictOverBudget(key);
+    }
+
+    // the evicted blueprints are closed on the next build, they might still be drawn in this frame
+    private void evictOverBudget(String usedKey) {
+        long vertexBytes = 0;
+        for (BuiltBlueprint blueprint : builtBlueprints.values()) {
+            vertexBytes += blueprint.getVertexBytes();
+        }
+
+        final var iterator = builtBlueprints.entrySet().iterator();
+        while (iterator.hasNext() && (builtBlueprints.size() > MAX_BUILT_BLUEPRINTS || vertexBytes > MAX_VERTEX_BYTES)) {
+            final var entry = iterator.next();
+            if(entry.getKey().equals(usedKey)) continue;
+            vertexBytes -= entry.getValue().getVertexBytes();
+            this.blueprintsToClose.add(entry.getValue());
+            iterator.remove();
+        }
     }
 
     @NotNull
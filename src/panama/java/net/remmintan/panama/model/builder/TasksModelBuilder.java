@@ -1,37 +1,43 @@
 package net.remmintan.panama.model.builder;
 
-import net.minecraft.client.render.BufferBuilder;
-import net.remmintan.mods.minefortress.core.interfaces.tasks.IClientTask;
+import net.minecraft.client.MinecraftClient;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
 import net.remmintan.mods.minefortress.core.interfaces.tasks.ITasksModelBuilderInfoProvider;
 import net.remmintan.panama.model.BuiltTasks;
 
-import java.util.Set;
 import java.util.function.Supplier;
 
 public class TasksModelBuilder {
 
-    private final BufferBuilder bufferBuilder;
     private final Supplier<ITasksModelBuilderInfoProvider> tasksHolderSupplier;
 
-    private BuiltTasks builtTasks;
+    private final BuiltTasks builtTasks = new BuiltTasks();
 
-    public TasksModelBuilder(BufferBuilder bufferBuilder, Supplier<ITasksModelBuilderInfoProvider> tasksHolderSupplier) {
-        this.bufferBuilder = bufferBuilder;
+    public TasksModelBuilder(Supplier<ITasksModelBuilderInfoProvider> tasksHolderSupplier) {
         this.tasksHolderSupplier = tasksHolderSupplier;
     }
 
     public void build() {
         final ITasksModelBuilderInfoProvider tasksHolder = getTasksHolder();
 
-        if(!tasksHolder.isNeedRebuild()) return;
-        tasksHolder.setNeedRebuild(false);
+        if(tasksHolder.isNeedRebuild()) {
+            tasksHolder.setNeedRebuild(false);
+            // only the meshes of the added tasks are built, the meshes of the removed ones are closed
+            builtTasks.setTasks(tasksHolder.getAllSelections());
+        }
 
-        if(this.builtTasks != null)
-            builtTasks.close();
+        final var world = MinecraftClient.getInstance().world;
+        if(world != null)
+            builtTasks.update(world);
+    }
+
+    public void markBlockChanged(BlockPos pos) {
+        builtTasks.markBlockChanged(pos);
+    }
 
-        final Set<IClientTask> allBuildTasks = tasksHolder.getAllSelections();
-        builtTasks = new BuiltTasks(allBuildTasks);
-        builtTasks.build(bufferBuilder);
+    public void markChunkChanged(ChunkPos pos) {
+        builtTasks.markChunkChanged(pos.x, pos.z);
     }
 
     public BuiltTasks getBuiltTasks() {
@@ -39,8 +45,7 @@ public class TasksModelBuilder {
     }
 
     public void close() {
-        if(builtTasks != null)
-            builtTasks.close();
+        builtTasks.close();
     }
 
     private ITasksModelBuilderInfoProvider getTasksHolder() {
@@ -99,15 +99,13 @@ public abstract class AbstractCustomRenderer {
             final BlockPos renderTargetPosition = renderTargetPositionOpt.get();
             final BuiltModel builtModel = builtModelOpt.get();
 
+            final Vector3f targetOffset = new Vector3f(renderTargetPosition.getX(), renderTargetPosition.getY(), renderTargetPosition.getZ());
             if(offset != null) {
-                final Vector3f targetOffset = new Vector3f(renderTargetPosition.getX(), renderTargetPosition.getY(), renderTargetPosition.getZ());
                 offset.set(targetOffset);
                 offset.upload();
             }
 
-            final VertexBuffer buffer = builtModel.getBuffer(layer);
-            buffer.bind();
-            buffer.draw();
+            builtModel.draw(layer, offset, targetOffset);
         }
 
         if(offset != null) {
@@ -7,7 +7,8 @@ import net.minecraft.client.gl.ShaderProgram;
 import net.minecraft.client.gl.VertexBuffer;
 import net.minecraft.client.render.DiffuseLighting;
 import net.minecraft.client.render.RenderLayer;
-import net.minecraft.client.render.chunk.BlockBufferBuilderStorage;
+import net.minecraft.client.render.VertexConsumer;
+import net.minecraft.client.render.WorldRenderer;
 import net.minecraft.client.util.math.MatrixStack;
 import net.minecraft.util.BlockRotation;
 import net.minecraft.util.math.BlockPos;
@@ -36,9 +37,9 @@ public final class BlueprintRenderer extends AbstractCustomRenderer {
 
     private final BlueprintsModelBuilder blueprintsModelBuilder;
 
-    public BlueprintRenderer(Supplier<IBlockDataProvider> blockDataProviderSupplier, MinecraftClient client, BlockBufferBuilderStorage blockBufferBuilderStorage) {
+    public BlueprintRenderer(Supplier<IBlockDataProvider> blockDataProviderSupplier, MinecraftClient client) {
         super(client);
-        blueprintsModelBuilder  = new BlueprintsModelBuilder(blockBufferBuilderStorage, blockDataProviderSupplier);
+        blueprintsModelBuilder  = new BlueprintsModelBuilder(blockDataProviderSupplier);
     }
 
     @Override
@@ -72,6 +73,31 @@ public final class BlueprintRenderer extends AbstractCustomRenderer {
         return getStructureRenderInfoProvider().getStructureRenderPos();
     }
 
+    // a box of the blueprint size is drawn in place of the blueprint while it's compiling
+    public void renderPlaceholder(MatrixStack matrices, VertexConsumer vertexConsumer, double cameraX, double cameraY, double cameraZ) {
+        if(!shouldRender()) return;
+        final Optional<BlockPos> renderTargetPositionOpt = getRenderTargetPosition();
+        if(renderTargetPositionOpt.isEmpty()) return;
+
+        final IBlueprintMetadata selectedStructure = getStructureRenderInfoProvider().getSelectedStructure();
+        final BuiltBlueprint builtBlueprint = blueprintsModelBuilder.getOrBuildBlueprint(selectedStructure.getId(), selectedStructure.getRotation());
+        if(builtBlueprint == null || builtBlueprint.buffersUploaded()) return;
+
+        final BlockPos pos = renderTargetPositionOpt.get();
+        final Vec3i size = builtBlueprint.getSize();
+        final Vector3f color = getColorModulator();
+        final double x = pos.getX() - cameraX;
+        final double y = pos.getY() - cameraY;
+        final double z = pos.getZ() - cameraZ;
+        WorldRenderer.drawBox(
+                matrices,
+                vertexConsumer,
+                x, y, z,
+                x + size.getX(), y + size.getY(), z + size.getZ(),
+                color.x(), color.y(), color.z(), 1f
+        );
+    }
+
     public void renderBlueprintPreview(MatrixStack matrices, String fileName, BlockRotation blockRotation) {
         final BuiltBlueprint builtBlueprint = getBuiltBlueprint(fileName, blockRotation);
 
@@ -217,9 +243,7 @@ public final class BlueprintRenderer extends AbstractCustomRenderer {
                 chunkOffset.upload();
             }
 
-            final VertexBuffer buffer = builtBlueprint.getBuffer(renderLayer);
-            buffer.bind();
-            buffer.draw();
+            builtBlueprint.draw(renderLayer, chunkOffset, new Vector3f());
         }
 
         if(chunkOffset != null) chunkOffset.set(new Vector3f());
@@ -1,8 +1,9 @@
 package net.remmintan.panama.renderer;
 
 import net.minecraft.client.MinecraftClient;
-import net.minecraft.client.render.BufferBuilder;
 import net.minecraft.client.render.RenderLayer;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
 import net.remmintan.mods.minefortress.core.interfaces.tasks.ITasksModelBuilderInfoProvider;
 import net.remmintan.mods.minefortress.core.interfaces.tasks.ITasksRenderInfoProvider;
 import net.remmintan.panama.model.BuiltModel;
@@ -20,12 +21,11 @@ public class TasksRenderer extends AbstractCustomRenderer {
 
     public TasksRenderer(
          MinecraftClient client,
-         BufferBuilder bufferBuilder,
          Supplier<ITasksRenderInfoProvider> tasksHolderSupplier,
          Supplier<ITasksModelBuilderInfoProvider> tasksModelBuilderInfoProviderSupplier
     ) {
         super(client);
-        modelBuilder = new TasksModelBuilder(bufferBuilder, tasksModelBuilderInfoProviderSupplier);
+        modelBuilder = new TasksModelBuilder(tasksModelBuilderInfoProviderSupplier);
         this.tasksHolderSupplier = tasksHolderSupplier;
     }
 
@@ -45,6 +45,14 @@ public class TasksRenderer extends AbstractCustomRenderer {
         modelBuilder.build();
     }
 
+    public void markBlockChanged(BlockPos pos) {
+        modelBuilder.markBlockChanged(pos);
+    }
+
+    public void markChunkChanged(ChunkPos pos) {
+        modelBuilder.markChunkChanged(pos);
+    }
+
     @Override
     public void close() {
         modelBuilder.close();
@@ -9,7 +9,6 @@ import net.minecraft.util.hit.HitResult;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.math.Vec3i;
 import net.minecraft.world.World;
-import net.remmintan.gobi.helpers.TreeBlocks;
 import net.remmintan.gobi.helpers.TreeHelper;
 import net.remmintan.mods.minefortress.core.interfaces.selections.ClickType;
 import net.remmintan.mods.minefortress.core.utils.CoreModUtils;
@@ -140,13 +139,9 @@ public class TreeSelection extends Selection {
     private void updateTreeData(World world) {
         this.selectedTreeBlocks.clear();
         for(BlockPos root: new ArrayList<>(treeRoots)) {
-            final var treeBlocks = TreeHelper.getTreeBlocks(root, world);
-            if(treeBlocks.isEmpty()){
+            // the blocks go straight to the selection, no lists are created per tree
+            if(!TreeHelper.collectTreeBlocks(root, world, selectedTreeBlocks, selectedTreeBlocks)){
                 treeRoots.remove(root);
-            } else {
-                final TreeBlocks tree = treeBlocks.get();
-                this.selectedTreeBlocks.addAll(tree.getTreeBlocks());
-                this.selectedTreeBlocks.addAll(tree.getLeavesBlocks());
             }
         }
     }
@@ -1,5 +1,7 @@
 package net.remmintan.gobi.helpers;
 
+import it.unimi.dsi.fastutil.longs.LongArrayFIFOQueue;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
 import net.minecraft.block.BlockState;
 import net.minecraft.block.Blocks;
 import net.minecraft.block.LeavesBlock;
@@ -7,6 +9,7 @@ import net.minecraft.entity.Entity;
 import net.minecraft.registry.tag.BlockTags;
 import net.minecraft.server.world.ServerWorld;
 import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.BlockView;
 import net.minecraft.world.World;
 import net.minecraft.world.event.GameEvent;
 import net.remmintan.mods.minefortress.core.interfaces.entities.pawns.IWorkerPawn;
@@ -19,7 +22,10 @@ import java.util.Optional;
 
 public class TreeHelper {
 
-    public static Optional<TreeInfo> checkIfTree(BlockPos treeRoot, World world) {
+    private static final int MAX_TREE_BLOCKS = 4096;
+    private static final ThreadLocal<Traversal> TRAVERSAL = ThreadLocal.withInitial(Traversal::new);
+
+    public static Optional<TreeInfo> checkIfTree(BlockPos treeRoot, BlockView world) {
         int logCount = 0;
         int leavesCount = 0;
 
@@ -62,19 +68,26 @@ public class TreeHelper {
         return blockState.isIn(BlockTags.LEAVES)  || blockState.getBlock() instanceof LeavesBlock;
     }
 
-    public static Optional<TreeBlocks> getTreeBlocks(BlockPos root, World world) {
-        final Optional<TreeInfo> treeInfoOpt = checkIfTree(root, world);
-        if(treeInfoOpt.isPresent()) {
-            BlockState rootBlockState = world.getBlockState(root);
-            final ArrayList<BlockPos> treeBlocks = new ArrayList<>();
-            final ArrayList<BlockPos> leavesBlocks = new ArrayList<>();
-            updateTreeDataForOneTree(world, treeBlocks, leavesBlocks, root, rootBlockState, root);
+    public static Optional<TreeBlocks> getTreeBlocks(BlockPos root, BlockView world) {
+        final ArrayList<BlockPos> treeBlocks = new ArrayList<>();
+        final ArrayList<BlockPos> leavesBlocks = new ArrayList<>();
+        if(collectTreeBlocks(root, world, treeBlocks, leavesBlocks)) {
             return Optional.of(new TreeBlocks(treeBlocks, leavesBlocks));
         } else {
             return Optional.empty();
         }
     }
 
+    // appends the blocks of the tree to the given lists, so the callers can reuse them between the trees
+    public static boolean collectTreeBlocks(BlockPos root, BlockView world, List<BlockPos> treeBlocks, List<BlockPos> leavesBlocks) {
+        final Optional<TreeInfo> treeInfoOpt = checkIfTree(root, world);
+        if(treeInfoOpt.isEmpty()) return false;
+
+        BlockState rootBlockState = world.getBlockState(root);
+        updateTreeDataForOneTree(world, treeBlocks, leavesBlocks, rootBlockState, root);
+        return true;
+    }
+
     public static Optional<BlockPos> findRootDownFromLog(BlockPos start, World world) {
         BlockPos cursor = start;
         BlockState cursorState;
@@ -114,30 +127,48 @@ public class TreeHelper {
         return Optional.empty();
     }
 
-    private static void updateTreeDataForOneTree(World world, List<BlockPos> treeBlocks, List<BlockPos> leavesBlocks, BlockPos cursor, BlockState rootBlockState, BlockPos root) {
+    // breadth first, so the big jungle and dark oak trees can't overflow the stack
+    private static void updateTreeDataForOneTree(BlockView world, List<BlockPos> treeBlocks, List<BlockPos> leavesBlocks, BlockState rootBlockState, BlockPos root) {
         if(!isLog(rootBlockState)) return;
-        BlockPos areaStart = new BlockPos(cursor.getX() - 1, cursor.getY(), cursor.getZ() - 1);
-        BlockPos areaEnd = new BlockPos(cursor.getX() + 1, cursor.getY() + 1, cursor.getZ() + 1);
-        List<BlockPos> neighbors = new ArrayList<>();
-        for(BlockPos pos: BlockPos.iterate(areaStart, areaEnd)) {
-            pos = pos.toImmutable();
-            if(treeBlocks.contains(pos) || leavesBlocks.contains(pos)) continue;
-            final BlockState blockState = world.getBlockState(pos);
-            if(rootBlockState.equals(blockState)) {
-                treeBlocks.add(pos);
-                neighbors.add(pos);
-            } else if(isLeaves(blockState)) {
-                final double distanceToRoot = Math.sqrt(Math.pow(pos.getX() - root.getX(), 2) + Math.pow(pos.getZ() - root.getZ(), 2));
-                if(distanceToRoot <= 3) {
-                    leavesBlocks.add(pos);
-                    neighbors.add(pos);
+        final var traversal = TRAVERSAL.get();
+        final var visited = traversal.visited;
+        final var queue = traversal.queue;
+        final var mutable = traversal.mutable;
+        visited.clear();
+        queue.clear();
+
+        int foundBlocks = 0;
+        queue.enqueue(root.asLong());
+        while (!queue.isEmpty() && foundBlocks < MAX_TREE_BLOCKS) {
+            final var cursor = queue.dequeueLong();
+            final var cursorX = BlockPos.unpackLongX(cursor);
+            final var cursorY = BlockPos.unpackLongY(cursor);
+            final var cursorZ = BlockPos.unpackLongZ(cursor);
+            for (int y = cursorY; y <= cursorY + 1; y++) {
+                for (int x = cursorX - 1; x <= cursorX + 1; x++) {
+                    for (int z = cursorZ - 1; z <= cursorZ + 1; z++) {
+                        final var key = BlockPos.asLong(x, y, z);
+                        if(visited.contains(key)) continue;
+                        final BlockState blockState = world.getBlockState(mutable.set(x, y, z));
+                        if(rootBlockState.equals(blockState)) {
+                            visited.add(key);
+                            treeBlocks.add(mutable.toImmutable());
+                            queue.enqueue(key);
+                            foundBlocks++;
+                        } else if(isLeaves(blockState)) {
+                            final var dx = x - root.getX();
+                            final var dz = z - root.getZ();
+                            if(dx * dx + dz * dz <= 9) {
+                                visited.add(key);
+                                leavesBlocks.add(mutable.toImmutable());
+                                queue.enqueue(key);
+                                foundBlocks++;
+                            }
+                        }
+                    }
                 }
             }
         }
-
-        for (BlockPos neighbor : neighbors) {
-            updateTreeDataForOneTree(world, treeBlocks, leavesBlocks, neighbor, rootBlockState, root);
-        }
     }
 
     public static void removeTheRestOfATree(IWorkerPawn pawn, TreeBlocks tree, ServerWorld world) {
@@ -153,4 +184,10 @@ public class TreeHelper {
 
     record TreeInfo(int logsCount, BlockPos highestLeaf) {}
 
+    private static final class Traversal {
+        private final LongOpenHashSet visited = new LongOpenHashSet();
+        private final LongArrayFIFOQueue queue = new LongArrayFIFOQueue();
+        private final BlockPos.Mutable mutable = new BlockPos.Mutable();
+    }
+
 }